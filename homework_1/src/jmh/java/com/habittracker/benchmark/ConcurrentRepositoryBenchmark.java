@@ -0,0 +1,135 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+import com.habittracker.repository.ConcurrentHabitCompletionRepository;
+import com.habittracker.repository.ConcurrentUserRepository;
+import com.habittracker.repository.HabitCompletionRepository;
+import com.habittracker.repository.HabitCompletionRepositoryImpl;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.UserRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры репозиториев в памяти при обращении из нескольких потоков.
+ *
+ * <p>Репозитории на {@link java.util.HashMap} нельзя использовать из нескольких потоков без внешней
+ * синхронизации, поэтому при {@code store=map} каждая операция выполняется под общей блокировкой —
+ * так их пришлось бы разделять между потоками сервера. При {@code store=concurrent} операции
+ * обращаются к {@link ConcurrentUserRepository} и {@link ConcurrentHabitCompletionRepository} напрямую.
+ * Число потоков задается {@link Threads} или параметром {@code -t}; запуск с {@code -t 1}
+ * показывает накладные расходы потокобезопасных карт без конкуренции.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ConcurrentRepositoryBenchmark {
+
+    @Param({"map", "concurrent"})
+    public String store;
+
+    @Param({"100"})
+    public int habits;
+
+    @Param({"365"})
+    public int days;
+
+    private UserRepository userRepository;
+    private HabitCompletionRepository habitCompletionRepository;
+    private final Object lock = new Object();
+    private boolean locked;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Habit> habitList = new ArrayList<>();
+    private LocalDate createDate;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        locked = "map".equals(store);
+        userRepository = locked ? new UserRepositoryImpl() : new ConcurrentUserRepository();
+        habitCompletionRepository = locked ? new HabitCompletionRepositoryImpl() : new ConcurrentHabitCompletionRepository();
+        createDate = LocalDate.now().minusDays(days - 1);
+
+        for (int h = 0; h < habits; h++) {
+            User user = new User("User " + h, "user" + h + "@bench", "password", User.Role.USER);
+            userRepository.addUser(user);
+            users.add(user);
+
+            Habit habit = new Habit("Habit " + h, "Benchmark habit", Habit.Frequency.DAILY, user, createDate);
+            habitList.add(habit);
+            for (int day = 0; day < days; day += 2) {
+                habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(createDate.plusDays(day), habit));
+            }
+        }
+    }
+
+    /**
+     * Отмечает случайный период случайной привычки и снимает отметку, сохраняя размер данных.
+     */
+    @Benchmark
+    public boolean markAndUnmark() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Habit habit = habitList.get(random.nextInt(habitList.size()));
+        HabitCompletion completion = new HabitCompletion(createDate.plusDays(random.nextInt(days)), habit);
+        if (locked) {
+            synchronized (lock) {
+                return markAndUnmark(habit, completion);
+            }
+        }
+        return markAndUnmark(habit, completion);
+    }
+
+    @Benchmark
+    public HabitCompletion getHabitCompletion() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Habit habit = habitList.get(random.nextInt(habitList.size()));
+        int serialNumber = random.nextInt(days) + 1;
+        if (locked) {
+            synchronized (lock) {
+                return habitCompletionRepository.getHabitCompletion(habit, serialNumber);
+            }
+        }
+        return habitCompletionRepository.getHabitCompletion(habit, serialNumber);
+    }
+
+    @Benchmark
+    public User getUser() {
+        String email = users.get(ThreadLocalRandom.current().nextInt(users.size())).getEmail();
+        if (locked) {
+            synchronized (lock) {
+                return userRepository.getUser(email);
+            }
+        }
+        return userRepository.getUser(email);
+    }
+
+    private boolean markAndUnmark(Habit habit, HabitCompletion completion) {
+        if (habitCompletionRepository.addHabitCompletion(habit, completion)) {
+            return habitCompletionRepository.deleteHabitCompletion(habit, completion.getSerialNumber());
+        }
+        return false;
+    }
+}
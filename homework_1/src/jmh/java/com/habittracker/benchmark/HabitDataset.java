@@ -0,0 +1,169 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+import com.habittracker.repository.BitSetHabitCompletionRepository;
+import com.habittracker.repository.ConcurrentHabitCompletionRepository;
+import com.habittracker.repository.ConcurrentHabitRepository;
+import com.habittracker.repository.ConcurrentUserRepository;
+import com.habittracker.repository.HabitCompletionRepository;
+import com.habittracker.repository.HabitCompletionRepositoryImpl;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.HabitRepositoryImpl;
+import com.habittracker.repository.MappedHabitCompletionRepository;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.UserRepositoryImpl;
+import com.habittracker.service.HabitService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Набор данных для бенчмарков: {@code users} пользователей, у каждого {@code habits} привычек
+ * с историей выполнений за {@code days} дней. Половина привычек ежедневные, половина еженедельные.
+ * Выполнения пропускаются с вероятностью {@code 1 - completionRate}, генератор инициализируется
+ * постоянным значением, поэтому данные одинаковы от запуска к запуску.
+ * Параметр {@code store} выбирает хранилище выполнений: {@code map} — {@link HabitCompletionRepositoryImpl},
+ * {@code bitset} — {@link BitSetHabitCompletionRepository}, {@code concurrent} — потокобезопасные
+ * {@link ConcurrentUserRepository}, {@link ConcurrentHabitRepository} и {@link ConcurrentHabitCompletionRepository},
+ * {@code mapped} — {@link MappedHabitCompletionRepository} во временном файле без сброса на диск
+ * ({@link FsyncPolicy#NEVER}), чтобы замер показывал чтение и запись отображения, а не {@code fsync}.
+ */
+@State(Scope.Benchmark)
+public class HabitDataset {
+
+    @Param({"10"})
+    public int users;
+
+    @Param({"10"})
+    public int habits;
+
+    @Param({"30", "365"})
+    public int days;
+
+    @Param({"0.8"})
+    public double completionRate;
+
+    @Param({"map", "bitset", "concurrent", "mapped"})
+    public String store;
+
+    UserRepository userRepository;
+    HabitRepository habitRepository;
+    HabitCompletionRepository habitCompletionRepository;
+    HabitService habitService;
+
+    /** Все пользователи набора данных */
+    final List<User> userList = new ArrayList<>();
+
+    /** Все привычки набора данных */
+    final List<Habit> habitList = new ArrayList<>();
+
+    /**
+     * Отметки на завтрашний день для каждой привычки: в наборе данных их нет, поэтому их можно
+     * добавлять и удалять, не создавая новых объектов во время замера.
+     */
+    final List<HabitCompletion> tomorrowCompletions = new ArrayList<>();
+
+    /** Дата, с которой считается процент выполнения */
+    LocalDate percentageStartDate;
+
+    private Path completionFile;
+
+    private int nextUser;
+    private int nextHabit;
+    private int nextTomorrowCompletion;
+
+    @Setup(Level.Trial)
+    public void seed() throws IOException {
+        if ("concurrent".equals(store)) {
+            userRepository = new ConcurrentUserRepository();
+            habitRepository = new ConcurrentHabitRepository();
+            habitCompletionRepository = new ConcurrentHabitCompletionRepository();
+        } else {
+            userRepository = new UserRepositoryImpl();
+            habitRepository = new HabitRepositoryImpl();
+            if ("mapped".equals(store)) {
+                completionFile = Files.createTempFile("habit-tracker", ".completions");
+                habitCompletionRepository = new MappedHabitCompletionRepository(completionFile, FsyncPolicy.NEVER, 0);
+            } else if ("bitset".equals(store)) {
+                habitCompletionRepository = new BitSetHabitCompletionRepository();
+            } else {
+                habitCompletionRepository = new HabitCompletionRepositoryImpl();
+            }
+        }
+        habitService = new HabitService(habitCompletionRepository, habitRepository);
+
+        Random random = new Random(42);
+        LocalDate createDate = LocalDate.now().minusDays(days - 1);
+        percentageStartDate = LocalDate.now().minusDays(days / 2);
+
+        for (int u = 0; u < users; u++) {
+            User user = new User("User " + u, "user" + u + "@bench", "password", User.Role.USER);
+            userRepository.addUser(user);
+            userList.add(user);
+
+            for (int h = 0; h < habits; h++) {
+                Habit.Frequency frequency = h % 2 == 0 ? Habit.Frequency.DAILY : Habit.Frequency.WEEKLY;
+                Habit habit = new Habit("Habit " + h, "Benchmark habit", frequency, user, createDate);
+                habitRepository.addHabit(user, habit);
+                habitList.add(habit);
+                tomorrowCompletions.add(new HabitCompletion(LocalDate.now().plusDays(frequency == Habit.Frequency.DAILY ? 1 : 7), habit));
+
+                int step = frequency == Habit.Frequency.DAILY ? 1 : 7;
+                for (LocalDate date = createDate; !date.isAfter(LocalDate.now()); date = date.plusDays(step)) {
+                    if (random.nextDouble() < completionRate) {
+                        habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(date, habit));
+                    }
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCompletionFile() throws IOException {
+        if (completionFile != null) {
+            ((MappedHabitCompletionRepository) habitCompletionRepository).close();
+            Files.delete(completionFile);
+        }
+    }
+
+    /**
+     * Возвращает следующего пользователя по кругу, чтобы замер не сводился к одной записи.
+     */
+    User nextUser() {
+        User user = userList.get(nextUser);
+        nextUser = (nextUser + 1) % userList.size();
+        return user;
+    }
+
+    /**
+     * Возвращает отметку на завтра для следующей привычки по кругу.
+     */
+    HabitCompletion nextTomorrowCompletion() {
+        HabitCompletion completion = tomorrowCompletions.get(nextTomorrowCompletion);
+        nextTomorrowCompletion = (nextTomorrowCompletion + 1) % tomorrowCompletions.size();
+        return completion;
+    }
+
+    /**
+     * Возвращает следующую привычку по кругу.
+     */
+    Habit nextHabit() {
+        Habit habit = habitList.get(nextHabit);
+        nextHabit = (nextHabit + 1) % habitList.size();
+        return habit;
+    }
+}
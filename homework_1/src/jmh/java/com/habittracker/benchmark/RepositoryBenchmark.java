@@ -0,0 +1,71 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры операций репозиториев в памяти. Для оценки числа создаваемых объектов на операцию
+ * запускайте с профилировщиком {@code -prof gc} и смотрите {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Benchmark
+    public User getUser(HabitDataset dataset) {
+        return dataset.userRepository.getUser(dataset.nextUser().getEmail());
+    }
+
+    @Benchmark
+    public List<Habit> getAllHabits(HabitDataset dataset) {
+        return dataset.habitRepository.getAllHabits(dataset.nextUser());
+    }
+
+    @Benchmark
+    public HabitCompletion getHabitCompletion(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getHabitCompletion(dataset.nextHabit(), 1);
+    }
+
+    /**
+     * Поиск отметки последнего дня: при {@code days=365} серийный номер больше 127,
+     * и упакованный ключ {@link Integer} уже не берется из кэша.
+     */
+    @Benchmark
+    public HabitCompletion getLatestHabitCompletion(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getHabitCompletion(dataset.nextHabit(), dataset.days);
+    }
+
+    /**
+     * Добавление отметки и ее удаление, чтобы набор данных не менялся от операции к операции.
+     */
+    @Benchmark
+    public boolean addAndDeleteHabitCompletion(HabitDataset dataset) {
+        HabitCompletion completion = dataset.nextTomorrowCompletion();
+        dataset.habitCompletionRepository.addHabitCompletion(completion.getHabit(), completion);
+        return dataset.habitCompletionRepository.deleteHabitCompletion(completion.getHabit(), completion.getSerialNumber());
+    }
+
+    @Benchmark
+    public List<HabitCompletion> getAllHabitCompletion(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getAllHabitCompletion(dataset.nextHabit());
+    }
+
+    @Benchmark
+    public List<HabitCompletion> getAllHabitCompletionByDate(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getAllHabitCompletionByDate(dataset.nextHabit(), dataset.percentageStartDate);
+    }
+}
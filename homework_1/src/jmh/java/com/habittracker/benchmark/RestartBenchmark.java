@@ -0,0 +1,99 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+import com.habittracker.repository.WalStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры времени запуска {@link WalStore} на данных с несколькими миллионами выполнений.
+ *
+ * <p>При {@code source=log} все данные восстанавливаются повтором журнала, при {@code source=snapshot}
+ * загружается снимок, а журнал после него пуст. Каждая итерация — одно открытие хранилища.
+ * Каждая четвертая отметка пропущена, чтобы серии выполнений были не сплошными.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RestartBenchmark {
+
+    @Param({"log", "snapshot"})
+    public String source;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"10"})
+    public int habits;
+
+    @Param({"365"})
+    public int days;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void populate() throws IOException {
+        directory = Files.createTempDirectory("habit-tracker");
+        LocalDate createDate = LocalDate.now().minusDays(days - 1);
+        long completions = 0;
+        try (WalStore store = new WalStore(directory, FsyncPolicy.NEVER, 0)) {
+            for (int u = 0; u < users; u++) {
+                User user = new User("User " + u, "user" + u + "@bench", "password", User.Role.USER);
+                store.getUserRepository().addUser(user);
+                for (int h = 0; h < habits; h++) {
+                    Habit habit = new Habit("Habit " + h, "Benchmark habit", Habit.Frequency.DAILY, user, createDate);
+                    store.getHabitRepository().addHabit(user, habit);
+                    for (int day = 0; day < days; day++) {
+                        if (day % 4 != 3) {
+                            store.getHabitCompletionRepository().addHabitCompletion(habit,
+                                    new HabitCompletion(createDate.plusDays(day), habit));
+                            completions++;
+                        }
+                    }
+                }
+            }
+            if (source.equals("snapshot")) {
+                store.snapshot();
+            }
+        }
+        System.out.println("Completions: " + completions);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        WalBenchmark.deleteDirectory(directory);
+    }
+
+    /**
+     * Открытие хранилища: загрузка снимка и (или) повтор журнала.
+     */
+    @Benchmark
+    public WalStore restart() throws IOException {
+        try (WalStore store = new WalStore(directory, FsyncPolicy.NEVER, 0)) {
+            return store;
+        }
+    }
+}
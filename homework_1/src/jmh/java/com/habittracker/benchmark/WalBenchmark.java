@@ -0,0 +1,99 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+import com.habittracker.repository.HabitCompletionRepository;
+import com.habittracker.repository.WalStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Замеры задержки изменений через {@link WalStore} при разных политиках сброса журнала на диск.
+ * Запуск с {@code -t 4} показывает, как одновременные операции разделяют один {@code fsync}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalBenchmark {
+
+    @Param({"ALWAYS", "INTERVAL", "NEVER"})
+    public FsyncPolicy policy;
+
+    @Param({"100"})
+    public int habits;
+
+    private Path directory;
+    private WalStore store;
+    private HabitCompletionRepository completions;
+    private Habit[] habitList;
+    private LocalDate createDate;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("habit-tracker");
+        store = new WalStore(directory, policy, 100);
+        completions = store.getHabitCompletionRepository();
+        createDate = LocalDate.now().minusDays(364);
+
+        User user = new User("User", "user@bench", "password", User.Role.USER);
+        store.getUserRepository().addUser(user);
+        habitList = new Habit[habits];
+        for (int h = 0; h < habits; h++) {
+            habitList[h] = new Habit("Habit " + h, "Benchmark habit", Habit.Frequency.DAILY, user, createDate);
+            store.getHabitRepository().addHabit(user, habitList[h]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        store.close();
+        deleteDirectory(directory);
+    }
+
+    static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Отметка привычки и ее снятие: две записи в журнал на операцию.
+     */
+    @Benchmark
+    public boolean markAndUnmark() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Habit habit = habitList[random.nextInt(habitList.length)];
+        HabitCompletion completion = new HabitCompletion(createDate.plusDays(random.nextInt(365)), habit);
+        if (completions.addHabitCompletion(habit, completion)) {
+            return completions.deleteHabitCompletion(habit, completion.getSerialNumber());
+        }
+        return false;
+    }
+}
@@ -1,19 +1,46 @@
 package com.habittracker;
 
 import com.habittracker.controller.MenuController;
-import com.habittracker.repository.HabitRepository;
-import com.habittracker.repository.HabitRepositoryImpl;
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.repository.WalStore;
 import com.habittracker.service.HabitCompletionService;
 import com.habittracker.service.HabitService;
 import com.habittracker.service.UserService;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Точка входа приложения. Данные хранятся в памяти и сохраняются в журнал упреждающей записи
+ * с периодическими снимками. Каталог данных и политика сброса на диск задаются системными свойствами
+ * {@code wal.dir} (по умолчанию {@code habit-tracker-data}), {@code wal.fsync} ({@code ALWAYS},
+ * {@code INTERVAL} или {@code NEVER}, по умолчанию {@code ALWAYS}), {@code wal.fsyncIntervalMs}
+ * (по умолчанию 100) и {@code wal.snapshotIntervalMs} (по умолчанию 60000, 0 отключает снимки).
+ */
 public class Main {
 
     public static void main(String[] args) {
-        UserService userService = new UserService();
-        HabitCompletionService habitCompletionService = new HabitCompletionService();
-        HabitRepository habitRepository = new HabitRepositoryImpl();
-        HabitService habitService = new HabitService(habitCompletionService.habitCompletionRepository, habitRepository);
+        WalStore store;
+        try {
+            store = new WalStore(Path.of(System.getProperty("wal.dir", "habit-tracker-data")),
+                    FsyncPolicy.valueOf(System.getProperty("wal.fsync", FsyncPolicy.ALWAYS.name())),
+                    Long.parseLong(System.getProperty("wal.fsyncIntervalMs", "100")),
+                    Long.parseLong(System.getProperty("wal.snapshotIntervalMs", "60000")));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+
+        UserService userService = new UserService(store.getUserRepository());
+        HabitCompletionService habitCompletionService = new HabitCompletionService(store.getHabitCompletionRepository());
+        HabitService habitService = new HabitService(store.getHabitCompletionRepository(), store.getHabitRepository());
         MenuController menuController = new MenuController(userService, habitService, habitCompletionService);
         menuController.start();
     }
@@ -0,0 +1,17 @@
+package com.habittracker.infrastructure.wal;
+
+/**
+ * Политика сброса журнала на диск ({@code fsync}).
+ * Во всех режимах запись попадает в файл до возврата из операции, поэтому падение самого процесса
+ * ее не теряет; режимы различаются тем, что переживает отказ операционной системы или питания.
+ */
+public enum FsyncPolicy {
+    /** Операция ждет {@code fsync}; одновременные операции разделяют один сброс (групповая фиксация). */
+    ALWAYS,
+
+    /** Журнал сбрасывается фоновым потоком раз в заданный интервал; при отказе теряется не больше интервала. */
+    INTERVAL,
+
+    /** Журнал не сбрасывается явно, момент записи на диск выбирает операционная система. */
+    NEVER
+}
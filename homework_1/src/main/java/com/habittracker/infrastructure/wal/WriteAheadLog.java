@@ -0,0 +1,332 @@
+package com.habittracker.infrastructure.wal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал упреждающей записи: файл, в конец которого дописываются двоичные записи об изменениях.
+ *
+ * <p>Формат записи: длина тела ({@code int}), контрольная сумма CRC32 тела ({@code int}), тело —
+ * тип записи (1 байт) и данные. Запись, оборванная на середине или с неверной контрольной суммой,
+ * считается недописанной: при чтении журнала она и все, что за ней, отбрасываются, а файл усекается.
+ *
+ * <p>{@link #append} только кладет запись в буфер и возвращает ее номер; {@link #sync} записывает
+ * буфер в файл и, при политике {@link FsyncPolicy#ALWAYS}, вызывает {@code fsync}. Записью и сбросом
+ * занимается один поток за раз, и он записывает все, что успели добавить остальные, поэтому
+ * одновременные операции разделяют один {@code fsync} (групповая фиксация).
+ *
+ * <p>Если запись в файл или сброс на диск завершились ошибкой, журнал усекается до конца последней
+ * целой записи и переходит в состояние отказа: все последующие {@link #append} и {@link #sync}
+ * выбрасывают исключение. Так ни одна запись после потерянной не будет считаться сохраненной.
+ */
+public class WriteAheadLog implements Closeable {
+
+    /** Размер заголовка записи: длина и контрольная сумма. */
+    private static final int HEADER_SIZE = 8;
+
+    /** Максимальный размер тела записи; большее значение длины означает поврежденный журнал. */
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+
+    /** Поток периодического сброса при политике {@link FsyncPolicy#INTERVAL}. */
+    private final ScheduledExecutorService flusher;
+
+    /** Защищает буфер и счетчик добавленных записей. */
+    private final Object appendLock = new Object();
+
+    /** Допускает к файлу один поток за раз. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private ByteBuffer spare = ByteBuffer.allocate(4096);
+
+    /** Номер последней добавленной записи. */
+    private long appendedSeq;
+
+    /** Номер последней записи, записанной в файл. */
+    private volatile long writtenSeq;
+
+    /** Номер последней записи, сброшенной на диск. */
+    private volatile long forcedSeq;
+
+    /** Число вызовов {@code fsync}. */
+    private volatile long forceCount;
+
+    /** Длина файла после последней успешно записанной пачки записей. */
+    private long writtenLength;
+
+    /** Первая ошибка записи; после нее журнал отклоняет все операции. */
+    private volatile IOException failure;
+
+    private boolean closed;
+
+    /**
+     * Открывает журнал, создавая файл при необходимости.
+     * Перед первой записью нужно прочитать существующие записи методом {@link #replay}.
+     *
+     * @param path                путь к файлу журнала
+     * @param policy              политика сброса на диск
+     * @param fsyncIntervalMillis интервал сброса (мс) для политики {@link FsyncPolicy#INTERVAL}
+     * @throws IOException если файл не удалось открыть
+     */
+    public WriteAheadLog(Path path, FsyncPolicy policy, long fsyncIntervalMillis) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), policy, fsyncIntervalMillis);
+    }
+
+    /**
+     * Открывает журнал поверх уже открытого канала.
+     *
+     * @param channel             канал файла журнала
+     * @param policy              политика сброса на диск
+     * @param fsyncIntervalMillis интервал сброса (мс) для политики {@link FsyncPolicy#INTERVAL}
+     */
+    WriteAheadLog(FileChannel channel, FsyncPolicy policy, long fsyncIntervalMillis) {
+        this.channel = channel;
+        this.policy = policy;
+        if (policy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Обработчик записи журнала при его чтении.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        /**
+         * @param type тип записи
+         * @param data данные записи
+         * @throws IOException если данные записи не удалось разобрать
+         */
+        void apply(byte type, DataInputStream data) throws IOException;
+    }
+
+    /**
+     * Читает все записи журнала по порядку и передает их обработчику. Недописанный хвост журнала
+     * отбрасывается, следующие записи добавляются после последней целой записи.
+     *
+     * @param handler обработчик записей
+     * @return число прочитанных записей
+     * @throws IOException если файл не удалось прочитать или обработчик не смог разобрать запись
+     */
+    public long replay(RecordHandler handler) throws IOException {
+        flushLock.lock();
+        try {
+            channel.position(0);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            long validLength = 0;
+            long records = 0;
+            CRC32 crc = new CRC32();
+
+            while (true) {
+                byte[] body;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 1 || length > MAX_RECORD_SIZE) {
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                handler.apply(body[0], new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1)));
+                validLength += HEADER_SIZE + body.length;
+                records++;
+            }
+
+            if (validLength < channel.size()) {
+                channel.truncate(validLength);
+            }
+            channel.position(validLength);
+            writtenLength = validLength;
+            return records;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет запись в буфер журнала. Запись не считается сохраненной до вызова {@link #sync}.
+     *
+     * @param type тип записи
+     * @param data данные записи
+     * @return номер записи для {@link #sync}
+     * @throws UncheckedIOException если журнал ранее не удалось записать
+     */
+    public long append(byte type, byte[] data) {
+        checkNotFailed();
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data);
+        int length = data.length + 1;
+
+        synchronized (appendLock) {
+            if (pending.remaining() < HEADER_SIZE + length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_SIZE + length));
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            pending.putInt(length).putInt((int) crc.getValue()).put(type).put(data);
+            return ++appendedSeq;
+        }
+    }
+
+    /**
+     * Дожидается сохранения записи с заданным номером согласно политике: запись в файл,
+     * а при {@link FsyncPolicy#ALWAYS} — еще и сброс на диск.
+     *
+     * @param seq номер записи, возвращенный {@link #append}
+     * @throws UncheckedIOException если журнал не удалось записать
+     */
+    public void sync(long seq) {
+        checkNotFailed();
+        if (isSynced(seq)) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            checkNotFailed();
+            if (!isSynced(seq)) {
+                flush(policy == FsyncPolicy.ALWAYS);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает число вызовов {@code fsync}; при групповой фиксации оно меньше числа записей.
+     *
+     * @return число сбросов журнала на диск
+     */
+    public long getForceCount() {
+        return forceCount;
+    }
+
+    /**
+     * Записывает и сбрасывает на диск оставшиеся записи (кроме политики {@link FsyncPolicy#NEVER})
+     * и закрывает файл.
+     *
+     * @throws IOException если журнал не удалось записать или закрыть
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flush(policy != FsyncPolicy.NEVER);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                channel.close();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("The write-ahead log has failed earlier", failure);
+        }
+    }
+
+    private boolean isSynced(long seq) {
+        return (policy == FsyncPolicy.ALWAYS ? forcedSeq : writtenSeq) >= seq;
+    }
+
+    private void flushInBackground() {
+        flushLock.lock();
+        try {
+            if (!closed) {
+                flush(true);
+            }
+        } catch (UncheckedIOException e) {
+            e.printStackTrace();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Записывает накопленный буфер в файл. Вызывается под {@link #flushLock}.
+     * При ошибке переводит журнал в состояние отказа и отрезает недописанный хвост файла.
+     */
+    private void flush(boolean force) {
+        checkNotFailed();
+        ByteBuffer batch;
+        long batchSeq;
+        synchronized (appendLock) {
+            batch = pending;
+            pending = spare;
+            spare = batch;
+            batchSeq = appendedSeq;
+        }
+
+        batch.flip();
+        try {
+            long length = writtenLength + batch.remaining();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            if (force && forcedSeq < batchSeq) {
+                channel.force(false);
+                forcedSeq = batchSeq;
+                forceCount++;
+            }
+            writtenLength = length;
+            writtenSeq = batchSeq;
+        } catch (IOException e) {
+            failure = e;
+            try {
+                channel.truncate(writtenLength);
+                channel.position(writtenLength);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+            throw new UncheckedIOException("Failed to write the write-ahead log", e);
+        } finally {
+            batch.clear();
+        }
+    }
+}
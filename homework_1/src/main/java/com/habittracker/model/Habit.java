@@ -10,6 +10,8 @@ import java.util.List;
  * пользователе и завершениях привычки.
  */
 public class Habit {
+    /** Идентификатор привычки, присваивается репозиторием при добавлении (0, если привычка еще не добавлена) */
+    private int id;
     private String name;
     private String description;
     private Frequency frequency;
@@ -61,6 +63,14 @@ public class Habit {
         this.completions = new ArrayList<>();
     }
 
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -108,7 +118,38 @@ public class Habit {
     public void setUser(User user) {
         this.user = user;
     }
-}
 
+    /**
+     * Возвращает неизменяемый ключ привычки.
+     *
+     * @return ключ {@link HabitId} с идентификатором привычки
+     */
+    public HabitId getHabitId() {
+        return new HabitId(id);
+    }
 
+    /**
+     * Сравнивает привычки по идентификатору. Пока идентификатор не присвоен (равен 0),
+     * объект равен только самому себе.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Habit)) {
+            return false;
+        }
+        Habit other = (Habit) o;
+        return id != 0 && id == other.id;
+    }
 
+    /**
+     * Хэш-код по идентификатору, а для еще не сохраненного объекта — по ссылке. Идентификатор нужно
+     * присвоить до того, как объект станет ключом карты: иначе хэш-код ключа изменится.
+     */
+    @Override
+    public int hashCode() {
+        return id != 0 ? Integer.hashCode(id) : System.identityHashCode(this);
+    }
+}
@@ -9,6 +9,8 @@ import java.util.List;
  * пароль, роль (пользователь или администратор), статус блокировки и список привычек.
  */
 public class User {
+    /** Идентификатор пользователя, присваивается репозиторием при добавлении (0, если пользователь еще не добавлен) */
+    private int id;
     private String name;
     private String email;
     private String password;
@@ -42,6 +44,14 @@ public class User {
         this.isBlocked = false;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -89,4 +99,38 @@ public class User {
     public void setHabits(List<Habit> habits) {
         this.habits = habits;
     }
+
+    /**
+     * Возвращает неизменяемый ключ пользователя.
+     *
+     * @return ключ {@link UserId} с идентификатором пользователя
+     */
+    public UserId getUserId() {
+        return new UserId(id);
+    }
+
+    /**
+     * Сравнивает пользователей по идентификатору. Пока идентификатор не присвоен (равен 0),
+     * объект равен только самому себе.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User)) {
+            return false;
+        }
+        User other = (User) o;
+        return id != 0 && id == other.id;
+    }
+
+    /**
+     * Хэш-код по идентификатору, а для еще не сохраненного объекта — по ссылке. Идентификатор нужно
+     * присвоить до того, как объект станет ключом карты: иначе хэш-код ключа изменится.
+     */
+    @Override
+    public int hashCode() {
+        return id != 0 ? Integer.hashCode(id) : System.identityHashCode(this);
+    }
 }
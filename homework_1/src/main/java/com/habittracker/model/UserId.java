@@ -0,0 +1,10 @@
+package com.habittracker.model;
+
+/**
+ * Неизменяемый ключ пользователя: его идентификатор без остальных полей.
+ * Подходит для ключей карт и кэшей, где хранить или сравнивать весь объект {@link User} не нужно.
+ *
+ * @param value идентификатор пользователя
+ */
+public record UserId(int value) {
+}
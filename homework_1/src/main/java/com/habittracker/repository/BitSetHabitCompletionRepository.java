@@ -0,0 +1,217 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Реализация интерфейса {@link HabitCompletionRepository}, хранящая выполнения каждой привычки
+ * в виде битового набора {@link BitSet}: бит с индексом, равным серийному номеру, установлен,
+ * если привычка выполнена в этот день или неделю.
+ *
+ * <p>В отличие от {@link HabitCompletionRepositoryImpl}, здесь не хранятся объекты {@link HabitCompletion}
+ * и упакованные ключи: год ежедневной привычки занимает 365 бит (около 46 байт) в массиве слов
+ * {@code long}. Дата отметки не хранится, а вычисляется из даты создания привычки и серийного номера,
+ * поэтому для еженедельной привычки возвращается первый день недели, к которой относится отметка.
+ *
+ * <p>Серия выполнений и число выполнений за период считаются поиском по словам битового набора
+ * без создания объектов выполнений.
+ *
+ * <p>Как и в {@link CompletionSeries}, серийный номер не больше {@value CompletionSeries#MAX_CAPACITY}:
+ * отметка с далекой датой не добавляется, чтобы набор не занимал память на весь промежуток.
+ */
+public class BitSetHabitCompletionRepository implements HabitCompletionRepository {
+    private final Map<Habit, BitSet> completions = new HashMap<>();
+
+    /**
+     * Получает выполнение привычки по заданному серийному номеру для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить выполнение
+     * @param serialNumber серийный номер выполнения привычки
+     * @return выполнение привычки {@link HabitCompletion}, если найдено, или {@code null}, если отсутствует
+     */
+    @Override
+    public HabitCompletion getHabitCompletion(Habit habit, int serialNumber) {
+        BitSet habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null || serialNumber < 1 || !habitCompletions.get(serialNumber)) {
+            return null;
+        }
+        return toHabitCompletion(habit, serialNumber);
+    }
+
+    /**
+     * Добавляет новое выполнение привычки для указанной привычки.
+     * Если серийный номер уже существует, предшествует созданию привычки или больше
+     * {@value CompletionSeries#MAX_CAPACITY}, метод возвращает {@code false}.
+     *
+     * @param habit привычка {@link Habit}, для которой добавляется выполнение
+     * @param newCompletion новое выполнение {@link HabitCompletion}
+     * @return {@code true}, если выполнение было успешно добавлено, иначе {@code false}
+     */
+    @Override
+    public boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion) {
+        int serialNumber = newCompletion.getSerialNumber();
+        if (serialNumber < 1 || serialNumber > CompletionSeries.MAX_CAPACITY) {
+            return false;
+        }
+
+        BitSet habitCompletions = completions.computeIfAbsent(habit, key -> new BitSet());
+        if (habitCompletions.get(serialNumber)) {
+            return false;
+        }
+        habitCompletions.set(serialNumber);
+        return true;
+    }
+
+    /**
+     * Обновляет существующее выполнение привычки по заданному серийному номеру. Как и в
+     * {@link HabitCompletionRepositoryImpl}, выполнение остается под прежним серийным номером.
+     * Дата отметки здесь не хранится, а вычисляется из номера, поэтому бит не меняется.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно обновить выполнение
+     * @param serialNumber серийный номер выполнения
+     * @param updatedCompletion обновленное выполнение {@link HabitCompletion}
+     * @return {@code true}, если обновление прошло успешно, или {@code false}, если выполнение не было найдено
+     */
+    @Override
+    public boolean updateHabitCompletion(Habit habit, int serialNumber, HabitCompletion updatedCompletion) {
+        BitSet habitCompletions = completions.get(habit);
+
+        return habitCompletions != null && serialNumber >= 1 && habitCompletions.get(serialNumber);
+    }
+
+    /**
+     * Удаляет выполнение привычки по серийному номеру.
+     *
+     * @param habit привычка {@link Habit}, из которой нужно удалить выполнение
+     * @param serialNumber серийный номер выполнения, которое нужно удалить
+     * @return {@code true}, если удаление прошло успешно, или {@code false}, если выполнение не найдено
+     */
+    @Override
+    public boolean deleteHabitCompletion(Habit habit, int serialNumber) {
+        BitSet habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null || serialNumber < 1 || !habitCompletions.get(serialNumber)) {
+            return false;
+        }
+        habitCompletions.clear(serialNumber);
+        return true;
+    }
+
+    /**
+     * Удаляет все выполнения для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно удалить все выполнения
+     * @return {@code true}
+     */
+    @Override
+    public boolean deleteAllHabitCompletion(Habit habit) {
+        completions.remove(habit);
+        return true;
+    }
+
+    /**
+     * Получает все выполнения привычки в порядке возрастания серийного номера.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить все выполнения
+     * @return список объектов {@link HabitCompletion}, или пустой список, если выполнения отсутствуют
+     */
+    @Override
+    public List<HabitCompletion> getAllHabitCompletion(Habit habit) {
+        return collectFrom(habit, 1);
+    }
+
+    /**
+     * Получает все выполнения привычки начиная с указанной даты в порядке возрастания серийного номера.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить выполнения
+     * @param date дата {@link LocalDate}, начиная с которой нужно получить выполнения
+     * @return список объектов {@link HabitCompletion} для привычки на или после указанной даты
+     */
+    @Override
+    public List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date) {
+        return collectFrom(habit, serialNumberOf(habit, date));
+    }
+
+    /**
+     * Считает текущую серию выполнений привычки: длину непрерывного блока установленных битов,
+     * заканчивающегося заданным серийным номером.
+     *
+     * @param habit привычка {@link Habit}, для которой считается серия
+     * @param currentSerialNumber серийный номер текущего дня или недели
+     * @return длина текущей серии или 0, если в текущем периоде привычка не выполнена
+     */
+    @Override
+    public int getHabitStreak(Habit habit, int currentSerialNumber) {
+        BitSet habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null || currentSerialNumber < 1 || !habitCompletions.get(currentSerialNumber)) {
+            return 0;
+        }
+        return currentSerialNumber - habitCompletions.previousClearBit(currentSerialNumber);
+    }
+
+    /**
+     * Считает выполнения привычки начиная с указанной даты как число установленных битов
+     * от серийного номера этой даты до конца набора.
+     *
+     * @param habit привычка {@link Habit}, для которой считаются выполнения
+     * @param date дата {@link LocalDate}, начиная с которой считаются выполнения
+     * @return число выполнений привычки на или после указанной даты
+     */
+    @Override
+    public int countHabitCompletionsByDate(Habit habit, LocalDate date) {
+        BitSet habitCompletions = completions.get(habit);
+        int from = Math.max(1, serialNumberOf(habit, date));
+
+        if (habitCompletions == null || from >= habitCompletions.length()) {
+            return 0;
+        }
+        return habitCompletions.get(from, habitCompletions.length()).cardinality();
+    }
+
+    private List<HabitCompletion> collectFrom(Habit habit, int fromSerialNumber) {
+        List<HabitCompletion> result = new ArrayList<>();
+        BitSet habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null) {
+            return result;
+        }
+        for (int serialNumber = habitCompletions.nextSetBit(Math.max(1, fromSerialNumber));
+             serialNumber >= 0;
+             serialNumber = habitCompletions.nextSetBit(serialNumber + 1)) {
+            result.add(toHabitCompletion(habit, serialNumber));
+        }
+        return result;
+    }
+
+    /**
+     * Серийный номер периода, в который попадает дата. Для дат, номер которых не помещается в {@code int},
+     * возвращается ближайшее значение {@code int}.
+     */
+    private static int serialNumberOf(Habit habit, LocalDate date) {
+        long periods = habit.getFrequency().equals(Habit.Frequency.DAILY)
+                ? ChronoUnit.DAYS.between(habit.getCreateDate(), date)
+                : ChronoUnit.WEEKS.between(habit.getCreateDate(), date);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, periods + 1));
+    }
+
+    private static HabitCompletion toHabitCompletion(Habit habit, int serialNumber) {
+        LocalDate markDate;
+        if (habit.getFrequency().equals(Habit.Frequency.DAILY)) {
+            markDate = habit.getCreateDate().plusDays(serialNumber - 1);
+        } else {
+            markDate = habit.getCreateDate().plusWeeks(serialNumber - 1);
+        }
+        return new HabitCompletion(markDate, habit);
+    }
+}
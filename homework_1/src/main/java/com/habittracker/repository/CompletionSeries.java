@@ -0,0 +1,168 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.HabitCompletion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Выполнения одной привычки в массиве, индексом в котором служит серийный номер.
+ *
+ * <p>Серийные номера идут подряд начиная с 1 (день или неделя от создания привычки), поэтому
+ * массив почти не содержит пустых ячеек, а поиск, добавление и удаление не упаковывают номер
+ * в {@link Integer} и не создают узлов хэш-таблицы. Массив растет вдвое при добавлении номера
+ * за его пределами. Отметки раньше создания привычки (номер меньше 1) тоже хранятся:
+ * для них массив расширяется в сторону меньших номеров. Массив не длиннее {@value #MAX_CAPACITY}
+ * ячеек (около 180 лет ежедневных отметок): номер, для которого понадобился бы массив длиннее,
+ * не добавляется, чтобы одна отметка с далекой датой не занимала память на весь промежуток.
+ */
+final class CompletionSeries {
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** Наибольшая длина массива, то есть разность наибольшего и наименьшего хранимых номеров плюс 1 */
+    static final int MAX_CAPACITY = 1 << 16;
+
+    /** Выполнения по серийному номеру со сдвигом {@link #origin} */
+    private HabitCompletion[] completions = new HabitCompletion[INITIAL_CAPACITY];
+
+    /** Серийный номер, хранящийся в ячейке 0 */
+    private int origin = 1;
+
+    /** Число заполненных ячеек */
+    private int size;
+
+    HabitCompletion get(int serialNumber) {
+        int index = serialNumber - origin;
+        if (index < 0 || index >= completions.length) {
+            return null;
+        }
+        return completions[index];
+    }
+
+    boolean contains(int serialNumber) {
+        return get(serialNumber) != null;
+    }
+
+    /**
+     * Добавляет выполнение, если для его серийного номера выполнения еще нет и номер
+     * укладывается в {@value #MAX_CAPACITY} ячеек вместе с уже отведенными.
+     *
+     * @return {@code true}, если выполнение добавлено
+     */
+    boolean putIfAbsent(int serialNumber, HabitCompletion completion) {
+        if (contains(serialNumber)) {
+            return false;
+        }
+        long first = Math.min(origin, serialNumber);
+        long last = Math.max((long) origin + completions.length - 1, serialNumber);
+        if (last - first + 1 > MAX_CAPACITY) {
+            return false;
+        }
+        if (serialNumber < origin) {
+            growDown(serialNumber);
+        } else if (serialNumber - origin >= completions.length) {
+            int capacity = Math.min(Math.max(completions.length * 2, serialNumber - origin + 1), MAX_CAPACITY);
+            completions = Arrays.copyOf(completions, capacity);
+        }
+        completions[serialNumber - origin] = completion;
+        size++;
+        return true;
+    }
+
+    /**
+     * Заменяет существующее выполнение.
+     *
+     * @return {@code true}, если выполнение с таким серийным номером было
+     */
+    boolean replace(int serialNumber, HabitCompletion completion) {
+        if (!contains(serialNumber)) {
+            return false;
+        }
+        completions[serialNumber - origin] = completion;
+        return true;
+    }
+
+    /**
+     * Удаляет выполнение.
+     *
+     * @return {@code true}, если выполнение с таким серийным номером было
+     */
+    boolean remove(int serialNumber) {
+        if (!contains(serialNumber)) {
+            return false;
+        }
+        completions[serialNumber - origin] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Возвращает все выполнения в порядке возрастания серийного номера.
+     */
+    List<HabitCompletion> list() {
+        return listFrom(origin);
+    }
+
+    /**
+     * Возвращает выполнения с серийным номером не меньше заданного в порядке возрастания номера.
+     */
+    List<HabitCompletion> listFrom(int fromSerialNumber) {
+        List<HabitCompletion> result = new ArrayList<>(size);
+        for (int index = Math.max(0, fromSerialNumber - origin); index < completions.length; index++) {
+            if (completions[index] != null) {
+                result.add(completions[index]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Считает выполнения с серийным номером не меньше заданного.
+     */
+    int countFrom(int fromSerialNumber) {
+        if (fromSerialNumber <= origin) {
+            return size;
+        }
+        int result = 0;
+        for (int index = fromSerialNumber - origin; index < completions.length; index++) {
+            if (completions[index] != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Перебирает выполнения в порядке возрастания серийного номера ячейки.
+     *
+     * @param action действие над выполнением и серийным номером, под которым оно хранится
+     */
+    void forEach(ObjIntConsumer<HabitCompletion> action) {
+        for (int index = 0; index < completions.length; index++) {
+            if (completions[index] != null) {
+                action.accept(completions[index], origin + index);
+            }
+        }
+    }
+
+    /**
+     * Считает выполнения подряд, заканчивающиеся заданным серийным номером.
+     */
+    int streakEndingAt(int serialNumber) {
+        int result = 0;
+        while (contains(serialNumber - result)) {
+            result++;
+        }
+        return result;
+    }
+
+    private void growDown(int serialNumber) {
+        int shift = Math.min(Math.max(completions.length, origin - serialNumber), MAX_CAPACITY - completions.length);
+        HabitCompletion[] grown = new HabitCompletion[completions.length + shift];
+        System.arraycopy(completions, 0, grown, shift, completions.length);
+        completions = grown;
+        origin -= shift;
+    }
+}
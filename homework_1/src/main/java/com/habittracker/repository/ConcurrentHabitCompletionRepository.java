@@ -0,0 +1,208 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Потокобезопасная реализация интерфейса {@link HabitCompletionRepository} на основе {@link ConcurrentHashMap}.
+ * Как и в {@link HabitCompletionRepositoryImpl}, выполнения каждой привычки хранятся в карте по серийному номеру.
+ *
+ * <p>Изменения выполняются внутри {@code compute} по ключу привычки, поэтому добавление отметки
+ * не теряется при одновременном удалении всех выполнений привычки, а повторная отметка того же
+ * периода из двух потоков добавляется ровно один раз. Чтение не блокируется; списки выполнений
+ * возвращаются в порядке возрастания серийного номера.
+ */
+public class ConcurrentHabitCompletionRepository implements HabitCompletionRepository {
+    private final ConcurrentMap<Habit, ConcurrentMap<Integer, HabitCompletion>> completions = new ConcurrentHashMap<>();
+
+    /**
+     * Получает выполнение привычки по заданному серийному номеру для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить выполнение
+     * @param serialNumber серийный номер выполнения привычки
+     * @return выполнение привычки {@link HabitCompletion}, если найдено, или {@code null}, если отсутствует
+     */
+    @Override
+    public HabitCompletion getHabitCompletion(Habit habit, int serialNumber) {
+        ConcurrentMap<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null) {
+            return null;
+        }
+        return habitCompletions.get(serialNumber);
+    }
+
+    /**
+     * Добавляет новое выполнение привычки для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой добавляется выполнение
+     * @param newCompletion новое выполнение {@link HabitCompletion}
+     * @return {@code true}, если выполнение было успешно добавлено, или {@code false}, если серийный номер уже существует
+     */
+    @Override
+    public boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion) {
+        boolean[] added = new boolean[1];
+        completions.compute(habit, (key, habitCompletions) -> {
+            if (habitCompletions == null) {
+                habitCompletions = new ConcurrentHashMap<>();
+            }
+            added[0] = habitCompletions.putIfAbsent(newCompletion.getSerialNumber(), newCompletion) == null;
+            return habitCompletions;
+        });
+        return added[0];
+    }
+
+    /**
+     * Заменяет существующее выполнение привычки по заданному серийному номеру.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно обновить выполнение
+     * @param serialNumber серийный номер выполнения
+     * @param updatedCompletion обновленное выполнение {@link HabitCompletion}
+     * @return {@code true}, если обновление прошло успешно, или {@code false}, если выполнение не было найдено
+     */
+    @Override
+    public boolean updateHabitCompletion(Habit habit, int serialNumber, HabitCompletion updatedCompletion) {
+        boolean[] updated = new boolean[1];
+        completions.computeIfPresent(habit, (key, habitCompletions) -> {
+            updated[0] = habitCompletions.replace(serialNumber, updatedCompletion) != null;
+            return habitCompletions;
+        });
+        return updated[0];
+    }
+
+    /**
+     * Удаляет выполнение привычки по серийному номеру.
+     *
+     * @param habit привычка {@link Habit}, из которой нужно удалить выполнение
+     * @param serialNumber серийный номер выполнения, которое нужно удалить
+     * @return {@code true}, если удаление прошло успешно, или {@code false}, если выполнение не найдено
+     */
+    @Override
+    public boolean deleteHabitCompletion(Habit habit, int serialNumber) {
+        boolean[] deleted = new boolean[1];
+        completions.computeIfPresent(habit, (key, habitCompletions) -> {
+            deleted[0] = habitCompletions.remove(serialNumber) != null;
+            return habitCompletions;
+        });
+        return deleted[0];
+    }
+
+    /**
+     * Удаляет все выполнения для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно удалить все выполнения
+     * @return {@code true}
+     */
+    @Override
+    public boolean deleteAllHabitCompletion(Habit habit) {
+        completions.remove(habit);
+        return true;
+    }
+
+    /**
+     * Получает все выполнения привычки в порядке возрастания серийного номера.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить все выполнения
+     * @return список объектов {@link HabitCompletion}, или пустой список, если выполнения отсутствуют
+     */
+    @Override
+    public List<HabitCompletion> getAllHabitCompletion(Habit habit) {
+        ConcurrentMap<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null) {
+            return new ArrayList<>();
+        }
+        return sortedBySerialNumber(new ArrayList<>(habitCompletions.values()));
+    }
+
+    /**
+     * Получает все выполнения привычки начиная с указанной даты в порядке возрастания серийного номера.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить выполнения
+     * @param date дата {@link LocalDate}, начиная с которой нужно получить выполнения
+     * @return список объектов {@link HabitCompletion} для привычки на или после указанной даты
+     */
+    @Override
+    public List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date) {
+        ConcurrentMap<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null) {
+            return new ArrayList<>();
+        }
+        int fromSerialNumber = serialNumberOf(habit, date);
+        List<HabitCompletion> result = new ArrayList<>();
+        for (HabitCompletion completion : habitCompletions.values()) {
+            if (completion.getSerialNumber() >= fromSerialNumber) {
+                result.add(completion);
+            }
+        }
+        return sortedBySerialNumber(result);
+    }
+
+    /**
+     * Считает текущую серию выполнений привычки: число выполнений подряд,
+     * заканчивающихся заданным серийным номером.
+     *
+     * @param habit привычка {@link Habit}, для которой считается серия
+     * @param currentSerialNumber серийный номер текущего дня или недели
+     * @return длина текущей серии или 0, если в текущем периоде привычка не выполнена
+     */
+    @Override
+    public int getHabitStreak(Habit habit, int currentSerialNumber) {
+        ConcurrentMap<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null) {
+            return 0;
+        }
+
+        int result = 0;
+        while (habitCompletions.containsKey(currentSerialNumber - result)) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Считает выполнения привычки начиная с указанной даты.
+     *
+     * @param habit привычка {@link Habit}, для которой считаются выполнения
+     * @param date дата {@link LocalDate}, начиная с которой считаются выполнения
+     * @return число выполнений привычки на или после указанной даты
+     */
+    @Override
+    public int countHabitCompletionsByDate(Habit habit, LocalDate date) {
+        ConcurrentMap<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+
+        if (habitCompletions == null) {
+            return 0;
+        }
+        int fromSerialNumber = serialNumberOf(habit, date);
+        int result = 0;
+        for (Integer serialNumber : habitCompletions.keySet()) {
+            if (serialNumber >= fromSerialNumber) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static List<HabitCompletion> sortedBySerialNumber(List<HabitCompletion> completions) {
+        completions.sort(Comparator.comparingInt(HabitCompletion::getSerialNumber));
+        return completions;
+    }
+
+    private static int serialNumberOf(Habit habit, LocalDate date) {
+        if (habit.getFrequency().equals(Habit.Frequency.DAILY)) {
+            return (int) ChronoUnit.DAYS.between(habit.getCreateDate(), date) + 1;
+        }
+        return (int) ChronoUnit.WEEKS.between(habit.getCreateDate(), date) + 1;
+    }
+}
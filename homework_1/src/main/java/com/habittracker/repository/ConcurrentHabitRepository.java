@@ -0,0 +1,94 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасная реализация интерфейса {@link HabitRepository} на основе {@link ConcurrentHashMap}.
+ *
+ * <p>Все изменения привычек пользователя выполняются внутри {@code compute} по ключу пользователя,
+ * то есть под блокировкой его записи: проверка существования и запись не разделяются, а переименование
+ * привычки не пересекается с добавлением или удалением у того же пользователя. Изменения разных
+ * пользователей не блокируют друг друга. Чтение идет без блокировок по вложенной {@link ConcurrentHashMap}.
+ */
+public class ConcurrentHabitRepository implements HabitRepository {
+    private final ConcurrentMap<User, Map<String, Habit>> habits = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @Override
+    public Habit getHabit(User user, String habitName) {
+        Map<String, Habit> userHabits = habits.get(user);
+
+        if (userHabits == null) {
+            return null;
+        }
+        return userHabits.get(habitName);
+    }
+
+    @Override
+    public boolean addHabit(User user, Habit newHabit) {
+        boolean[] added = new boolean[1];
+        habits.compute(user, (key, userHabits) -> {
+            if (userHabits == null) {
+                userHabits = new ConcurrentHashMap<>();
+            }
+            if (!userHabits.containsKey(newHabit.getName())) {
+                if (newHabit.getId() == 0) {
+                    newHabit.setId(nextId.getAndIncrement());
+                }
+                userHabits.put(newHabit.getName(), newHabit);
+                added[0] = true;
+            }
+            return userHabits;
+        });
+        return added[0];
+    }
+
+    @Override
+    public boolean updateHabit(User user, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency) {
+        boolean[] updated = new boolean[1];
+        habits.computeIfPresent(user, (key, userHabits) -> {
+            Habit previousHabit = userHabits.remove(habit.getName());
+            if (previousHabit == null) {
+                return userHabits;
+            }
+            Habit existingHabit = new Habit(habit.getName(), habit.getDescription(), habit.getFrequency(), habit.getUser(),
+                    previousHabit.getCreateDate());
+            existingHabit.setId(previousHabit.getId());
+            existingHabit.setName(newName);
+            existingHabit.setDescription(newDescription);
+            existingHabit.setFrequency(newFrequency);
+            userHabits.put(newName, existingHabit);
+            updated[0] = true;
+            return userHabits;
+        });
+        return updated[0];
+    }
+
+    @Override
+    public boolean deleteHabit(User user, String habitName) {
+        boolean[] deleted = new boolean[1];
+        habits.computeIfPresent(user, (key, userHabits) -> {
+            deleted[0] = userHabits.remove(habitName) != null;
+            return userHabits;
+        });
+        return deleted[0];
+    }
+
+    @Override
+    public List<Habit> getAllHabits(User user) {
+        Map<String, Habit> userHabits = habits.get(user);
+
+        if (userHabits == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(userHabits.values());
+    }
+}
@@ -0,0 +1,115 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.User;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Потокобезопасная реализация интерфейса {@link UserRepository} на основе {@link ConcurrentHashMap}.
+ *
+ * <p>В отличие от {@link UserRepositoryImpl}, проверка и запись выполняются одной атомарной операцией
+ * карты ({@code putIfAbsent}, {@code computeIfPresent}, {@code remove}), поэтому два потока не могут
+ * одновременно зарегистрировать один email, а изменение полей пользователя выполняется под блокировкой
+ * его записи в карте. Чтение не блокируется.
+ *
+ * <p>Смена email выполняется в два шага: сначала пользователь атомарно занимает новый email,
+ * затем освобождает старый. Между шагами пользователь доступен по обоим адресам.
+ */
+public class ConcurrentUserRepository implements UserRepository {
+    private final ConcurrentMap<String, User> users = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    @Override
+    public User getUser(String email) {
+        return users.get(email);
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        if (user == null) {
+            return false;
+        }
+        boolean[] added = new boolean[1];
+        users.computeIfAbsent(user.getEmail(), email -> {
+            if (user.getId() == 0) {
+                user.setId(nextId.getAndIncrement());
+            }
+            added[0] = true;
+            return user;
+        });
+        return added[0];
+    }
+
+    /**
+     * Изменяет имя и email пользователя.
+     *
+     * @param user пользователь, данные которого нужно изменить
+     * @param newName новое имя
+     * @param newEmail новый email
+     * @return {@code true}, если данные изменены, или {@code false}, если пользователь не найден,
+     *         новый email пустой или уже занят другим пользователем
+     */
+    @Override
+    public boolean updateUser(User user, String newName, String newEmail) {
+        String oldEmail = user.getEmail();
+        User existingUser = users.get(oldEmail);
+
+        if (existingUser == null || newEmail.isEmpty()) {
+            return false;
+        }
+
+        if (newEmail.equals(oldEmail)) {
+            return users.computeIfPresent(oldEmail, (email, current) -> {
+                current.setName(newName);
+                return current;
+            }) != null;
+        }
+
+        if (users.putIfAbsent(newEmail, existingUser) != null) {
+            return false;
+        }
+        if (!users.remove(oldEmail, existingUser)) {
+            users.remove(newEmail, existingUser);
+            return false;
+        }
+
+        users.computeIfPresent(newEmail, (email, current) -> {
+            current.setName(newName);
+            current.setEmail(newEmail);
+            return current;
+        });
+        return true;
+    }
+
+    @Override
+    public boolean blockUser(User user, Boolean block) {
+        return users.computeIfPresent(user.getEmail(), (email, current) -> {
+            current.setBlocked(true);
+            return current;
+        }) != null;
+    }
+
+    @Override
+    public boolean deleteUser(User user) {
+        return users.remove(user.getEmail()) != null;
+    }
+
+    @Override
+    public User updateUserPassword(User user, String newPassword) {
+        return users.computeIfPresent(user.getEmail(), (email, current) -> {
+            current.setPassword(newPassword);
+            return current;
+        });
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return users.values().stream()
+                .filter(user -> !user.getRole().equals(User.Role.ADMIN))
+                .collect(Collectors.toList());
+    }
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.ObjIntConsumer;
 
 
 /**
@@ -16,6 +17,8 @@ import java.util.Map;
  * Этот класс использует {@link Map} для хранения записей выполнения привычек для каждого пользователя.
  * Каждая привычка сопоставляется с коллекцией выполнений, идентифицируемых их серийными номерами.
  * Серийный номер представляет собой последовательный номер, соответствующий номеру возможной отметки со дня добавления привычки в список.
+ * Поскольку номера идут подряд начиная с 1, выполнения привычки хранятся в массиве {@link CompletionSeries}
+ * с индексом по серийному номеру, а не в карте с упакованными ключами.
  *
  * <p>Класс предоставляет следующие методы:
  * <ul>
@@ -29,7 +32,7 @@ import java.util.Map;
  * <p>Все выполнения хранятся в памяти внутри класса и сопоставляются с объектом {@link Habit}.
  */
 public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
-    private Map<Habit, Map<Integer, HabitCompletion>> completions = new HashMap<>();
+    private Map<Habit, CompletionSeries> completions = new HashMap<>();
 
     /**
      * Получает выполнение привычки по заданному серийному номеру для указанной привычки.
@@ -39,45 +42,35 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      * @return выполнение привычки {@link HabitCompletion}, если найдено, или {@code null}, если отсутствует
      */
     @Override
-    public HabitCompletion getHabitCompletion(Habit habit, Integer serialNumber) {
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+    public HabitCompletion getHabitCompletion(Habit habit, int serialNumber) {
+        CompletionSeries habitCompletions = completions.get(habit);
 
         if (habitCompletions == null) {
             return null;
         }
-        return completions.get(habit).get(serialNumber);
+        return habitCompletions.get(serialNumber);
     }
 
     /**
      * Добавляет новое выполнение привычки для указанной привычки.
-     * Если серийный номер уже существует, метод возвращает {@code false}.
+     * Серийный номер может быть меньше 1 (отметка раньше создания привычки): такие выполнения тоже хранятся.
+     * Если серийный номер уже существует или отстоит от остальных номеров привычки дальше, чем на
+     * {@value CompletionSeries#MAX_CAPACITY} (см. {@link CompletionSeries}), метод возвращает {@code false}.
      *
      * @param habit привычка {@link Habit}, для которой добавляется выполнение
      * @param newCompletion новое выполнение {@link HabitCompletion}
      * @return {@code true}, если выполнение было успешно добавлено, или {@code false}, если серийный номер уже существует
+     *         или слишком далек от остальных
      */
     @Override
     public boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion) {
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+        CompletionSeries habitCompletions = completions.get(habit);
 
         if (habitCompletions == null) {
-            habitCompletions = new HashMap<>();
-            habitCompletions.put(newCompletion.getSerialNumber(), newCompletion);
+            habitCompletions = new CompletionSeries();
             completions.put(habit, habitCompletions);
-            return true;
         }
-
-        if(habitCompletions.isEmpty()){
-            habitCompletions.put(newCompletion.getSerialNumber(), newCompletion);
-            return true;
-        }
-
-        if (habitCompletions.containsKey(newCompletion.getSerialNumber())) {
-            return false;
-        }
-
-        habitCompletions.put(newCompletion.getSerialNumber(), newCompletion);
-        return true;
+        return habitCompletions.putIfAbsent(newCompletion.getSerialNumber(), newCompletion);
     }
 
     /**
@@ -90,14 +83,12 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      */
     @Override
     public boolean updateHabitCompletion(Habit habit, int serialNumber, HabitCompletion updatedCompletion) {
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+        CompletionSeries habitCompletions = completions.get(habit);
 
-        if (habitCompletions == null || !habitCompletions.containsKey(serialNumber)) {
+        if (habitCompletions == null) {
             return false;
         }
-        habitCompletions.remove(serialNumber, habitCompletions.get(serialNumber));
-        habitCompletions.put(serialNumber, updatedCompletion);
-        return true;
+        return habitCompletions.replace(serialNumber, updatedCompletion);
     }
 
     /**
@@ -109,52 +100,40 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      */
     @Override
     public boolean deleteHabitCompletion(Habit habit, int serialNumber) {
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+        CompletionSeries habitCompletions = completions.get(habit);
 
-        if (habitCompletions == null || !habitCompletions.containsKey(serialNumber)) {
+        if (habitCompletions == null) {
             return false;
         }
-
-        habitCompletions.remove(serialNumber);
-        return true;
+        return habitCompletions.remove(serialNumber);
     }
 
     /**
      * Удаляет все выполнения для указанной привычки.
      *
      * @param habit привычка {@link Habit}, для которой нужно удалить все выполнения
-     * @return {@code true}, если все выполнения были удалены, или {@code false}, если для привычки нет выполнений
+     * @return {@code true}
      */
     @Override
     public boolean deleteAllHabitCompletion(Habit habit) {
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
-
-        if(habitCompletions == null){
-            return true;
-        }
-
-        if(!habitCompletions.containsKey(habit)){
-            return false;
-        }
-        habitCompletions = null;
+        completions.remove(habit);
         return true;
     }
 
     /**
-     * Получает все выполнения привычки для указанной привычки.
+     * Получает все выполнения привычки для указанной привычки в порядке возрастания серийного номера.
      *
      * @param habit привычка {@link Habit}, для которой нужно получить все выполнения
      * @return список объектов {@link HabitCompletion}, или пустой список, если выполнения отсутствуют
      */
     @Override
     public List<HabitCompletion> getAllHabitCompletion(Habit habit){
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+        CompletionSeries habitCompletions = completions.get(habit);
 
         if (habitCompletions == null) {
             return new ArrayList<>();
         }
-
-        return new ArrayList<>(habitCompletions.values());
+        return habitCompletions.list();
     }
 
     /**
@@ -167,32 +146,91 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      */
     @Override
     public List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date){
-        List<HabitCompletion> result = new ArrayList<>();
-        Map<Integer, HabitCompletion> habitCompletions = completions.get(habit);
+        CompletionSeries habitCompletions = completions.get(habit);
 
         if(habitCompletions == null){
-            return result;
+            return new ArrayList<>();
         }
+        return habitCompletions.listFrom(serialNumberOf(habit, date));
+    }
 
-        List<HabitCompletion> listHabitComp = new ArrayList<>(habitCompletions.values());
+    /**
+     * Считает текущую серию выполнений привычки: число выполнений подряд,
+     * заканчивающихся заданным серийным номером.
+     *
+     * @param habit привычка {@link Habit}, для которой считается серия
+     * @param currentSerialNumber серийный номер текущего дня или недели
+     * @return длина текущей серии или 0, если в текущем периоде привычка не выполнена
+     */
+    @Override
+    public int getHabitStreak(Habit habit, int currentSerialNumber) {
+        CompletionSeries habitCompletions = completions.get(habit);
 
-        int currentSerialNumber;
-        if(habit.getFrequency().equals(Habit.Frequency.DAILY)){
-            currentSerialNumber = (int) ChronoUnit.DAYS.between(habit.getCreateDate(), date) + 1;
-        } else {
-            currentSerialNumber = (int) ChronoUnit.WEEKS.between(habit.getCreateDate(), date) + 1;
+        if (habitCompletions == null) {
+            return 0;
         }
+        return habitCompletions.streakEndingAt(currentSerialNumber);
+    }
+
+    /**
+     * Считает выполнения привычки начиная с указанной даты.
+     *
+     * @param habit привычка {@link Habit}, для которой считаются выполнения
+     * @param date дата {@link LocalDate}, начиная с которой считаются выполнения
+     * @return число выполнений привычки на или после указанной даты
+     */
+    @Override
+    public int countHabitCompletionsByDate(Habit habit, LocalDate date) {
+        CompletionSeries habitCompletions = completions.get(habit);
 
         if (habitCompletions == null) {
-            return new ArrayList<>();
+            return 0;
+        }
+        return habitCompletions.countFrom(serialNumberOf(habit, date));
+    }
+
+    private static int serialNumberOf(Habit habit, LocalDate date) {
+        if(habit.getFrequency().equals(Habit.Frequency.DAILY)){
+            return (int) ChronoUnit.DAYS.between(habit.getCreateDate(), date) + 1;
         }
+        return (int) ChronoUnit.WEEKS.between(habit.getCreateDate(), date) + 1;
+    }
 
-        for(HabitCompletion comp : listHabitComp){
-            if( !(comp.getSerialNumber() < currentSerialNumber) ){
-                result.add(comp);
-            }
+    /**
+     * Перебирает выполнения привычки вместе с серийными номерами, под которыми они хранятся,
+     * для записи снимка.
+     *
+     * @param habit  привычка
+     * @param action действие над выполнением и его серийным номером
+     */
+    void forEachCompletion(Habit habit, ObjIntConsumer<HabitCompletion> action) {
+        CompletionSeries habitCompletions = completions.get(habit);
+
+        if (habitCompletions != null) {
+            habitCompletions.forEach(action);
         }
+    }
 
-        return result;
+    /**
+     * Кладет выполнение под заданный серийный номер ячейки при чтении снимка. Номер ячейки может
+     * отличаться от собственного номера выполнения после {@link #updateHabitCompletion}.
+     *
+     * @param habit        привычка
+     * @param serialNumber серийный номер ячейки
+     * @param completion   выполнение
+     */
+    void putHabitCompletion(Habit habit, int serialNumber, HabitCompletion completion) {
+        completions.computeIfAbsent(habit, key -> new CompletionSeries()).putIfAbsent(serialNumber, completion);
+    }
+
+    /**
+     * Возвращает число выполнений привычки.
+     *
+     * @param habit привычка
+     * @return число выполнений
+     */
+    int countHabitCompletions(Habit habit) {
+        CompletionSeries habitCompletions = completions.get(habit);
+        return habitCompletions == null ? 0 : habitCompletions.countFrom(Integer.MIN_VALUE);
     }
 }
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * Реализация интерфейса {@link HabitRepository}, предназначенная для управления привычками пользователей.
@@ -24,6 +25,7 @@ import java.util.Map;
  */
 public class HabitRepositoryImpl implements HabitRepository{
     private Map<User, Map <String, Habit>> habits = new HashMap<>();
+    private int nextId = 1;
 
     /**
      * Возвращает привычку пользователя по её названию.
@@ -46,6 +48,8 @@ public class HabitRepositoryImpl implements HabitRepository{
     /**
      * Добавляет новую привычку для пользователя.
      * Если привычка с таким названием уже существует, метод возвращает {@code false}.
+     * Новой привычке без идентификатора присваивается следующий свободный идентификатор;
+     * идентификатор уже сохраненной привычки (например, из снимка) сохраняется.
      *
      * @param user пользователь, для которого добавляется привычка
      * @param newHabit новая привычка {@link Habit}, которую нужно добавить
@@ -64,6 +68,11 @@ public class HabitRepositoryImpl implements HabitRepository{
             return false;
         }
 
+        if (newHabit.getId() == 0) {
+            newHabit.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, newHabit.getId() + 1);
+        }
         userHabits.put(newHabit.getName(), newHabit);
         return true;
     }
@@ -87,7 +96,10 @@ public class HabitRepositoryImpl implements HabitRepository{
             return false;
         }
 
-        Habit existingHabit = new Habit(habit.getName(), habit.getDescription(), habit.getFrequency(), habit.getUser());
+        Habit storedHabit = userHabits.get(habit.getName());
+        Habit existingHabit = new Habit(habit.getName(), habit.getDescription(), habit.getFrequency(), habit.getUser(),
+                storedHabit.getCreateDate());
+        existingHabit.setId(storedHabit.getId());
         existingHabit.setName(newName);
         existingHabit.setDescription(newDescription);
         existingHabit.setFrequency(newFrequency);
@@ -132,4 +144,31 @@ public class HabitRepositoryImpl implements HabitRepository{
 
         return new ArrayList<>(userHabits.values());
     }
+
+    /**
+     * Перебирает все привычки всех пользователей для записи снимка.
+     *
+     * @param action действие над владельцем и привычкой
+     */
+    void forEachHabit(BiConsumer<User, Habit> action) {
+        habits.forEach((user, userHabits) -> userHabits.values().forEach(habit -> action.accept(user, habit)));
+    }
+
+    /**
+     * Возвращает идентификатор, который получит следующий добавленный объект.
+     *
+     * @return следующий свободный идентификатор
+     */
+    int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Не дает выдавать идентификаторы меньше заданного, в том числе идентификаторы удаленных объектов.
+     *
+     * @param nextId следующий свободный идентификатор
+     */
+    void reserveIds(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
 }
@@ -0,0 +1,559 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реализация интерфейса {@link HabitCompletionRepository}, хранящая выполнения в файле, отображенном
+ * в память ({@link FileChannel#map}), в виде записей фиксированной длины.
+ *
+ * <p>Файл состоит из заголовка файла и областей привычек. Область — заголовок (id привычки, серийный
+ * номер первой ячейки, число ячеек) и ячейки по {@value #RECORD_SIZE} байт, по одной на серийный номер,
+ * как в {@link CompletionSeries}. Ячейка содержит собственный серийный номер выполнения, дату отметки
+ * (epoch day), id привычки и контрольную сумму; ячейка с неверной суммой (в том числе нулевая) пуста.
+ * В памяти хранится только индекс: для каждой привычки смещение ее области в файле. Поэтому поиск
+ * по серийному номеру — одно чтение по вычисленному смещению, а выборка и подсчет за период —
+ * последовательное чтение ячеек прямо из страниц файла без копирования в промежуточные буферы.
+ *
+ * <p>Когда номер выходит за границы области, в конце файла создается область вдвое больше, ячейки
+ * переносятся в нее, а старая область остается в файле неиспользуемой. При открытии файл просматривается
+ * по заголовкам областей, и для каждой привычки действует последняя область. Удаление всех выполнений
+ * записывает пустую область. Место старых областей не освобождается; размер файла ограничен 2 ГБ.
+ * Как и в {@link CompletionSeries}, область не длиннее {@value CompletionSeries#MAX_CAPACITY} ячеек:
+ * отметка, для которой понадобилась бы область длиннее, не добавляется, чтобы одна далекая дата
+ * не занимала в файле место на весь промежуток.
+ *
+ * <p>Изменения видны в страничном кэше ОС сразу после записи в отображение и переживают падение
+ * процесса. От сбоя питания защищает {@link FsyncPolicy}: при {@link FsyncPolicy#ALWAYS} измененные
+ * байты сбрасываются на диск перед возвратом из метода, при {@link FsyncPolicy#INTERVAL} — фоновым
+ * потоком раз в интервал, при {@link FsyncPolicy#NEVER} — только при закрытии. Ячейка, записанная
+ * на диск не полностью, не проходит проверку контрольной суммы при открытии файла и обнуляется. При росте области
+ * перенесенные ячейки сбрасываются на диск до записи заголовка новой области при любой политике: иначе фоновый
+ * сброс мог бы записать заголовок раньше ячеек, и после сбоя питания привычка потеряла бы всю историю.
+ * Область растет вдвое, поэтому такой сброс случается лишь O(log n) раз на привычку.
+ *
+ * <p>Привычки определяются по id, поэтому их нужно сохранить в {@link HabitRepository} до первой отметки.
+ * Файл переживает перезапуск, поэтому id привычек тоже должны его переживать и не выдаваться повторно:
+ * привычки нужно хранить в {@link WalStore}, который записывает id в журнал и снимок. С репозиторием
+ * привычек только в памяти после перезапуска области достанутся другим привычкам.
+ * Как и {@link HabitCompletionRepositoryImpl}, класс не потокобезопасен.
+ */
+public class MappedHabitCompletionRepository implements HabitCompletionRepository, Closeable {
+    static final int MAGIC = 0x48544D43;
+    static final int VERSION = 1;
+
+    /** Размер ячейки, заголовка области и заголовка файла */
+    static final int RECORD_SIZE = 16;
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    /** Размер нового файла; дальше файл растет вдвое */
+    private static final int INITIAL_FILE_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+
+    /** Поток периодического сброса при политике {@link FsyncPolicy#INTERVAL}. */
+    private final ScheduledExecutorService flusher;
+
+    /** Отображение файла; заменяется большим при росте файла. */
+    private volatile MappedByteBuffer buffer;
+
+    /** Смещение, с которого создается следующая область */
+    private long end;
+
+    /** Действующие области по id привычки */
+    private final Map<Integer, Region> regions = new HashMap<>();
+
+    /**
+     * Область привычки в файле.
+     */
+    private static final class Region {
+        final int offset;
+        final int origin;
+        final int capacity;
+        int size;
+
+        Region(int offset, int origin, int capacity) {
+            this.offset = offset;
+            this.origin = origin;
+            this.capacity = capacity;
+        }
+
+        /** Смещение ячейки серийного номера или -1, если номер вне области */
+        int slot(int serialNumber) {
+            long index = (long) serialNumber - origin;
+            return index < 0 || index >= capacity ? -1 : offset + RECORD_SIZE + (int) index * RECORD_SIZE;
+        }
+    }
+
+    /**
+     * Открывает файл выполнений, создавая его при необходимости, и строит индекс областей.
+     *
+     * @param path                путь к файлу
+     * @param policy              политика сброса изменений на диск
+     * @param fsyncIntervalMillis интервал сброса (мс) для политики {@link FsyncPolicy#INTERVAL}
+     * @throws IOException если файл не удалось открыть или он не является файлом выполнений
+     */
+    public MappedHabitCompletionRepository(Path path, FsyncPolicy policy, long fsyncIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.policy = policy;
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Completion file " + path + " is larger than 2 GB");
+            }
+            if (size > 0 && size < RECORD_SIZE) {
+                throw new IOException(path + " is not a completion file");
+            }
+            if (size == 0) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_FILE_SIZE);
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE).putInt(12, checksum(MAGIC, VERSION, RECORD_SIZE));
+                buffer.force(0, RECORD_SIZE);
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(12) != checksum(MAGIC, buffer.getInt(4), buffer.getInt(8))) {
+                    throw new IOException(path + " is not a completion file");
+                }
+                if (buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+                    throw new IOException("Unsupported completion file version " + buffer.getInt(4) + " in " + path);
+                }
+            }
+            loadRegions();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        if (policy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "completions-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(() -> buffer.force(), fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Получает выполнение привычки по заданному серийному номеру для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить выполнение
+     * @param serialNumber серийный номер выполнения привычки
+     * @return выполнение привычки {@link HabitCompletion}, если найдено, или {@code null}, если отсутствует
+     */
+    @Override
+    public HabitCompletion getHabitCompletion(Habit habit, int serialNumber) {
+        Region region = regions.get(habitId(habit));
+        int slot = region == null ? -1 : region.slot(serialNumber);
+
+        if (slot < 0 || !isLive(slot)) {
+            return null;
+        }
+        return toHabitCompletion(habit, slot);
+    }
+
+    /**
+     * Добавляет новое выполнение привычки для указанной привычки.
+     *
+     * @param habit привычка {@link Habit}, для которой добавляется выполнение
+     * @param newCompletion новое выполнение {@link HabitCompletion}
+     * @return {@code true}, если выполнение было успешно добавлено, или {@code false}, если серийный номер уже существует
+     *         или область привычки с ним стала бы длиннее {@value CompletionSeries#MAX_CAPACITY} ячеек
+     */
+    @Override
+    public boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion) {
+        int habitId = habitId(habit);
+        int serialNumber = newCompletion.getSerialNumber();
+        Region region = regions.get(habitId);
+        int slot = region == null ? -1 : region.slot(serialNumber);
+
+        if (slot >= 0 && isLive(slot)) {
+            return false;
+        }
+        if (slot < 0) {
+            if (span(region, serialNumber) > CompletionSeries.MAX_CAPACITY) {
+                return false;
+            }
+            region = grow(habitId, region, serialNumber);
+            slot = region.slot(serialNumber);
+        }
+        writeRecord(slot, habitId, newCompletion);
+        region.size++;
+        return true;
+    }
+
+    /**
+     * Обновляет существующее выполнение привычки по заданному серийному номеру.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно обновить выполнение
+     * @param serialNumber серийный номер выполнения
+     * @param updatedCompletion обновленное выполнение {@link HabitCompletion}
+     * @return {@code true}, если обновление прошло успешно, или {@code false}, если выполнение не было найдено
+     */
+    @Override
+    public boolean updateHabitCompletion(Habit habit, int serialNumber, HabitCompletion updatedCompletion) {
+        int habitId = habitId(habit);
+        Region region = regions.get(habitId);
+        int slot = region == null ? -1 : region.slot(serialNumber);
+
+        if (slot < 0 || !isLive(slot)) {
+            return false;
+        }
+        writeRecord(slot, habitId, updatedCompletion);
+        return true;
+    }
+
+    /**
+     * Удаляет выполнение привычки по серийному номеру: ячейка обнуляется.
+     *
+     * @param habit привычка {@link Habit}, из которой нужно удалить выполнение
+     * @param serialNumber серийный номер выполнения, которое нужно удалить
+     * @return {@code true}, если удаление прошло успешно, или {@code false}, если выполнение не найдено
+     */
+    @Override
+    public boolean deleteHabitCompletion(Habit habit, int serialNumber) {
+        Region region = regions.get(habitId(habit));
+        int slot = region == null ? -1 : region.slot(serialNumber);
+
+        if (slot < 0 || !isLive(slot)) {
+            return false;
+        }
+        buffer.putLong(slot, 0).putLong(slot + 8, 0);
+        force(slot, RECORD_SIZE);
+        region.size--;
+        return true;
+    }
+
+    /**
+     * Удаляет все выполнения для указанной привычки, записывая для нее пустую область.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно удалить все выполнения
+     * @return {@code true}
+     */
+    @Override
+    public boolean deleteAllHabitCompletion(Habit habit) {
+        int habitId = habitId(habit);
+        if (regions.containsKey(habitId)) {
+            publish(allocate(habitId, 1, 0), habitId);
+            regions.remove(habitId);
+        }
+        return true;
+    }
+
+    /**
+     * Получает все выполнения привычки в порядке возрастания серийного номера.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить все выполнения
+     * @return список объектов {@link HabitCompletion}, или пустой список, если выполнения отсутствуют
+     */
+    @Override
+    public List<HabitCompletion> getAllHabitCompletion(Habit habit) {
+        return collectFrom(habit, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Получает все выполнения привычки начиная с указанной даты последовательным чтением ячеек области.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно получить выполнения
+     * @param date дата {@link LocalDate}, начиная с которой нужно получить выполнения
+     * @return список объектов {@link HabitCompletion} для привычки на или после указанной даты
+     */
+    @Override
+    public List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date) {
+        return collectFrom(habit, serialNumberOf(habit, date));
+    }
+
+    /**
+     * Считает текущую серию выполнений привычки: число заполненных ячеек подряд,
+     * заканчивающихся заданным серийным номером.
+     *
+     * @param habit привычка {@link Habit}, для которой считается серия
+     * @param currentSerialNumber серийный номер текущего дня или недели
+     * @return длина текущей серии или 0, если в текущем периоде привычка не выполнена
+     */
+    @Override
+    public int getHabitStreak(Habit habit, int currentSerialNumber) {
+        Region region = regions.get(habitId(habit));
+
+        if (region == null) {
+            return 0;
+        }
+        int result = 0;
+        for (int slot = region.slot(currentSerialNumber); slot > region.offset && isLive(slot); slot -= RECORD_SIZE) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Считает выполнения привычки начиная с указанной даты, не создавая объектов выполнений.
+     *
+     * @param habit привычка {@link Habit}, для которой считаются выполнения
+     * @param date дата {@link LocalDate}, начиная с которой считаются выполнения
+     * @return число выполнений привычки на или после указанной даты
+     */
+    @Override
+    public int countHabitCompletionsByDate(Habit habit, LocalDate date) {
+        Region region = regions.get(habitId(habit));
+
+        if (region == null) {
+            return 0;
+        }
+        int fromSerialNumber = serialNumberOf(habit, date);
+        if (fromSerialNumber <= region.origin) {
+            return region.size;
+        }
+        int result = 0;
+        int regionEnd = region.offset + RECORD_SIZE + region.capacity * RECORD_SIZE;
+        for (int slot = firstSlot(region, fromSerialNumber); slot < regionEnd; slot += RECORD_SIZE) {
+            if (isLive(slot)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Дожидается завершения фонового сброса, сбрасывает изменения на диск (кроме политики
+     * {@link FsyncPolicy#NEVER}) и закрывает файл.
+     *
+     * @throws IOException если файл не удалось закрыть
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (policy != FsyncPolicy.NEVER) {
+            buffer.force();
+        }
+        channel.close();
+    }
+
+    private List<HabitCompletion> collectFrom(Habit habit, int fromSerialNumber) {
+        List<HabitCompletion> result = new ArrayList<>();
+        Region region = regions.get(habitId(habit));
+
+        if (region == null) {
+            return result;
+        }
+        int regionEnd = region.offset + RECORD_SIZE + region.capacity * RECORD_SIZE;
+        for (int slot = firstSlot(region, fromSerialNumber); slot < regionEnd; slot += RECORD_SIZE) {
+            if (isLive(slot)) {
+                result.add(toHabitCompletion(habit, slot));
+            }
+        }
+        return result;
+    }
+
+    private static int firstSlot(Region region, int fromSerialNumber) {
+        long index = Math.max(0L, (long) fromSerialNumber - region.origin);
+        return region.offset + RECORD_SIZE + (int) Math.min(index, region.capacity) * RECORD_SIZE;
+    }
+
+    /**
+     * Число ячеек от наименьшего до наибольшего номера области вместе с новым серийным номером.
+     */
+    private static long span(Region region, int serialNumber) {
+        if (region == null) {
+            return (long) Math.max(1, serialNumber) - Math.min(1, serialNumber) + 1;
+        }
+        long first = Math.min(region.origin, serialNumber);
+        long last = Math.max((long) region.origin + region.capacity - 1, serialNumber);
+        return last - first + 1;
+    }
+
+    /**
+     * Создает область, вмещающую старую область и новый серийный номер, и переносит в нее ячейки.
+     * Номер должен укладываться в {@value CompletionSeries#MAX_CAPACITY} ячеек вместе со старой областью.
+     */
+    private Region grow(int habitId, Region previous, int serialNumber) {
+        int origin;
+        int capacity;
+        int span = (int) span(previous, serialNumber);
+        if (previous == null) {
+            origin = Math.min(1, serialNumber);
+            capacity = Math.max(INITIAL_CAPACITY, span);
+        } else {
+            origin = Math.min(previous.origin, serialNumber);
+            capacity = Math.min(Math.max(previous.capacity * 2, span), CompletionSeries.MAX_CAPACITY);
+        }
+
+        Region region = allocate(habitId, origin, capacity);
+        if (previous != null) {
+            int target = region.slot(previous.origin);
+            buffer.put(target, buffer, previous.offset + RECORD_SIZE, previous.capacity * RECORD_SIZE);
+            region.size = previous.size;
+        }
+        buffer.force(region.offset + RECORD_SIZE, capacity * RECORD_SIZE);
+        publish(region, habitId);
+        regions.put(habitId, region);
+        return region;
+    }
+
+    /**
+     * Выделяет в конце файла место под область и обнуляет его: после сбоя там могут остаться
+     * ячейки области, заголовок которой так и не был записан.
+     */
+    private Region allocate(int habitId, int origin, int capacity) {
+        long regionSize = RECORD_SIZE + (long) capacity * RECORD_SIZE;
+        ensureCapacity(end + regionSize);
+        Region region = new Region((int) end, origin, capacity);
+        for (int offset = region.offset; offset < region.offset + regionSize; offset += 8) {
+            buffer.putLong(offset, 0);
+        }
+        end += regionSize;
+        return region;
+    }
+
+    /**
+     * Записывает заголовок области. Пока заголовка нет, при открытии файла действует прежняя область
+     * привычки, поэтому {@link #grow} сбрасывает ячейки новой области на диск до заголовка.
+     */
+    private void publish(Region region, int habitId) {
+        buffer.putInt(region.offset, habitId)
+                .putInt(region.offset + 4, region.origin)
+                .putInt(region.offset + 8, region.capacity)
+                .putInt(region.offset + 12, checksum(habitId, region.origin, region.capacity));
+        force(region.offset, RECORD_SIZE);
+    }
+
+    private void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long newSize = Math.max(required, 2L * buffer.capacity());
+        if (newSize > Integer.MAX_VALUE) {
+            newSize = Integer.MAX_VALUE;
+            if (required > newSize) {
+                throw new IllegalStateException("Completion file is larger than 2 GB");
+            }
+        }
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow the completion file", e);
+        }
+    }
+
+    /**
+     * Просматривает заголовки областей от начала файла до первого пустого или поврежденного заголовка.
+     */
+    private void loadRegions() {
+        int offset = RECORD_SIZE;
+        int limit = buffer.capacity();
+        while (offset + RECORD_SIZE <= limit) {
+            int habitId = buffer.getInt(offset);
+            int origin = buffer.getInt(offset + 4);
+            int capacity = buffer.getInt(offset + 8);
+            if (buffer.getInt(offset + 12) != checksum(habitId, origin, capacity) || capacity < 0
+                    || offset + RECORD_SIZE + (long) capacity * RECORD_SIZE > limit) {
+                break;
+            }
+            if (capacity == 0) {
+                regions.remove(habitId);
+            } else {
+                regions.put(habitId, new Region(offset, origin, capacity));
+            }
+            offset += RECORD_SIZE + capacity * RECORD_SIZE;
+        }
+        end = offset;
+
+        for (Region region : regions.values()) {
+            for (int index = 0; index < region.capacity; index++) {
+                int slot = region.offset + RECORD_SIZE + index * RECORD_SIZE;
+                if (buffer.getInt(slot + 12) == checksum(buffer.getInt(slot), buffer.getInt(slot + 4), buffer.getInt(slot + 8))) {
+                    region.size++;
+                } else if (buffer.getInt(slot + 12) != 0) {
+                    buffer.putLong(slot, 0).putLong(slot + 8, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет, заполнена ли ячейка. Контрольные суммы проверяются при открытии файла, и поврежденные
+     * ячейки обнуляются, поэтому дальше достаточно ненулевой суммы: она никогда не равна нулю.
+     */
+    private boolean isLive(int slot) {
+        return buffer.getInt(slot + 12) != 0;
+    }
+
+    private void writeRecord(int slot, int habitId, HabitCompletion completion) {
+        int serialNumber = completion.getSerialNumber();
+        int markDay = (int) completion.getMarkDate().toEpochDay();
+        buffer.putInt(slot, serialNumber)
+                .putInt(slot + 4, markDay)
+                .putInt(slot + 8, habitId)
+                .putInt(slot + 12, checksum(serialNumber, markDay, habitId));
+        force(slot, RECORD_SIZE);
+    }
+
+    private HabitCompletion toHabitCompletion(Habit habit, int slot) {
+        HabitCompletion completion = new HabitCompletion(LocalDate.ofEpochDay(buffer.getInt(slot + 4)), habit);
+        completion.setSerialNumber(buffer.getInt(slot));
+        return completion;
+    }
+
+    private void force(int offset, int length) {
+        if (policy == FsyncPolicy.ALWAYS) {
+            buffer.force(offset, length);
+        }
+    }
+
+    private static int habitId(Habit habit) {
+        if (habit.getId() == 0) {
+            throw new IllegalArgumentException("Habit " + habit.getName() + " must be saved before marking completions");
+        }
+        return habit.getId();
+    }
+
+    /**
+     * Серийный номер периода, в который попадает дата. Для дат, номер которых не помещается в {@code int},
+     * возвращается ближайшее значение {@code int}: такие номера все равно лежат вне любой области.
+     */
+    private static int serialNumberOf(Habit habit, LocalDate date) {
+        long periods = habit.getFrequency().equals(Habit.Frequency.DAILY)
+                ? ChronoUnit.DAYS.between(habit.getCreateDate(), date)
+                : ChronoUnit.WEEKS.between(habit.getCreateDate(), date);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, periods + 1));
+    }
+
+    /**
+     * Контрольная сумма трех полей ячейки или заголовка. Никогда не равна нулю, поэтому
+     * нулевые байты не проходят проверку.
+     */
+    static int checksum(int first, int second, int third) {
+        int hash = 0x9E3779B9;
+        hash = (hash ^ first) * 0x85EBCA6B;
+        hash = (hash ^ second) * 0xC2B2AE35;
+        hash = (hash ^ third) * 0x85EBCA6B;
+        return (hash ^ (hash >>> 16)) | 1;
+    }
+}
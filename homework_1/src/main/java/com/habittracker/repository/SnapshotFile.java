@@ -0,0 +1,242 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Двоичный снимок данных {@link StoreState}.
+ *
+ * <p>Формат (все числа big-endian):
+ * <pre>
+ * int    MAGIC, int VERSION
+ * int    следующий id пользователя, int следующий id привычки
+ * int    число пользователей, затем для каждого:
+ *        int id, str name, str email, str password, byte role, byte blocked
+ * int    число привычек, затем для каждой:
+ *        int id, int id владельца, str name, str description, byte frequency, long дата создания (epoch day),
+ *        int число выполнений, затем для каждого три varint:
+ *        приращение серийного номера ячейки, дата отметки относительно даты создания,
+ *        собственный серийный номер выполнения относительно номера ячейки
+ * long   CRC32 всех предыдущих байтов
+ * </pre>
+ * Строка {@code str} — длина в байтах ({@code int}) и байты UTF-8. Числа выполнений записаны
+ * в zigzag-varint: обычно номер ячейки растет на 1, а собственный номер совпадает с ним,
+ * поэтому выполнение занимает 3–4 байта вместо объекта в памяти.
+ *
+ * <p>Следующие идентификаторы хранятся явно, чтобы после перезапуска не выдавать заново
+ * идентификаторы удаленных пользователей и привычек. Снимок версии 1 их не содержит и тоже читается.
+ *
+ * <p>Файл читается через отображение в память ({@link FileChannel#map}): разбор идет прямо
+ * по страницам файла без промежуточных буферов и копирования.
+ */
+final class SnapshotFile {
+    static final int MAGIC = 0x4854534E;
+    static final int VERSION = 2;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Записывает снимок данных в файл и сбрасывает файл на диск.
+     *
+     * @param state данные, которые не изменяются во время записи
+     * @param path  путь к файлу снимка
+     * @throws IOException если файл не удалось записать
+     */
+    static void write(StoreState state, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(state.users.getNextId());
+            out.writeInt(state.habits.getNextId());
+
+            out.writeInt(state.users.allUsers().size());
+            for (User user : state.users.allUsers()) {
+                out.writeInt(user.getId());
+                writeString(out, user.getName());
+                writeString(out, user.getEmail());
+                writeString(out, user.getPassword());
+                out.writeByte(user.getRole().ordinal());
+                out.writeBoolean(user.isBlocked());
+            }
+
+            Map<Integer, User> usersById = new HashMap<>();
+            for (User user : state.users.allUsers()) {
+                usersById.put(user.getId(), user);
+            }
+            int[] habitCount = new int[1];
+            state.habits.forEachHabit((owner, habit) -> {
+                if (usersById.containsKey(owner.getId())) {
+                    habitCount[0]++;
+                }
+            });
+            out.writeInt(habitCount[0]);
+            try {
+                state.habits.forEachHabit((owner, habit) -> {
+                    if (usersById.containsKey(owner.getId())) {
+                        writeHabit(out, state, owner, habit);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            out.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Читает снимок из файла через отображение в память.
+     *
+     * @param path путь к файлу снимка
+     * @return восстановленные данные
+     * @throws IOException если файл не удалось прочитать, он поврежден или имеет неизвестную версию
+     */
+    static StoreState read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " is too large to map: " + size + " bytes");
+            }
+            if (size < 16) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - Long.BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES)) {
+                throw new IOException("Snapshot " + path + " is corrupted");
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not a snapshot file");
+            }
+            int version = buffer.getInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+
+            StoreState state = new StoreState();
+            if (version >= 2) {
+                state.users.reserveIds(buffer.getInt());
+                state.habits.reserveIds(buffer.getInt());
+            }
+            Map<Integer, User> usersById = new HashMap<>();
+            int userCount = buffer.getInt();
+            for (int i = 0; i < userCount; i++) {
+                int id = buffer.getInt();
+                User user = new User(readString(buffer), readString(buffer), readString(buffer),
+                        User.Role.values()[buffer.get()]);
+                user.setId(id);
+                user.setBlocked(buffer.get() != 0);
+                state.users.addUser(user);
+                usersById.put(id, user);
+            }
+
+            int habitCount = buffer.getInt();
+            for (int i = 0; i < habitCount; i++) {
+                int id = buffer.getInt();
+                User owner = usersById.get(buffer.getInt());
+                Habit habit = new Habit(readString(buffer), readString(buffer), Habit.Frequency.values()[buffer.get()],
+                        owner, LocalDate.ofEpochDay(buffer.getLong()));
+                habit.setId(id);
+                state.habits.addHabit(owner, habit);
+
+                long createDay = habit.getCreateDate().toEpochDay();
+                int completionCount = buffer.getInt();
+                int slot = 0;
+                for (int j = 0; j < completionCount; j++) {
+                    slot += readVarInt(buffer);
+                    LocalDate markDate = LocalDate.ofEpochDay(createDay + readVarInt(buffer));
+                    int serialNumber = slot + readVarInt(buffer);
+                    state.completions.putHabitCompletion(habit, slot, StoreState.completion(habit, markDate, serialNumber));
+                }
+            }
+            return state;
+        }
+    }
+
+    private static void writeHabit(DataOutputStream out, StoreState state, User owner, Habit habit) {
+        try {
+            out.writeInt(habit.getId());
+            out.writeInt(owner.getId());
+            writeString(out, habit.getName());
+            writeString(out, habit.getDescription());
+            out.writeByte(habit.getFrequency().ordinal());
+            long createDay = habit.getCreateDate().toEpochDay();
+            out.writeLong(createDay);
+            out.writeInt(state.completions.countHabitCompletions(habit));
+
+            int[] previousSlot = new int[1];
+            state.completions.forEachCompletion(habit, (completion, slot) -> {
+                try {
+                    writeVarInt(out, slot - previousSlot[0]);
+                    writeVarInt(out, (int) (completion.getMarkDate().toEpochDay() - createDay));
+                    writeVarInt(out, completion.getSerialNumber() - slot);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                previousSlot[0] = slot;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.writeByte((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte(zigzag);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            zigzag |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Данные хранилища в памяти: репозитории пользователей, привычек и выполнений
+ * и повторение над ними записей журнала {@link WalStore}.
+ *
+ * <p>Один и тот же код восстанавливает данные при открытии хранилища и строит в фоне копию данных
+ * для снимка {@link SnapshotFile}, поэтому записи журнала всегда толкуются одинаково.
+ */
+final class StoreState {
+    final UserRepositoryImpl users;
+    final HabitRepositoryImpl habits;
+    final HabitCompletionRepositoryImpl completions;
+
+    StoreState() {
+        this(new UserRepositoryImpl(), new HabitRepositoryImpl(), new HabitCompletionRepositoryImpl());
+    }
+
+    StoreState(UserRepositoryImpl users, HabitRepositoryImpl habits, HabitCompletionRepositoryImpl completions) {
+        this.users = users;
+        this.habits = habits;
+        this.completions = completions;
+    }
+
+    /**
+     * Повторяет запись журнала над репозиториями.
+     *
+     * @param type тип записи
+     * @param in   данные записи
+     * @throws IOException если тип записи неизвестен или данные не удалось прочитать
+     */
+    void apply(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case WalStore.ADD_USER_WITHOUT_ID:
+            case WalStore.ADD_USER: {
+                int id = type == WalStore.ADD_USER ? in.readInt() : 0;
+                User user = new User(in.readUTF(), in.readUTF(), in.readUTF(), User.Role.values()[in.readByte()]);
+                user.setId(id);
+                users.addUser(user);
+                break;
+            }
+            case WalStore.UPDATE_USER: {
+                User user = users.getUser(in.readUTF());
+                String newName = in.readUTF();
+                String newEmail = in.readUTF();
+                if (user != null) {
+                    users.updateUser(user, newName, newEmail);
+                }
+                break;
+            }
+            case WalStore.DELETE_USER: {
+                User user = users.getUser(in.readUTF());
+                if (user != null) {
+                    users.deleteUser(user);
+                }
+                break;
+            }
+            case WalStore.UPDATE_PASSWORD: {
+                User user = users.getUser(in.readUTF());
+                String newPassword = in.readUTF();
+                if (user != null) {
+                    users.updateUserPassword(user, newPassword);
+                }
+                break;
+            }
+            case WalStore.BLOCK_USER: {
+                User user = users.getUser(in.readUTF());
+                boolean block = in.readBoolean();
+                if (user != null) {
+                    users.blockUser(user, block);
+                }
+                break;
+            }
+            case WalStore.ADD_HABIT_WITHOUT_ID:
+            case WalStore.ADD_HABIT: {
+                int id = type == WalStore.ADD_HABIT ? in.readInt() : 0;
+                User user = users.getUser(in.readUTF());
+                Habit habit = new Habit(in.readUTF(), in.readUTF(), Habit.Frequency.values()[in.readByte()], user,
+                        LocalDate.ofEpochDay(in.readLong()));
+                habit.setId(id);
+                if (user != null) {
+                    habits.addHabit(user, habit);
+                }
+                break;
+            }
+            case WalStore.UPDATE_HABIT: {
+                Habit habit = readHabit(in);
+                String newName = in.readUTF();
+                String newDescription = in.readUTF();
+                Habit.Frequency newFrequency = Habit.Frequency.values()[in.readByte()];
+                if (habit != null) {
+                    habits.updateHabit(habit.getUser(), habit, newName, newDescription, newFrequency);
+                }
+                break;
+            }
+            case WalStore.DELETE_HABIT: {
+                Habit habit = readHabit(in);
+                if (habit != null) {
+                    habits.deleteHabit(habit.getUser(), habit.getName());
+                }
+                break;
+            }
+            case WalStore.ADD_COMPLETION: {
+                Habit habit = readHabit(in);
+                LocalDate markDate = LocalDate.ofEpochDay(in.readLong());
+                int serialNumber = in.readInt();
+                if (habit != null) {
+                    completions.addHabitCompletion(habit, completion(habit, markDate, serialNumber));
+                }
+                break;
+            }
+            case WalStore.UPDATE_COMPLETION: {
+                Habit habit = readHabit(in);
+                int serialNumber = in.readInt();
+                LocalDate markDate = LocalDate.ofEpochDay(in.readLong());
+                int newSerialNumber = in.readInt();
+                if (habit != null) {
+                    completions.updateHabitCompletion(habit, serialNumber, completion(habit, markDate, newSerialNumber));
+                }
+                break;
+            }
+            case WalStore.DELETE_COMPLETION: {
+                Habit habit = readHabit(in);
+                int serialNumber = in.readInt();
+                if (habit != null) {
+                    completions.deleteHabitCompletion(habit, serialNumber);
+                }
+                break;
+            }
+            case WalStore.DELETE_ALL_COMPLETIONS: {
+                Habit habit = readHabit(in);
+                if (habit != null) {
+                    completions.deleteAllHabitCompletion(habit);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown write-ahead log record type " + type);
+        }
+    }
+
+    static HabitCompletion completion(Habit habit, LocalDate markDate, int serialNumber) {
+        HabitCompletion completion = new HabitCompletion(markDate, habit);
+        completion.setSerialNumber(serialNumber);
+        return completion;
+    }
+
+    private Habit readHabit(DataInputStream in) throws IOException {
+        User user = users.getUser(in.readUTF());
+        String habitName = in.readUTF();
+        return user == null ? null : habits.getHabit(user, habitName);
+    }
+}
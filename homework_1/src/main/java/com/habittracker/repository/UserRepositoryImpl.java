@@ -3,6 +3,7 @@ package com.habittracker.repository;
 import com.habittracker.model.User;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +27,7 @@ import java.util.stream.Collectors;
  */
 public class UserRepositoryImpl implements UserRepository{
     private Map<String, User> users = new HashMap<>();
+    private int nextId = 1;
 
     /**
      * Возвращает пользователя по его email.
@@ -40,6 +42,8 @@ public class UserRepositoryImpl implements UserRepository{
 
     /**
      * Добавляет нового пользователя в репозиторий.
+     * Пользователю без идентификатора присваивается следующий свободный идентификатор;
+     * идентификатор уже сохраненного пользователя (например, из снимка) сохраняется.
      * Если пользователь с таким email уже существует, метод возвращает {@code false}.
      *
      * @param user новый пользователь {@link User}, который будет добавлен
@@ -52,6 +56,11 @@ public class UserRepositoryImpl implements UserRepository{
             return false;
         }
 
+        if (user.getId() == 0) {
+            user.setId(nextId++);
+        } else {
+            nextId = Math.max(nextId, user.getId() + 1);
+        }
         users.put(user.getEmail(), user);
         return true;
     }
@@ -145,4 +154,31 @@ public class UserRepositoryImpl implements UserRepository{
                 .filter(user -> !user.getRole().equals(User.Role.ADMIN))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Возвращает всех пользователей, включая администраторов, для записи снимка.
+     *
+     * @return пользователи репозитория
+     */
+    Collection<User> allUsers() {
+        return users.values();
+    }
+
+    /**
+     * Возвращает идентификатор, который получит следующий добавленный объект.
+     *
+     * @return следующий свободный идентификатор
+     */
+    int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Не дает выдавать идентификаторы меньше заданного, в том числе идентификаторы удаленных объектов.
+     *
+     * @param nextId следующий свободный идентификатор
+     */
+    void reserveIds(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
 }
@@ -0,0 +1,83 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Репозиторий выполнений привычек, записывающий успешные изменения в журнал хранилища {@link WalStore}.
+ * Чтение и подсчеты идут в репозиторий в памяти под блокировкой хранилища.
+ */
+class WalHabitCompletionRepository implements HabitCompletionRepository {
+    private final HabitCompletionRepository delegate;
+    private final WalStore store;
+
+    WalHabitCompletionRepository(HabitCompletionRepository delegate, WalStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public HabitCompletion getHabitCompletion(Habit habit, int serialNumber) {
+        return store.read(() -> delegate.getHabitCompletion(habit, serialNumber));
+    }
+
+    @Override
+    public boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion) {
+        byte[] data = WalStore.encode(out -> {
+            WalStore.writeHabitKey(out, habit);
+            out.writeLong(newCompletion.getMarkDate().toEpochDay());
+            out.writeInt(newCompletion.getSerialNumber());
+        });
+        return store.record(WalStore.ADD_COMPLETION, data, () -> delegate.addHabitCompletion(habit, newCompletion));
+    }
+
+    @Override
+    public boolean updateHabitCompletion(Habit habit, int serialNumber, HabitCompletion updatedCompletion) {
+        byte[] data = WalStore.encode(out -> {
+            WalStore.writeHabitKey(out, habit);
+            out.writeInt(serialNumber);
+            out.writeLong(updatedCompletion.getMarkDate().toEpochDay());
+            out.writeInt(updatedCompletion.getSerialNumber());
+        });
+        return store.record(WalStore.UPDATE_COMPLETION, data,
+                () -> delegate.updateHabitCompletion(habit, serialNumber, updatedCompletion));
+    }
+
+    @Override
+    public boolean deleteHabitCompletion(Habit habit, int serialNumber) {
+        byte[] data = WalStore.encode(out -> {
+            WalStore.writeHabitKey(out, habit);
+            out.writeInt(serialNumber);
+        });
+        return store.record(WalStore.DELETE_COMPLETION, data, () -> delegate.deleteHabitCompletion(habit, serialNumber));
+    }
+
+    @Override
+    public boolean deleteAllHabitCompletion(Habit habit) {
+        byte[] data = WalStore.encode(out -> WalStore.writeHabitKey(out, habit));
+        return store.record(WalStore.DELETE_ALL_COMPLETIONS, data, () -> delegate.deleteAllHabitCompletion(habit));
+    }
+
+    @Override
+    public List<HabitCompletion> getAllHabitCompletion(Habit habit) {
+        return store.read(() -> delegate.getAllHabitCompletion(habit));
+    }
+
+    @Override
+    public List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date) {
+        return store.read(() -> delegate.getAllHabitCompletionByDate(habit, date));
+    }
+
+    @Override
+    public int getHabitStreak(Habit habit, int currentSerialNumber) {
+        return store.read(() -> delegate.getHabitStreak(habit, currentSerialNumber));
+    }
+
+    @Override
+    public int countHabitCompletionsByDate(Habit habit, LocalDate date) {
+        return store.read(() -> delegate.countHabitCompletionsByDate(habit, date));
+    }
+}
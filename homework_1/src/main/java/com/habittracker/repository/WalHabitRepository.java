@@ -0,0 +1,64 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+
+import java.util.List;
+
+/**
+ * Репозиторий привычек, записывающий успешные изменения в журнал хранилища {@link WalStore}.
+ * Чтение идет в репозиторий в памяти под блокировкой хранилища.
+ */
+class WalHabitRepository implements HabitRepository {
+    private final HabitRepository delegate;
+    private final WalStore store;
+
+    WalHabitRepository(HabitRepository delegate, WalStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public Habit getHabit(User user, String habitName) {
+        return store.read(() -> delegate.getHabit(user, habitName));
+    }
+
+    @Override
+    public boolean addHabit(User user, Habit habit) {
+        return store.record(WalStore.ADD_HABIT, () -> delegate.addHabit(user, habit), out -> {
+            out.writeInt(habit.getId());
+            out.writeUTF(user.getEmail());
+            out.writeUTF(habit.getName());
+            out.writeUTF(habit.getDescription());
+            out.writeByte(habit.getFrequency().ordinal());
+            out.writeLong(habit.getCreateDate().toEpochDay());
+        });
+    }
+
+    @Override
+    public boolean updateHabit(User user, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency) {
+        byte[] data = WalStore.encode(out -> {
+            out.writeUTF(user.getEmail());
+            out.writeUTF(habit.getName());
+            out.writeUTF(newName);
+            out.writeUTF(newDescription);
+            out.writeByte(newFrequency.ordinal());
+        });
+        return store.record(WalStore.UPDATE_HABIT, data,
+                () -> delegate.updateHabit(user, habit, newName, newDescription, newFrequency));
+    }
+
+    @Override
+    public boolean deleteHabit(User user, String habitName) {
+        byte[] data = WalStore.encode(out -> {
+            out.writeUTF(user.getEmail());
+            out.writeUTF(habitName);
+        });
+        return store.record(WalStore.DELETE_HABIT, data, () -> delegate.deleteHabit(user, habitName));
+    }
+
+    @Override
+    public List<Habit> getAllHabits(User user) {
+        return store.read(() -> delegate.getAllHabits(user));
+    }
+}
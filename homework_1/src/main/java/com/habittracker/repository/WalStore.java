@@ -0,0 +1,460 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.infrastructure.wal.WriteAheadLog;
+import com.habittracker.model.Habit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Хранилище в памяти с журналом упреждающей записи {@link WriteAheadLog} и периодическими снимками.
+ *
+ * <p>Хранилище выдает репозитории пользователей, привычек и выполнений, которые выполняют операцию
+ * над репозиторием в памяти и при успехе дописывают ее в журнал. Пользователи в записях журнала
+ * определяются по email, привычки — по email владельца и названию. Записи о добавлении содержат
+ * присвоенный идентификатор, и при повторении журнала он восстанавливается точно, поэтому
+ * идентификаторы можно использовать как ключи данных вне хранилища (см. {@link MappedHabitCompletionRepository}).
+ * Записи о добавлении без идентификатора из журналов прежних версий имеют свои типы и по-прежнему читаются:
+ * идентификатор им присваивается по порядку, как при исходной записи.
+ *
+ * <p>Данные лежат в каталоге: журнал разбит на поколения {@code wal-N.log}, а снимок
+ * {@code snapshot-N.bin} (см. {@link SnapshotFile}) содержит все изменения из журналов поколений
+ * меньше N. При открытии загружается последний снимок и повторяются только журналы после него,
+ * поэтому время запуска зависит от объема данных, а не от длины всей истории изменений.
+ *
+ * <p>Снимок не останавливает запись: под блокировкой хранилища только закрывается текущий журнал
+ * и открывается следующий. Затем в фоне предыдущий снимок читается в отдельную копию данных,
+ * над ней повторяются закрытые журналы, и копия записывается в новый снимок. Живые репозитории
+ * при этом не читаются, поэтому им не нужны ни блокировка на время записи, ни копирование при записи.
+ * Новый снимок появляется атомарным переименованием, после чего старые журналы и снимки удаляются;
+ * сбой на любом шаге оставляет прежний снимок и журналы целыми.
+ *
+ * <p>Изменение репозитория и добавление записи в буфер журнала выполняются под общей блокировкой,
+ * поэтому порядок записей в журнале совпадает с порядком изменений. Чтение репозиториев идет под той же
+ * блокировкой. Ожидание записи на диск идет уже без блокировки, и одновременные операции разделяют
+ * один {@code fsync}.
+ *
+ * <p>Изменение в памяти выполняется раньше записи в журнал: так в запись попадает присвоенный идентификатор,
+ * а неудачная операция не попадает в журнал вовсе. Поэтому если запись в журнал или ее сброс на диск
+ * не удались, изменение осталось бы только в памяти и пропало бы при перезапуске. В этом случае хранилище
+ * переходит в состояние отказа: операция и все последующие чтения и изменения выбрасывают исключение,
+ * и данные, которых нет в журнале, больше никто не увидит. Работа продолжается после повторного открытия.
+ */
+public class WalStore implements Closeable {
+    /** Добавление пользователя без идентификатора, как писали прежние версии; такие записи только читаются */
+    static final byte ADD_USER_WITHOUT_ID = 1;
+    static final byte UPDATE_USER = 2;
+    static final byte DELETE_USER = 3;
+    static final byte UPDATE_PASSWORD = 4;
+    static final byte BLOCK_USER = 5;
+    static final byte ADD_USER = 6;
+    /** Добавление привычки без идентификатора, как писали прежние версии; такие записи только читаются */
+    static final byte ADD_HABIT_WITHOUT_ID = 10;
+    static final byte UPDATE_HABIT = 11;
+    static final byte DELETE_HABIT = 12;
+    static final byte ADD_HABIT = 13;
+    static final byte ADD_COMPLETION = 20;
+    static final byte UPDATE_COMPLETION = 21;
+    static final byte DELETE_COMPLETION = 22;
+    static final byte DELETE_ALL_COMPLETIONS = 23;
+
+    private static final Pattern LOG_FILE = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+
+    /** Текущий журнал; заменяется под блокировкой хранилища при снимке. */
+    private WriteAheadLog log;
+
+    /** Поколение текущего журнала. */
+    private long generation;
+
+    /** Число записей в текущем журнале. */
+    private long recordsInGeneration;
+
+    /** Поколение последнего снимка; 0, если снимка нет. */
+    private volatile long snapshotGeneration;
+
+    /** Не дает двум снимкам строиться одновременно. */
+    private final Object snapshotLock = new Object();
+
+    /** Поток периодических снимков; {@code null}, если они отключены. */
+    private final ScheduledExecutorService snapshotter;
+
+    private final StoreState state;
+
+    private final UserRepository userRepository;
+    private final HabitRepository habitRepository;
+    private final HabitCompletionRepository habitCompletionRepository;
+
+    private final long replayedRecords;
+
+    /** Первая ошибка журнала; после нее хранилище отклоняет все операции с репозиториями. */
+    private volatile RuntimeException failure;
+
+    /**
+     * Открывает хранилище без периодических снимков; снимок можно сделать методом {@link #snapshot}.
+     *
+     * @param directory           каталог с журналами и снимками
+     * @param policy              политика сброса журнала на диск
+     * @param fsyncIntervalMillis интервал сброса (мс) для политики {@link FsyncPolicy#INTERVAL}
+     * @throws IOException если данные не удалось прочитать
+     */
+    public WalStore(Path directory, FsyncPolicy policy, long fsyncIntervalMillis) throws IOException {
+        this(directory, policy, fsyncIntervalMillis, 0);
+    }
+
+    /**
+     * Открывает хранилище в заданном каталоге: загружает последний снимок и повторяет журналы после него.
+     *
+     * @param directory              каталог с журналами и снимками, создается при необходимости
+     * @param policy                 политика сброса журнала на диск
+     * @param fsyncIntervalMillis    интервал сброса (мс) для политики {@link FsyncPolicy#INTERVAL}
+     * @param snapshotIntervalMillis интервал периодических снимков (мс); 0 отключает их
+     * @throws IOException если данные не удалось прочитать
+     */
+    public WalStore(Path directory, FsyncPolicy policy, long fsyncIntervalMillis, long snapshotIntervalMillis)
+            throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        Files.createDirectories(directory);
+
+        List<Long> snapshots = generations(SNAPSHOT_FILE);
+        snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        state = snapshotGeneration == 0 ? new StoreState() : SnapshotFile.read(snapshotPath(snapshotGeneration));
+
+        long replayed = 0;
+        generation = Math.max(snapshotGeneration, 1);
+        for (long logGeneration : generations(LOG_FILE)) {
+            if (logGeneration < generation) {
+                continue;
+            }
+            if (log != null) {
+                log.close();
+            }
+            generation = logGeneration;
+            log = new WriteAheadLog(logPath(generation), policy, fsyncIntervalMillis);
+            recordsInGeneration = log.replay(state::apply);
+            replayed += recordsInGeneration;
+        }
+        if (log == null) {
+            log = new WriteAheadLog(logPath(generation), policy, fsyncIntervalMillis);
+            log.replay(state::apply);
+        }
+        this.replayedRecords = replayed;
+
+        this.userRepository = new WalUserRepository(state.users, this);
+        this.habitRepository = new WalHabitRepository(state.habits, this);
+        this.habitCompletionRepository = new WalHabitCompletionRepository(state.completions, this);
+
+        if (snapshotIntervalMillis > 0) {
+            snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotter.scheduleWithFixedDelay(this::snapshotInBackground, snapshotIntervalMillis,
+                    snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            snapshotter = null;
+        }
+    }
+
+    public UserRepository getUserRepository() {
+        return userRepository;
+    }
+
+    public HabitRepository getHabitRepository() {
+        return habitRepository;
+    }
+
+    public HabitCompletionRepository getHabitCompletionRepository() {
+        return habitCompletionRepository;
+    }
+
+    /**
+     * Возвращает число записей журнала, повторенных при открытии после загрузки снимка.
+     *
+     * @return число восстановленных операций
+     */
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Возвращает поколение последнего снимка.
+     *
+     * @return поколение снимка или 0, если снимков еще не было
+     */
+    public long getSnapshotGeneration() {
+        return snapshotGeneration;
+    }
+
+    /**
+     * Делает снимок: переключает запись на новый журнал и строит снимок из предыдущего снимка
+     * и закрытых журналов. Запись в хранилище останавливается только на переключение журнала.
+     * Если с прошлого снимка изменений не было, ничего не делает.
+     *
+     * @return {@code true}, если снимок создан
+     * @throws IOException если журналы или снимок не удалось прочитать или записать
+     */
+    public boolean snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long closedGeneration;
+            synchronized (this) {
+                if (recordsInGeneration == 0) {
+                    return false;
+                }
+                WriteAheadLog next = new WriteAheadLog(logPath(generation + 1), policy, fsyncIntervalMillis);
+                next.replay((type, data) -> {
+                });
+                log.close();
+                log = next;
+                closedGeneration = generation++;
+                recordsInGeneration = 0;
+            }
+
+            long previousSnapshot = snapshotGeneration;
+            StoreState copy = previousSnapshot == 0 ? new StoreState() : SnapshotFile.read(snapshotPath(previousSnapshot));
+            for (long logGeneration = Math.max(previousSnapshot, 1); logGeneration <= closedGeneration; logGeneration++) {
+                Path path = logPath(logGeneration);
+                if (Files.exists(path)) {
+                    try (WriteAheadLog closed = new WriteAheadLog(path, FsyncPolicy.NEVER, 0)) {
+                        closed.replay(copy::apply);
+                    }
+                }
+            }
+
+            long newSnapshot = closedGeneration + 1;
+            Path temporary = directory.resolve("snapshot-" + newSnapshot + ".tmp");
+            try {
+                SnapshotFile.write(copy, temporary);
+                Files.move(temporary, snapshotPath(newSnapshot), StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            snapshotGeneration = newSnapshot;
+
+            for (long logGeneration : generations(LOG_FILE)) {
+                if (logGeneration < newSnapshot) {
+                    Files.deleteIfExists(logPath(logGeneration));
+                }
+            }
+            for (long snapshotGen : generations(SNAPSHOT_FILE)) {
+                if (snapshotGen < newSnapshot) {
+                    Files.deleteIfExists(snapshotPath(snapshotGen));
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+        }
+        synchronized (snapshotLock) {
+            synchronized (this) {
+                log.close();
+            }
+        }
+    }
+
+    private void snapshotInBackground() {
+        try {
+            snapshot();
+        } catch (IOException | UncheckedIOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Path logPath(long logGeneration) {
+        return directory.resolve("wal-" + logGeneration + ".log");
+    }
+
+    private Path snapshotPath(long snapshotGen) {
+        return directory.resolve("snapshot-" + snapshotGen + ".bin");
+    }
+
+    /**
+     * Возвращает поколения файлов каталога, имена которых подходят под шаблон, по возрастанию.
+     */
+    private List<Long> generations(Pattern pattern) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    result.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    /**
+     * Выполняет изменение и, если оно прошло успешно, записывает его в журнал.
+     *
+     * @param type     тип записи
+     * @param data     данные записи, подготовленные до изменения
+     * @param mutation изменение репозитория в памяти
+     * @return результат изменения
+     * @throws IllegalStateException если журнал хранилища ранее не удалось записать
+     */
+    boolean record(byte type, byte[] data, BooleanSupplier mutation) {
+        WriteAheadLog target;
+        long seq;
+        synchronized (this) {
+            checkNotFailed();
+            if (!mutation.getAsBoolean()) {
+                return false;
+            }
+            target = log;
+            seq = append(target, type, () -> data);
+        }
+        sync(target, seq);
+        return true;
+    }
+
+    /**
+     * Выполняет изменение и, если оно прошло успешно, записывает его в журнал. Данные записи кодируются
+     * уже после изменения, поэтому в них попадает идентификатор, присвоенный при добавлении.
+     *
+     * @param type     тип записи
+     * @param mutation изменение репозитория в памяти
+     * @param writer   кодирование данных записи
+     * @return результат изменения
+     * @throws IllegalStateException если журнал хранилища ранее не удалось записать
+     */
+    boolean record(byte type, BooleanSupplier mutation, RecordWriter writer) {
+        WriteAheadLog target;
+        long seq;
+        synchronized (this) {
+            checkNotFailed();
+            if (!mutation.getAsBoolean()) {
+                return false;
+            }
+            target = log;
+            seq = append(target, type, () -> encode(writer));
+        }
+        sync(target, seq);
+        return true;
+    }
+
+    /**
+     * Выполняет изменение и, если оно вернуло не {@code null}, записывает его в журнал.
+     *
+     * @param type     тип записи
+     * @param data     данные записи, подготовленные до изменения
+     * @param mutation изменение репозитория в памяти
+     * @return результат изменения
+     * @throws IllegalStateException если журнал хранилища ранее не удалось записать
+     */
+    <T> T record(byte type, byte[] data, Supplier<T> mutation) {
+        T result;
+        WriteAheadLog target;
+        long seq;
+        synchronized (this) {
+            checkNotFailed();
+            result = mutation.get();
+            if (result == null) {
+                return null;
+            }
+            target = log;
+            seq = append(target, type, () -> data);
+        }
+        sync(target, seq);
+        return result;
+    }
+
+    /**
+     * Выполняет чтение под блокировкой хранилища, чтобы не читать репозитории в памяти
+     * одновременно с их изменением.
+     *
+     * @param query чтение репозитория в памяти
+     * @return результат чтения
+     * @throws IllegalStateException если журнал хранилища ранее не удалось записать
+     */
+    synchronized <T> T read(Supplier<T> query) {
+        checkNotFailed();
+        return query.get();
+    }
+
+    /**
+     * Добавляет запись в буфер журнала. Вызывается под блокировкой хранилища уже после изменения,
+     * поэтому при ошибке хранилище переходит в состояние отказа: изменение осталось только в памяти.
+     */
+    private long append(WriteAheadLog target, byte type, Supplier<byte[]> data) {
+        try {
+            long seq = target.append(type, data.get());
+            recordsInGeneration++;
+            return seq;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Дожидается сохранения записи. При ошибке хранилище переходит в состояние отказа.
+     */
+    private void sync(WriteAheadLog target, long seq) {
+        try {
+            target.sync(seq);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("The store has failed to write its log and must be reopened", failure);
+        }
+    }
+
+    /**
+     * Кодирует данные записи журнала.
+     */
+    @FunctionalInterface
+    interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    static byte[] encode(RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static void writeHabitKey(DataOutputStream out, Habit habit) throws IOException {
+        out.writeUTF(habit.getUser().getEmail());
+        out.writeUTF(habit.getName());
+    }
+}
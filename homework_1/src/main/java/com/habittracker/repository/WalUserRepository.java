@@ -0,0 +1,77 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.User;
+
+import java.util.List;
+
+/**
+ * Репозиторий пользователей, записывающий успешные изменения в журнал хранилища {@link WalStore}.
+ * Чтение идет в репозиторий в памяти под блокировкой хранилища.
+ */
+class WalUserRepository implements UserRepository {
+    private final UserRepository delegate;
+    private final WalStore store;
+
+    WalUserRepository(UserRepository delegate, WalStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public User getUser(String email) {
+        return store.read(() -> delegate.getUser(email));
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        if (user == null) {
+            return false;
+        }
+        return store.record(WalStore.ADD_USER, () -> delegate.addUser(user), out -> {
+            out.writeInt(user.getId());
+            out.writeUTF(user.getName());
+            out.writeUTF(user.getEmail());
+            out.writeUTF(user.getPassword());
+            out.writeByte(user.getRole().ordinal());
+        });
+    }
+
+    @Override
+    public boolean updateUser(User user, String newName, String newEmail) {
+        byte[] data = WalStore.encode(out -> {
+            out.writeUTF(user.getEmail());
+            out.writeUTF(newName);
+            out.writeUTF(newEmail);
+        });
+        return store.record(WalStore.UPDATE_USER, data, () -> delegate.updateUser(user, newName, newEmail));
+    }
+
+    @Override
+    public boolean deleteUser(User user) {
+        byte[] data = WalStore.encode(out -> out.writeUTF(user.getEmail()));
+        return store.record(WalStore.DELETE_USER, data, () -> delegate.deleteUser(user));
+    }
+
+    @Override
+    public User updateUserPassword(User user, String newPassword) {
+        byte[] data = WalStore.encode(out -> {
+            out.writeUTF(user.getEmail());
+            out.writeUTF(newPassword);
+        });
+        return store.record(WalStore.UPDATE_PASSWORD, data, () -> delegate.updateUserPassword(user, newPassword));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return store.read(delegate::getAllUsers);
+    }
+
+    @Override
+    public boolean blockUser(User user, Boolean block) {
+        byte[] data = WalStore.encode(out -> {
+            out.writeUTF(user.getEmail());
+            out.writeBoolean(block);
+        });
+        return store.record(WalStore.BLOCK_USER, data, () -> delegate.blockUser(user, block));
+    }
+}
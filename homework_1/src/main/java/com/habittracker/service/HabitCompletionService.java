@@ -14,7 +14,23 @@ import java.util.List;
  * Он взаимодействует с репозиторием {@link HabitCompletionRepository}, чтобы сохранять, удалять и получать данные о выполненных привычках.
  */
 public class HabitCompletionService {
-    public HabitCompletionRepository habitCompletionRepository = new HabitCompletionRepositoryImpl();
+    public HabitCompletionRepository habitCompletionRepository;
+
+    /**
+     * Создает сервис с хранилищем выполнений {@link HabitCompletionRepositoryImpl}.
+     */
+    public HabitCompletionService() {
+        this(new HabitCompletionRepositoryImpl());
+    }
+
+    /**
+     * Создает сервис с заданным хранилищем выполнений, например, {@link com.habittracker.repository.BitSetHabitCompletionRepository}.
+     *
+     * @param habitCompletionRepository хранилище выполнений привычек
+     */
+    public HabitCompletionService(HabitCompletionRepository habitCompletionRepository) {
+        this.habitCompletionRepository = habitCompletionRepository;
+    }
 
     /**
      * Создает и сохраняет завершение привычки на заданную дату.
@@ -141,33 +141,19 @@ public class HabitService {
 
     /**
      * Подсчитывает текущую серию успешных выполнений привычки.
-     * Метод проверяет последовательные выполненные привычки начиная с последнего дня или недели.
+     * Серия считается в репозитории начиная с текущего дня или недели и до первого пропуска.
      *
      * @param habit привычка, для которой нужно подсчитать серию
      * @return количество дней или недель в серии
      */
     public int countHabitStreak(Habit habit){
-        int result = 0;
         int currentSerialNumber;
         if(habit.getFrequency().equals(Habit.Frequency.DAILY)){
             currentSerialNumber = (int) ChronoUnit.DAYS.between(habit.getCreateDate(), LocalDate.now()) + 1;
         } else {
             currentSerialNumber = (int) ChronoUnit.WEEKS.between(habit.getCreateDate(), LocalDate.now()) + 1;
         }
-        List<HabitCompletion> habitCompletions = habitCompletionRepository.getAllHabitCompletion(habit);
-        List<HabitCompletion> sortedCompletions = habitCompletions.stream()
-                .sorted(Comparator.comparingInt(HabitCompletion::getSerialNumber).reversed())
-                .collect(Collectors.toList());
-        for(HabitCompletion comp : sortedCompletions){
-            if(comp.getSerialNumber() == currentSerialNumber){
-                result++;
-                currentSerialNumber--;
-            } else {
-                break;
-            }
-        }
-
-        return result;
+        return habitCompletionRepository.getHabitStreak(habit, currentSerialNumber);
     }
 
     /**
@@ -180,13 +166,7 @@ public class HabitService {
      */
     public int countPercentage(LocalDate startDate, Habit habit) {
         double percentage = 0;
-        List<HabitCompletion> habitCompletions = habitCompletionRepository.getAllHabitCompletionByDate(habit, startDate);
-
-        if(habitCompletions == null){
-            return 0;
-        }
-
-        int count = habitCompletions.size();
+        int count = habitCompletionRepository.countHabitCompletionsByDate(habit, startDate);
         LocalDate createDate = habit.getCreateDate();
 
         int max;
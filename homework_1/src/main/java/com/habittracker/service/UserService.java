@@ -16,15 +16,26 @@ import static com.habittracker.model.User.Role;
  * Этот класс взаимодействует с UserRepository для выполнения CRUD операций с пользователями.
  */
 public class UserService {
-    public UserRepository userRepository = new UserRepositoryImpl();
+    public UserRepository userRepository;
 
     /**
-     * Конструктор по умолчанию, который инициализирует сервис с администратором по умолчанию.
+     * Конструктор по умолчанию, который инициализирует сервис с репозиторием пользователей
+     * {@link UserRepositoryImpl} и администратором по умолчанию.
      */
     public UserService() {
+        this(new UserRepositoryImpl());
         User admin = new User("Admin", "admin", "admin", Role.ADMIN);
     }
 
+    /**
+     * Создает сервис с заданным репозиторием пользователей, например, из {@link com.habittracker.repository.WalStore}.
+     *
+     * @param userRepository репозиторий пользователей
+     */
+    public UserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
     /**
      * Регистрирует нового пользователя с указанными именем, электронной почтой и паролем.
      *
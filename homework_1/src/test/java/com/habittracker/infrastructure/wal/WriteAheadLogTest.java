@@ -0,0 +1,303 @@
+package com.habittracker.infrastructure.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplay_ReturnsRecordsInOrder() throws IOException {
+        Path path = tempDir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.ALWAYS, 0)) {
+            log.replay((type, data) -> fail("New log must be empty"));
+            log.sync(log.append((byte) 1, bytes("first")));
+            log.sync(log.append((byte) 2, bytes("second")));
+        }
+
+        List<String> records = readAll(path);
+
+        assertEquals(List.of("1:first", "2:second"), records);
+    }
+
+    @Test
+    void testReplay_DropsTornTail() throws IOException {
+        Path path = tempDir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.ALWAYS, 0)) {
+            log.replay((type, data) -> { });
+            log.sync(log.append((byte) 1, bytes("complete")));
+        }
+        long validSize = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0, 20, 1, 2}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.ALWAYS, 0)) {
+            assertEquals(1, log.replay((type, data) -> { }));
+            assertEquals(validSize, Files.size(path));
+            log.sync(log.append((byte) 2, bytes("after")));
+        }
+
+        assertEquals(List.of("1:complete", "2:after"), readAll(path));
+    }
+
+    @Test
+    void testReplay_DropsRecordWithWrongChecksum() throws IOException {
+        Path path = tempDir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.ALWAYS, 0)) {
+            log.replay((type, data) -> { });
+            log.sync(log.append((byte) 1, bytes("good")));
+            log.sync(log.append((byte) 2, bytes("damaged")));
+        }
+        byte[] content = Files.readAllBytes(path);
+        content[content.length - 1] ^= 1;
+        Files.write(path, content);
+
+        assertEquals(List.of("1:good"), readAll(path));
+    }
+
+    @Test
+    void testSync_IntervalPolicyWritesWithoutWaitingForFsync() throws IOException {
+        Path path = tempDir.resolve("test.wal");
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.INTERVAL, 60_000)) {
+            log.replay((type, data) -> { });
+            log.sync(log.append((byte) 1, bytes("record")));
+
+            assertTrue(Files.size(path) > 0);
+            assertEquals(0, log.getForceCount());
+        }
+
+        assertEquals(List.of("1:record"), readAll(path));
+    }
+
+    @Test
+    void testSync_ConcurrentWritersShareFsync() throws Exception {
+        Path path = tempDir.resolve("test.wal");
+        int threads = 8;
+        int recordsPerThread = 200;
+
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.ALWAYS, 0)) {
+            log.replay((type, data) -> { });
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int threadIndex = t;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < recordsPerThread; i++) {
+                            log.sync(log.append((byte) threadIndex, bytes(Integer.toString(i))));
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertTrue(log.getForceCount() < threads * recordsPerThread, "forces: " + log.getForceCount());
+        }
+
+        List<String> records = readAll(path);
+        assertEquals(threads * recordsPerThread, records.size());
+        for (int t = 0; t < threads; t++) {
+            String prefix = t + ":";
+            List<String> threadRecords = records.stream().filter(record -> record.startsWith(prefix)).toList();
+            for (int i = 0; i < recordsPerThread; i++) {
+                assertEquals(prefix + i, threadRecords.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testSync_WriteFailureFailsLogAndDropsTornRecord() throws IOException {
+        Path path = tempDir.resolve("test.wal");
+        FailingChannel channel = new FailingChannel(path);
+        WriteAheadLog log = new WriteAheadLog(channel, FsyncPolicy.ALWAYS, 0);
+        log.replay((type, data) -> { });
+        log.sync(log.append((byte) 1, bytes("first")));
+        long validSize = Files.size(path);
+
+        channel.failWriteAfter = 3;
+        long lost = log.append((byte) 2, bytes("lost"));
+        assertThrows(UncheckedIOException.class, () -> log.sync(lost));
+        channel.failWriteAfter = -1;
+
+        assertThrows(UncheckedIOException.class, () -> log.append((byte) 3, bytes("after")));
+        assertThrows(UncheckedIOException.class, () -> log.sync(lost));
+        assertEquals(validSize, Files.size(path));
+        assertThrows(IOException.class, log::close);
+
+        assertEquals(List.of("1:first"), readAll(path));
+    }
+
+    @Test
+    void testSync_ForceFailureFailsLog() throws IOException {
+        Path path = tempDir.resolve("test.wal");
+        FailingChannel channel = new FailingChannel(path);
+        WriteAheadLog log = new WriteAheadLog(channel, FsyncPolicy.ALWAYS, 0);
+        log.replay((type, data) -> { });
+        log.sync(log.append((byte) 1, bytes("first")));
+
+        channel.failForce = true;
+        long lost = log.append((byte) 2, bytes("lost"));
+        assertThrows(UncheckedIOException.class, () -> log.sync(lost));
+        channel.failForce = false;
+
+        assertThrows(UncheckedIOException.class, () -> log.sync(lost));
+        assertThrows(UncheckedIOException.class, () -> log.append((byte) 3, bytes("after")));
+        assertThrows(IOException.class, log::close);
+
+        assertEquals(List.of("1:first"), readAll(path));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readAll(Path path) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(path, FsyncPolicy.NEVER, 0)) {
+            log.replay((type, data) -> records.add(type + ":" + new String(data.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        return records;
+    }
+
+    /**
+     * Канал файла, который по запросу обрывает запись или сброс на диск ошибкой.
+     */
+    private static class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+
+        /** Сколько байт записать перед ошибкой; отрицательное значение — писать без ошибок. */
+        int failWriteAfter = -1;
+
+        boolean failForce;
+
+        FailingChannel(Path path) throws IOException {
+            delegate = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWriteAfter < 0) {
+                return delegate.write(src);
+            }
+            ByteBuffer head = src.duplicate();
+            head.limit(head.position() + Math.min(failWriteAfter, head.remaining()));
+            delegate.write(head);
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                throw new IOException("Input/output error");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
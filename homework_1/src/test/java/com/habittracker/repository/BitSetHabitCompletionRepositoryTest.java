@@ -0,0 +1,162 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitSetHabitCompletionRepositoryTest {
+    private BitSetHabitCompletionRepository habitCompletionRepository;
+    private Habit dailyHabit;
+    private Habit weeklyHabit;
+
+    @BeforeEach
+    void setUp() {
+        habitCompletionRepository = new BitSetHabitCompletionRepository();
+        User user = new User("Test User", "test@example.com", "password", User.Role.USER);
+        dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, user, LocalDate.now().minusDays(9));
+        weeklyHabit = new Habit("Weekly Habit", "Description", Habit.Frequency.WEEKLY, user, LocalDate.now().minusWeeks(4));
+    }
+
+    @Test
+    void testAddAndGetHabitCompletion() {
+        HabitCompletion completion = new HabitCompletion(LocalDate.now().minusDays(2), dailyHabit);
+
+        assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, completion));
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, completion));
+
+        HabitCompletion retrievedCompletion = habitCompletionRepository.getHabitCompletion(dailyHabit, completion.getSerialNumber());
+        assertNotNull(retrievedCompletion);
+        assertEquals(8, retrievedCompletion.getSerialNumber());
+        assertEquals(completion.getMarkDate(), retrievedCompletion.getMarkDate());
+        assertNull(habitCompletionRepository.getHabitCompletion(dailyHabit, 7));
+    }
+
+    @Test
+    void testAddHabitCompletion_BeforeCreateDate() {
+        HabitCompletion completion = new HabitCompletion(dailyHabit.getCreateDate().minusDays(1), dailyHabit);
+
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, completion));
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(dailyHabit).isEmpty());
+    }
+
+    @Test
+    void testAddHabitCompletion_RejectsFarOffSerialNumber() {
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.of(9999, 12, 31), dailyHabit)));
+        assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(dailyHabit.getCreateDate().plusYears(100), dailyHabit)));
+
+        assertEquals(1, habitCompletionRepository.getAllHabitCompletion(dailyHabit).size());
+        assertEquals(0, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.MAX));
+        assertEquals(1, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.MIN));
+    }
+
+    @Test
+    void testWeeklyMarkDateIsWeekStart() {
+        habitCompletionRepository.addHabitCompletion(weeklyHabit, new HabitCompletion(LocalDate.now().minusWeeks(1), weeklyHabit));
+
+        HabitCompletion retrievedCompletion = habitCompletionRepository.getHabitCompletion(weeklyHabit, 4);
+        assertNotNull(retrievedCompletion);
+        assertEquals(weeklyHabit.getCreateDate().plusWeeks(3), retrievedCompletion.getMarkDate());
+    }
+
+    @Test
+    void testUpdateAndDeleteHabitCompletion() {
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now().minusDays(1), dailyHabit));
+
+        assertTrue(habitCompletionRepository.updateHabitCompletion(dailyHabit, 9, new HabitCompletion(LocalDate.now(), dailyHabit)));
+        assertNotNull(habitCompletionRepository.getHabitCompletion(dailyHabit, 9));
+        assertNull(habitCompletionRepository.getHabitCompletion(dailyHabit, 10));
+        assertFalse(habitCompletionRepository.updateHabitCompletion(dailyHabit, 10, new HabitCompletion(LocalDate.now(), dailyHabit)));
+
+        assertTrue(habitCompletionRepository.deleteHabitCompletion(dailyHabit, 9));
+        assertFalse(habitCompletionRepository.deleteHabitCompletion(dailyHabit, 9));
+        assertFalse(habitCompletionRepository.deleteHabitCompletion(weeklyHabit, 1));
+    }
+
+    @Test
+    void testDeleteAllHabitCompletion() {
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now(), dailyHabit));
+
+        assertTrue(habitCompletionRepository.deleteAllHabitCompletion(dailyHabit));
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(dailyHabit).isEmpty());
+    }
+
+    @Test
+    void testGetAllHabitCompletion_SortedBySerialNumber() {
+        for (int days : new int[]{0, 5, 2}) {
+            habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now().minusDays(days), dailyHabit));
+        }
+
+        List<HabitCompletion> completions = habitCompletionRepository.getAllHabitCompletion(dailyHabit);
+
+        assertEquals(3, completions.size());
+        assertEquals(5, completions.get(0).getSerialNumber());
+        assertEquals(8, completions.get(1).getSerialNumber());
+        assertEquals(10, completions.get(2).getSerialNumber());
+        assertEquals(LocalDate.now(), completions.get(2).getMarkDate());
+        assertEquals(2, habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, LocalDate.now().minusDays(3)).size());
+    }
+
+    @Test
+    void testGetHabitStreak() {
+        // Серийные номера 7, 8, 9, 10: сегодня десятый день, вчерашний пропуск прерывает серию на шестом дне
+        for (int days = 0; days <= 3; days++) {
+            habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now().minusDays(days), dailyHabit));
+        }
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now().minusDays(5), dailyHabit));
+
+        assertEquals(4, habitCompletionRepository.getHabitStreak(dailyHabit, 10));
+        assertEquals(1, habitCompletionRepository.getHabitStreak(dailyHabit, 5));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(dailyHabit, 6));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(dailyHabit, 11));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(weeklyHabit, 5));
+    }
+
+    @Test
+    void testCountHabitCompletionsByDate() {
+        for (int days : new int[]{9, 3, 0}) {
+            habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now().minusDays(days), dailyHabit));
+        }
+
+        assertEquals(3, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.now().minusMonths(1)));
+        assertEquals(2, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.now().minusWeeks(1)));
+        assertEquals(1, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.now()));
+        assertEquals(0, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.now().plusDays(1)));
+    }
+
+    @Test
+    void testMatchesMapRepository() {
+        HabitCompletionRepositoryImpl mapRepository = new HabitCompletionRepositoryImpl();
+        Habit longHabit = new Habit("Long Habit", "Description", Habit.Frequency.DAILY, dailyHabit.getUser(), LocalDate.now().minusDays(729));
+        Random random = new Random(42);
+        for (int days = 0; days < 730; days++) {
+            if (random.nextDouble() < 0.8) {
+                HabitCompletion completion = new HabitCompletion(LocalDate.now().minusDays(days), longHabit);
+                habitCompletionRepository.addHabitCompletion(longHabit, completion);
+                mapRepository.addHabitCompletion(longHabit, completion);
+            }
+        }
+
+        for (int serialNumber = 1; serialNumber <= 731; serialNumber += 3) {
+            HabitCompletion updated = new HabitCompletion(LocalDate.now(), longHabit);
+            assertEquals(mapRepository.updateHabitCompletion(longHabit, serialNumber, updated),
+                    habitCompletionRepository.updateHabitCompletion(longHabit, serialNumber, updated));
+        }
+
+        for (int serialNumber = 1; serialNumber <= 731; serialNumber++) {
+            assertEquals(mapRepository.getHabitStreak(longHabit, serialNumber), habitCompletionRepository.getHabitStreak(longHabit, serialNumber));
+        }
+        for (int days = 0; days <= 731; days += 7) {
+            LocalDate date = LocalDate.now().minusDays(days);
+            assertEquals(mapRepository.countHabitCompletionsByDate(longHabit, date), habitCompletionRepository.countHabitCompletionsByDate(longHabit, date));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentHabitCompletionRepositoryTest {
+    private static final int THREADS = 8;
+    private static final int DAYS = 2_000;
+
+    private ConcurrentHabitCompletionRepository habitCompletionRepository;
+    private LocalDate createDate;
+    private Habit testHabit;
+
+    @BeforeEach
+    void setUp() {
+        habitCompletionRepository = new ConcurrentHabitCompletionRepository();
+        createDate = LocalDate.now().minusDays(DAYS - 1);
+        User user = new User("Test User", "test@example.com", "password", User.Role.USER);
+        testHabit = new Habit("Test Habit", "Description", Habit.Frequency.DAILY, user, createDate);
+    }
+
+    @Test
+    void testAddHabitCompletion_Duplicate() {
+        HabitCompletion completion = new HabitCompletion(createDate, testHabit);
+
+        assertTrue(habitCompletionRepository.addHabitCompletion(testHabit, completion));
+        assertFalse(habitCompletionRepository.addHabitCompletion(testHabit, completion));
+        assertSame(completion, habitCompletionRepository.getHabitCompletion(testHabit, 1));
+    }
+
+    @Test
+    void testGetAllHabitCompletion_OrderedBySerialNumber() {
+        for (int day = 9; day >= 0; day--) {
+            habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate.plusDays(day), testHabit));
+        }
+
+        List<HabitCompletion> result = habitCompletionRepository.getAllHabitCompletion(testHabit);
+
+        assertEquals(10, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i + 1, result.get(i).getSerialNumber());
+        }
+    }
+
+    @Test
+    void testGetAllHabitCompletionByDate_AndCount() {
+        for (int day = 0; day < 10; day++) {
+            habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate.plusDays(day), testHabit));
+        }
+
+        List<HabitCompletion> result = habitCompletionRepository.getAllHabitCompletionByDate(testHabit, createDate.plusDays(6));
+
+        assertEquals(4, result.size());
+        assertEquals(7, result.get(0).getSerialNumber());
+        assertEquals(4, habitCompletionRepository.countHabitCompletionsByDate(testHabit, createDate.plusDays(6)));
+    }
+
+    @Test
+    void testGetHabitStreak() {
+        for (int day = 0; day < 10; day++) {
+            if (day != 4) {
+                habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate.plusDays(day), testHabit));
+            }
+        }
+
+        assertEquals(5, habitCompletionRepository.getHabitStreak(testHabit, 10));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(testHabit, 5));
+    }
+
+    @Test
+    void testUpdateAndDeleteHabitCompletion() {
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate, testHabit));
+        HabitCompletion updated = new HabitCompletion(createDate, testHabit);
+
+        assertTrue(habitCompletionRepository.updateHabitCompletion(testHabit, 1, updated));
+        assertSame(updated, habitCompletionRepository.getHabitCompletion(testHabit, 1));
+        assertFalse(habitCompletionRepository.updateHabitCompletion(testHabit, 2, updated));
+
+        assertTrue(habitCompletionRepository.deleteHabitCompletion(testHabit, 1));
+        assertFalse(habitCompletionRepository.deleteHabitCompletion(testHabit, 1));
+    }
+
+    @Test
+    void testDeleteAllHabitCompletion() {
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate, testHabit));
+
+        assertTrue(habitCompletionRepository.deleteAllHabitCompletion(testHabit));
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(testHabit).isEmpty());
+    }
+
+    @Test
+    void testAddHabitCompletion_ConcurrentSamePeriod() throws Exception {
+        AtomicInteger added = new AtomicInteger();
+
+        runConcurrently(threadIndex -> {
+            for (int day = 0; day < DAYS; day++) {
+                if (habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate.plusDays(day), testHabit))) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(DAYS, added.get());
+        assertEquals(DAYS, habitCompletionRepository.getAllHabitCompletion(testHabit).size());
+        assertEquals(DAYS, habitCompletionRepository.getHabitStreak(testHabit, DAYS));
+    }
+
+    @Test
+    void testAddAndDeleteHabitCompletion_ConcurrentNoLostUpdates() throws Exception {
+        runConcurrently(threadIndex -> {
+            for (int day = threadIndex; day < DAYS; day += THREADS) {
+                assertTrue(habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(createDate.plusDays(day), testHabit)));
+                if (day % 2 == 1) {
+                    assertTrue(habitCompletionRepository.deleteHabitCompletion(testHabit, day + 1));
+                }
+            }
+        });
+
+        assertEquals(DAYS / 2, habitCompletionRepository.countHabitCompletionsByDate(testHabit, createDate));
+    }
+
+    /**
+     * Запускает задачу одновременно в {@link #THREADS} потоках и пробрасывает первую ошибку.
+     */
+    private static void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int threadIndex = t;
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    task.accept(threadIndex);
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
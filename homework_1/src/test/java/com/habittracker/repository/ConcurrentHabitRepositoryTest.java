@@ -0,0 +1,136 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentHabitRepositoryTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 1_000;
+
+    private ConcurrentHabitRepository habitRepository;
+    private User testUser;
+    private Habit testHabit;
+
+    @BeforeEach
+    void setUp() {
+        habitRepository = new ConcurrentHabitRepository();
+        testUser = new User("Test User", "test@example.com", "password", User.Role.USER);
+        testHabit = new Habit("Test Habit", "Description", Habit.Frequency.DAILY, testUser);
+    }
+
+    @Test
+    void testAddHabit_Duplicate() {
+        assertTrue(habitRepository.addHabit(testUser, testHabit));
+
+        assertFalse(habitRepository.addHabit(testUser, testHabit));
+        assertEquals(1, habitRepository.getAllHabits(testUser).size());
+    }
+
+    @Test
+    void testUpdateHabit_Renames() {
+        habitRepository.addHabit(testUser, testHabit);
+
+        assertTrue(habitRepository.updateHabit(testUser, testHabit, "New Name", "New Description", Habit.Frequency.WEEKLY));
+
+        assertNull(habitRepository.getHabit(testUser, "Test Habit"));
+        Habit updated = habitRepository.getHabit(testUser, "New Name");
+        assertEquals("New Description", updated.getDescription());
+        assertEquals(Habit.Frequency.WEEKLY, updated.getFrequency());
+    }
+
+    @Test
+    void testUpdateHabit_NonExistentHabit() {
+        assertFalse(habitRepository.updateHabit(testUser, testHabit, "New Name", "New Description", Habit.Frequency.WEEKLY));
+    }
+
+    @Test
+    void testDeleteHabit() {
+        habitRepository.addHabit(testUser, testHabit);
+
+        assertTrue(habitRepository.deleteHabit(testUser, "Test Habit"));
+        assertFalse(habitRepository.deleteHabit(testUser, "Test Habit"));
+        assertTrue(habitRepository.getAllHabits(testUser).isEmpty());
+    }
+
+    @Test
+    void testAddHabit_ConcurrentSameName() throws Exception {
+        AtomicInteger added = new AtomicInteger();
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                if (habitRepository.addHabit(testUser, new Habit("Habit " + i, "Thread " + threadIndex, Habit.Frequency.DAILY, testUser))) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(OPERATIONS, added.get());
+        assertEquals(OPERATIONS, habitRepository.getAllHabits(testUser).size());
+    }
+
+    @Test
+    void testAddHabit_ConcurrentFirstHabitOfUser() throws Exception {
+        runConcurrently(threadIndex ->
+                assertTrue(habitRepository.addHabit(testUser, new Habit("Habit " + threadIndex, "Description", Habit.Frequency.DAILY, testUser))));
+
+        assertEquals(THREADS, habitRepository.getAllHabits(testUser).size());
+    }
+
+    @Test
+    void testUpdateHabit_ConcurrentRenamesKeepCount() throws Exception {
+        for (int t = 0; t < THREADS; t++) {
+            habitRepository.addHabit(testUser, new Habit("Habit " + t + "-0", "Description", Habit.Frequency.DAILY, testUser));
+        }
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                Habit current = habitRepository.getHabit(testUser, "Habit " + threadIndex + "-" + i);
+                assertTrue(habitRepository.updateHabit(testUser, current, "Habit " + threadIndex + "-" + (i + 1),
+                        "Description", Habit.Frequency.DAILY));
+            }
+        });
+
+        assertEquals(THREADS, habitRepository.getAllHabits(testUser).size());
+        for (int t = 0; t < THREADS; t++) {
+            assertNotNull(habitRepository.getHabit(testUser, "Habit " + t + "-" + OPERATIONS));
+        }
+    }
+
+    /**
+     * Запускает задачу одновременно в {@link #THREADS} потоках и пробрасывает первую ошибку.
+     */
+    private static void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int threadIndex = t;
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    task.accept(threadIndex);
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentUserRepositoryTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2_000;
+
+    private ConcurrentUserRepository userRepository;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new ConcurrentUserRepository();
+        testUser = new User("Test User", "test@example.com", "password", User.Role.USER);
+    }
+
+    @Test
+    void testAddUser_DuplicateEmail() {
+        assertTrue(userRepository.addUser(testUser));
+
+        assertFalse(userRepository.addUser(new User("Other", "test@example.com", "password", User.Role.USER)));
+        assertSame(testUser, userRepository.getUser("test@example.com"));
+    }
+
+    @Test
+    void testUpdateUser_ChangesEmail() {
+        userRepository.addUser(testUser);
+
+        assertTrue(userRepository.updateUser(testUser, "New Name", "new@example.com"));
+
+        assertNull(userRepository.getUser("test@example.com"));
+        assertEquals("New Name", userRepository.getUser("new@example.com").getName());
+    }
+
+    @Test
+    void testUpdateUser_EmailTaken() {
+        userRepository.addUser(testUser);
+        userRepository.addUser(new User("Other", "other@example.com", "password", User.Role.USER));
+
+        assertFalse(userRepository.updateUser(testUser, "New Name", "other@example.com"));
+
+        assertSame(testUser, userRepository.getUser("test@example.com"));
+        assertEquals("Test User", testUser.getName());
+    }
+
+    @Test
+    void testDeleteUser_NonExistentUser() {
+        assertFalse(userRepository.deleteUser(testUser));
+    }
+
+    @Test
+    void testUpdateUserPassword_NonExistentUser() {
+        assertNull(userRepository.updateUserPassword(testUser, "newPassword"));
+    }
+
+    @Test
+    void testAddUser_ConcurrentSameEmail() throws Exception {
+        AtomicInteger added = new AtomicInteger();
+
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                if (userRepository.addUser(new User("User " + threadIndex, "user" + i + "@example.com", "password", User.Role.USER))) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(OPERATIONS, added.get());
+        assertEquals(OPERATIONS, userRepository.getAllUsers().size());
+    }
+
+    @Test
+    void testUpdateUser_ConcurrentRenameToSameEmail() throws Exception {
+        User[] users = new User[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            users[i] = new User("User " + i, "user" + i + "@example.com", "password", User.Role.USER);
+            userRepository.addUser(users[i]);
+        }
+        AtomicInteger renamed = new AtomicInteger();
+
+        runConcurrently(threadIndex -> {
+            if (userRepository.updateUser(users[threadIndex], "Winner", "taken@example.com")) {
+                renamed.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, renamed.get());
+        assertEquals(THREADS, userRepository.getAllUsers().size());
+        assertEquals("taken@example.com", userRepository.getUser("taken@example.com").getEmail());
+    }
+
+    @Test
+    void testAddAndDeleteUser_ConcurrentNoLostUpdates() throws Exception {
+        runConcurrently(threadIndex -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                User user = new User("User", "t" + threadIndex + "-" + i + "@example.com", "password", User.Role.USER);
+                assertTrue(userRepository.addUser(user));
+                if (i % 2 == 0) {
+                    assertTrue(userRepository.deleteUser(user));
+                }
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS / 2, userRepository.getAllUsers().size());
+    }
+
+    /**
+     * Запускает задачу одновременно в {@link #THREADS} потоках и пробрасывает первую ошибку.
+     */
+    private static void runConcurrently(IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int threadIndex = t;
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    task.accept(threadIndex);
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -191,4 +191,80 @@ public class HabitCompletionRepositoryImplTest {
         assertTrue(completions.isEmpty());
     }
 
+    @Test
+    void testGetHabitStreak() {
+        testHabit.setCreateDate(LocalDate.now().minusDays(4));
+        // Серийные номера 1, 2, 4, 5: текущая серия на пятый день равна двум
+        for (int days : new int[]{4, 3, 1, 0}) {
+            habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now().minusDays(days), testHabit));
+        }
+
+        assertEquals(2, habitCompletionRepository.getHabitStreak(testHabit, 5));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(testHabit, 6));
+        assertEquals(2, habitCompletionRepository.getHabitStreak(testHabit, 2));
+    }
+
+    @Test
+    void testCountHabitCompletionsByDate() {
+        testHabit.setCreateDate(LocalDate.now().minusDays(40));
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now().minusDays(40), testHabit));
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now().minusDays(3), testHabit));
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now(), testHabit));
+
+        assertEquals(2, habitCompletionRepository.countHabitCompletionsByDate(testHabit, LocalDate.now().minusWeeks(1)));
+        assertEquals(1, habitCompletionRepository.countHabitCompletionsByDate(testHabit, LocalDate.now()));
+    }
+
+    @Test
+    void testAddHabitCompletion_GrowsSeriesBothWays() {
+        Habit habit = new Habit("Long Habit", "Description", Habit.Frequency.DAILY, testHabit.getUser(), LocalDate.now().minusDays(999));
+        habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().plusDays(999), habit));
+        habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate(), habit));
+        habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().minusDays(40), habit));
+
+        List<HabitCompletion> completions = habitCompletionRepository.getAllHabitCompletion(habit);
+
+        assertEquals(3, completions.size());
+        assertEquals(-39, completions.get(0).getSerialNumber());
+        assertEquals(1, completions.get(1).getSerialNumber());
+        assertEquals(1000, completions.get(2).getSerialNumber());
+        assertNotNull(habitCompletionRepository.getHabitCompletion(habit, 1000));
+        assertNotNull(habitCompletionRepository.getHabitCompletion(habit, -39));
+        assertNull(habitCompletionRepository.getHabitCompletion(habit, 1001));
+        assertEquals(2, habitCompletionRepository.countHabitCompletionsByDate(habit, habit.getCreateDate()));
+    }
+
+    @Test
+    void testAddHabitCompletion_RejectsFarOffSerialNumber() {
+        Habit habit = new Habit("Long Habit", "Description", Habit.Frequency.DAILY, testHabit.getUser(), LocalDate.now());
+        habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate(), habit));
+
+        assertFalse(habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().plusYears(500), habit)));
+        assertFalse(habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().minusYears(500), habit)));
+        assertTrue(habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().plusYears(100), habit)));
+        assertTrue(habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().minusYears(50), habit)));
+        assertFalse(habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(habit.getCreateDate().minusYears(100), habit)));
+
+        assertEquals(3, habitCompletionRepository.getAllHabitCompletion(habit).size());
+    }
+
+    @Test
+    void testDeleteAllHabitCompletion_RemovesCompletions() {
+        habitCompletionRepository.addHabitCompletion(testHabit, testCompletion);
+
+        assertTrue(habitCompletionRepository.deleteAllHabitCompletion(testHabit));
+
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(testHabit).isEmpty());
+        assertTrue(habitCompletionRepository.addHabitCompletion(testHabit, testCompletion));
+    }
+
+    @Test
+    void testDeleteHabitCompletion_ThenAddAgain() {
+        habitCompletionRepository.addHabitCompletion(testHabit, testCompletion);
+
+        assertTrue(habitCompletionRepository.deleteHabitCompletion(testHabit, testCompletion.getSerialNumber()));
+        assertFalse(habitCompletionRepository.deleteHabitCompletion(testHabit, testCompletion.getSerialNumber()));
+        assertEquals(0, habitCompletionRepository.countHabitCompletionsByDate(testHabit, testHabit.getCreateDate()));
+        assertTrue(habitCompletionRepository.addHabitCompletion(testHabit, testCompletion));
+    }
 }
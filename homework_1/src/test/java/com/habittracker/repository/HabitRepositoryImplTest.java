@@ -1,11 +1,13 @@
 package com.habittracker.repository;
 
 import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
 import com.habittracker.model.User;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -140,6 +142,45 @@ public class HabitRepositoryImplTest {
         assertNotNull(updatedHabit);
     }
 
+    @Test
+    void testAddHabit_AssignsId() {
+        Habit first = new Habit("First Habit", "Description", Habit.Frequency.DAILY, testUser);
+        Habit second = new Habit("Second Habit", "Description", Habit.Frequency.DAILY, testUser);
+
+        habitRepository.addHabit(testUser, first);
+        habitRepository.addHabit(testUser, second);
+
+        assertNotEquals(0, first.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertNotEquals(first, second);
+        assertEquals(first.getId(), first.getHabitId().value());
+    }
+
+    @Test
+    void testUpdateHabit_KeepsIdentity() {
+        Habit habit = new Habit("Habit to Change", "Description", Habit.Frequency.DAILY, testUser);
+        habitRepository.addHabit(testUser, habit);
+        HabitCompletionRepositoryImpl habitCompletionRepository = new HabitCompletionRepositoryImpl();
+        habitCompletionRepository.addHabitCompletion(habit, new HabitCompletion(LocalDate.now(), habit));
+
+        habitRepository.updateHabit(testUser, habit, "New Habit Name", "New Description", Habit.Frequency.DAILY);
+        Habit updatedHabit = habitRepository.getHabit(testUser, "New Habit Name");
+
+        assertNotSame(habit, updatedHabit);
+        assertEquals(habit, updatedHabit);
+        assertEquals(habit.hashCode(), updatedHabit.hashCode());
+        assertEquals(1, habitCompletionRepository.getAllHabitCompletion(updatedHabit).size());
+    }
+
+    @Test
+    void testEquals_UnsavedHabitsComparedByReference() {
+        Habit habit = new Habit("Habit", "Description", Habit.Frequency.DAILY, testUser);
+        Habit sameFields = new Habit("Habit", "Description", Habit.Frequency.DAILY, testUser);
+
+        assertEquals(habit, habit);
+        assertNotEquals(habit, sameFields);
+    }
+
     @Test
     void testDeleteHabit_Success() {
         Habit habit = new Habit("Habit to Delete", "Description", Habit.Frequency.DAILY, testUser);
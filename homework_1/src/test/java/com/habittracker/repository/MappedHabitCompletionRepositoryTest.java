@@ -0,0 +1,246 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedHabitCompletionRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path path;
+    private MappedHabitCompletionRepository habitCompletionRepository;
+    private Habit dailyHabit;
+    private Habit weeklyHabit;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = tempDir.resolve("completions.bin");
+        habitCompletionRepository = new MappedHabitCompletionRepository(path, FsyncPolicy.ALWAYS, 0);
+        User user = new User("Test User", "test@example.com", "password", User.Role.USER);
+        HabitRepository habitRepository = new HabitRepositoryImpl();
+        dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, user, LocalDate.now().minusDays(9));
+        weeklyHabit = new Habit("Weekly Habit", "Description", Habit.Frequency.WEEKLY, user, LocalDate.now().minusWeeks(4));
+        habitRepository.addHabit(user, dailyHabit);
+        habitRepository.addHabit(user, weeklyHabit);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        habitCompletionRepository.close();
+    }
+
+    private void reopen() throws IOException {
+        habitCompletionRepository.close();
+        habitCompletionRepository = new MappedHabitCompletionRepository(path, FsyncPolicy.ALWAYS, 0);
+    }
+
+    @Test
+    void testAddAndGetHabitCompletion() {
+        HabitCompletion completion = new HabitCompletion(LocalDate.now().minusDays(2), dailyHabit);
+
+        assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, completion));
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, completion));
+
+        HabitCompletion retrievedCompletion = habitCompletionRepository.getHabitCompletion(dailyHabit, 8);
+        assertNotNull(retrievedCompletion);
+        assertEquals(8, retrievedCompletion.getSerialNumber());
+        assertEquals(completion.getMarkDate(), retrievedCompletion.getMarkDate());
+        assertNull(habitCompletionRepository.getHabitCompletion(dailyHabit, 7));
+        assertNull(habitCompletionRepository.getHabitCompletion(weeklyHabit, 8));
+    }
+
+    @Test
+    void testAddHabitCompletion_UnsavedHabit() {
+        Habit unsaved = new Habit("Unsaved", "Description", Habit.Frequency.DAILY, dailyHabit.getUser());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> habitCompletionRepository.addHabitCompletion(unsaved, new HabitCompletion(LocalDate.now(), unsaved)));
+    }
+
+    @Test
+    void testReopen_KeepsCompletions() throws IOException {
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now().minusDays(1), dailyHabit));
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now(), dailyHabit));
+        habitCompletionRepository.addHabitCompletion(weeklyHabit, new HabitCompletion(LocalDate.now(), weeklyHabit));
+        habitCompletionRepository.updateHabitCompletion(dailyHabit, 9, new HabitCompletion(LocalDate.now().minusDays(3), dailyHabit));
+        habitCompletionRepository.deleteHabitCompletion(weeklyHabit, 5);
+
+        reopen();
+
+        List<HabitCompletion> completions = habitCompletionRepository.getAllHabitCompletion(dailyHabit);
+        assertEquals(List.of(7, 10), completions.stream().map(HabitCompletion::getSerialNumber).toList());
+        assertEquals(LocalDate.now().minusDays(3), completions.get(0).getMarkDate());
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(weeklyHabit).isEmpty());
+        assertEquals(2, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, dailyHabit.getCreateDate()));
+    }
+
+    @Test
+    void testGrowth_KeepsCompletionsAcrossRegions() throws IOException {
+        LocalDate createDate = dailyHabit.getCreateDate();
+        for (int day = -40; day < 1000; day += 3) {
+            assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate.plusDays(day), dailyHabit)));
+        }
+        habitCompletionRepository.addHabitCompletion(weeklyHabit, new HabitCompletion(LocalDate.now(), weeklyHabit));
+
+        reopen();
+
+        List<HabitCompletion> completions = habitCompletionRepository.getAllHabitCompletion(dailyHabit);
+        assertEquals(347, completions.size());
+        assertEquals(-39, completions.get(0).getSerialNumber());
+        assertEquals(createDate.plusDays(998), completions.get(completions.size() - 1).getMarkDate());
+        assertEquals(1, habitCompletionRepository.getAllHabitCompletion(weeklyHabit).size());
+    }
+
+    @Test
+    void testReopen_AfterGrowthUnderIntervalPolicy() throws IOException {
+        habitCompletionRepository.close();
+        habitCompletionRepository = new MappedHabitCompletionRepository(path, FsyncPolicy.INTERVAL, 60_000);
+        LocalDate createDate = dailyHabit.getCreateDate();
+        for (int day = 0; day < 100; day++) {
+            assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate.plusDays(day), dailyHabit)));
+        }
+
+        habitCompletionRepository.close();
+        habitCompletionRepository = new MappedHabitCompletionRepository(path, FsyncPolicy.INTERVAL, 60_000);
+
+        List<HabitCompletion> completions = habitCompletionRepository.getAllHabitCompletion(dailyHabit);
+        assertEquals(100, completions.size());
+        assertEquals(1, completions.get(0).getSerialNumber());
+        assertEquals(createDate.plusDays(99), completions.get(99).getMarkDate());
+        assertEquals(100, habitCompletionRepository.getHabitStreak(dailyHabit, 100));
+    }
+
+    @Test
+    void testAddHabitCompletion_RejectsFarOffSerialNumber() throws IOException {
+        LocalDate createDate = dailyHabit.getCreateDate();
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate, dailyHabit));
+        long sizeBefore = Files.size(path);
+
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.of(9999, 12, 31), dailyHabit)));
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate.minusYears(500), dailyHabit)));
+        assertEquals(sizeBefore, Files.size(path));
+        assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate.plusYears(100), dailyHabit)));
+        assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate.minusYears(50), dailyHabit)));
+        assertFalse(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(createDate.minusYears(100), dailyHabit)));
+
+        assertEquals(3, habitCompletionRepository.getAllHabitCompletion(dailyHabit).size());
+        assertEquals(0, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.MAX));
+        assertEquals(3, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.MIN));
+        reopen();
+        assertEquals(3, habitCompletionRepository.getAllHabitCompletion(dailyHabit).size());
+    }
+
+    @Test
+    void testReopen_WithWalStoreKeepsRegionsOfHabits() throws IOException {
+        Path storePath = tempDir.resolve("store");
+        try (WalStore store = new WalStore(storePath, FsyncPolicy.NEVER, 0)) {
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(user);
+            Habit run = new Habit("Run", "Morning run", Habit.Frequency.DAILY, user, LocalDate.now().minusDays(1));
+            Habit read = new Habit("Read", "Read a book", Habit.Frequency.DAILY, user, LocalDate.now().minusDays(1));
+            store.getHabitRepository().addHabit(user, run);
+            store.getHabitRepository().addHabit(user, read);
+            habitCompletionRepository.addHabitCompletion(run, new HabitCompletion(LocalDate.now(), run));
+            habitCompletionRepository.addHabitCompletion(read, new HabitCompletion(LocalDate.now(), read));
+            store.getHabitRepository().deleteHabit(user, "Read");
+            store.snapshot();
+        }
+        reopen();
+
+        try (WalStore store = new WalStore(storePath, FsyncPolicy.NEVER, 0)) {
+            User user = store.getUserRepository().getUser("alice@example.com");
+            Habit run = store.getHabitRepository().getHabit(user, "Run");
+            Habit swim = new Habit("Swim", "Swim in the pool", Habit.Frequency.DAILY, user);
+            store.getHabitRepository().addHabit(user, swim);
+
+            assertEquals(1, habitCompletionRepository.getAllHabitCompletion(run).size());
+            assertTrue(habitCompletionRepository.getAllHabitCompletion(swim).isEmpty());
+        }
+    }
+
+    @Test
+    void testDeleteAllHabitCompletion() throws IOException {
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now(), dailyHabit));
+
+        assertTrue(habitCompletionRepository.deleteAllHabitCompletion(dailyHabit));
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(dailyHabit).isEmpty());
+        reopen();
+        assertTrue(habitCompletionRepository.getAllHabitCompletion(dailyHabit).isEmpty());
+
+        assertTrue(habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(LocalDate.now(), dailyHabit)));
+        reopen();
+        assertEquals(1, habitCompletionRepository.getAllHabitCompletion(dailyHabit).size());
+    }
+
+    @Test
+    void testGetAllHabitCompletionByDateAndCount() {
+        for (int day = 0; day < 10; day++) {
+            habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(dailyHabit.getCreateDate().plusDays(day), dailyHabit));
+        }
+        habitCompletionRepository.deleteHabitCompletion(dailyHabit, 8);
+
+        List<HabitCompletion> completions = habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, LocalDate.now().minusDays(3));
+        assertEquals(List.of(7, 9, 10), completions.stream().map(HabitCompletion::getSerialNumber).toList());
+        assertEquals(3, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.now().minusDays(3)));
+        assertEquals(9, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, dailyHabit.getCreateDate()));
+        assertEquals(0, habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, LocalDate.now().plusDays(30)));
+    }
+
+    @Test
+    void testGetHabitStreak() {
+        for (int day = 0; day < 10; day++) {
+            habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(dailyHabit.getCreateDate().plusDays(day), dailyHabit));
+        }
+        habitCompletionRepository.deleteHabitCompletion(dailyHabit, 5);
+
+        assertEquals(5, habitCompletionRepository.getHabitStreak(dailyHabit, 10));
+        assertEquals(4, habitCompletionRepository.getHabitStreak(dailyHabit, 4));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(dailyHabit, 5));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(dailyHabit, 100));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(weeklyHabit, 1));
+    }
+
+    @Test
+    void testTornRecord_IsTreatedAsEmpty() throws IOException {
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(dailyHabit.getCreateDate(), dailyHabit));
+        habitCompletionRepository.addHabitCompletion(dailyHabit, new HabitCompletion(dailyHabit.getCreateDate().plusDays(1), dailyHabit));
+        habitCompletionRepository.close();
+
+        int secondSlot = 2 * MappedHabitCompletionRepository.RECORD_SIZE + MappedHabitCompletionRepository.RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 12345), secondSlot + 4);
+        }
+        habitCompletionRepository = new MappedHabitCompletionRepository(path, FsyncPolicy.ALWAYS, 0);
+
+        assertNotNull(habitCompletionRepository.getHabitCompletion(dailyHabit, 1));
+        assertNull(habitCompletionRepository.getHabitCompletion(dailyHabit, 2));
+        assertEquals(1, habitCompletionRepository.getAllHabitCompletion(dailyHabit).size());
+    }
+
+    @Test
+    void testOpen_RejectsForeignFile() throws IOException {
+        Path foreign = tempDir.resolve("foreign.bin");
+        Files.write(foreign, new byte[64]);
+
+        assertThrows(IOException.class, () -> new MappedHabitCompletionRepository(foreign, FsyncPolicy.NEVER, 0));
+    }
+}
@@ -1,6 +1,7 @@
 package com.habittracker.repository;
 
 import com.habittracker.model.User;
+import com.habittracker.model.UserId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -51,6 +52,26 @@ public class UserRepositoryImplTest {
         assertEquals(testUser, userRepository.getUser(testUser.getEmail()));
     }
 
+    @Test
+    void testAddUser_AssignsId() {
+        User testUser2 = new User("Test User2", "test2@example.com", "password", User.Role.USER);
+
+        userRepository.addUser(testUser2);
+
+        assertNotEquals(0, testUser2.getId());
+        assertNotEquals(testUser.getId(), testUser2.getId());
+        assertEquals(new UserId(testUser2.getId()), testUser2.getUserId());
+    }
+
+    @Test
+    void testEquals_SameIdDifferentObjects() {
+        User copy = new User("Copy", "copy@example.com", "password", User.Role.USER);
+        copy.setId(testUser.getId());
+
+        assertEquals(testUser, copy);
+        assertEquals(testUser.hashCode(), copy.hashCode());
+    }
+
     @Test
     void testAddUser_UserAlreadyExists() {
         userRepository.addUser(testUser);
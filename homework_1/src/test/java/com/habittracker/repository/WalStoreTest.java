@@ -0,0 +1,320 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.wal.FsyncPolicy;
+import com.habittracker.infrastructure.wal.WriteAheadLog;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReopen_RestoresUsers() throws IOException {
+        Path path = tempDir.resolve("store");
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            UserRepository users = store.getUserRepository();
+            User alice = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            User bob = new User("Bob", "bob@example.com", "password", User.Role.USER);
+            users.addUser(alice);
+            users.addUser(bob);
+            users.addUser(new User("Admin", "admin", "admin", User.Role.ADMIN));
+            users.updateUser(alice, "Alice Smith", "alice.smith@example.com");
+            users.updateUserPassword(alice, "newPassword");
+            users.blockUser(bob, true);
+            users.deleteUser(bob);
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            UserRepository users = store.getUserRepository();
+            User alice = users.getUser("alice.smith@example.com");
+
+            assertNotNull(alice);
+            assertEquals("Alice Smith", alice.getName());
+            assertEquals("newPassword", alice.getPassword());
+            assertEquals(1, alice.getId());
+            assertNull(users.getUser("alice@example.com"));
+            assertNull(users.getUser("bob@example.com"));
+            assertEquals(User.Role.ADMIN, users.getUser("admin").getRole());
+        }
+    }
+
+    @Test
+    void testReopen_RestoresHabitsAndCompletions() throws IOException {
+        Path path = tempDir.resolve("store");
+        LocalDate createDate = LocalDate.now().minusDays(10);
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(user);
+            HabitRepository habits = store.getHabitRepository();
+            HabitCompletionRepository completions = store.getHabitCompletionRepository();
+
+            Habit run = new Habit("Run", "Morning run", Habit.Frequency.DAILY, user, createDate);
+            Habit read = new Habit("Read", "Read a book", Habit.Frequency.WEEKLY, user, createDate);
+            habits.addHabit(user, run);
+            habits.addHabit(user, read);
+            for (int day = 0; day < 5; day++) {
+                completions.addHabitCompletion(run, new HabitCompletion(createDate.plusDays(day), run));
+            }
+            completions.deleteHabitCompletion(run, 3);
+            completions.addHabitCompletion(read, new HabitCompletion(createDate, read));
+            completions.deleteAllHabitCompletion(read);
+            habits.updateHabit(user, run, "Jog", "Evening jog", Habit.Frequency.DAILY);
+            habits.deleteHabit(user, "Read");
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            User user = store.getUserRepository().getUser("alice@example.com");
+            List<Habit> habits = store.getHabitRepository().getAllHabits(user);
+
+            assertEquals(1, habits.size());
+            Habit jog = habits.get(0);
+            assertEquals("Jog", jog.getName());
+            assertEquals("Evening jog", jog.getDescription());
+            assertEquals(createDate, jog.getCreateDate());
+
+            List<HabitCompletion> completions = store.getHabitCompletionRepository().getAllHabitCompletion(jog);
+            assertEquals(List.of(1, 2, 4, 5), completions.stream().map(HabitCompletion::getSerialNumber).toList());
+            assertEquals(createDate.plusDays(4), completions.get(3).getMarkDate());
+        }
+    }
+
+    @Test
+    void testFailedOperationsAreNotLogged() throws IOException {
+        Path path = tempDir.resolve("store");
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            UserRepository users = store.getUserRepository();
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            assertTrue(users.addUser(user));
+            assertFalse(users.addUser(new User("Other", "alice@example.com", "password", User.Role.USER)));
+            assertFalse(store.getHabitRepository().deleteHabit(user, "Missing"));
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            assertEquals(1, store.getReplayedRecords());
+            assertEquals("Alice", store.getUserRepository().getUser("alice@example.com").getName());
+        }
+    }
+
+    @Test
+    void testLogFailure_RejectsLaterOperations() throws IOException {
+        Path path = tempDir.resolve("store");
+        WalStore failed = new WalStore(path, FsyncPolicy.ALWAYS, 0);
+        UserRepository users = failed.getUserRepository();
+        assertTrue(users.addUser(new User("Alice", "alice@example.com", "password", User.Role.USER)));
+        failed.close();
+
+        assertThrows(UncheckedIOException.class,
+                () -> users.addUser(new User("Bob", "bob@example.com", "password", User.Role.USER)));
+        assertThrows(IllegalStateException.class, () -> users.getUser("bob@example.com"));
+        assertThrows(IllegalStateException.class, () -> users.getUser("alice@example.com"));
+        assertThrows(IllegalStateException.class,
+                () -> users.addUser(new User("Carol", "carol@example.com", "password", User.Role.USER)));
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            assertNotNull(store.getUserRepository().getUser("alice@example.com"));
+            assertNull(store.getUserRepository().getUser("bob@example.com"));
+            assertNull(store.getUserRepository().getUser("carol@example.com"));
+        }
+    }
+
+    @Test
+    void testSnapshot_RestartReplaysOnlyTail() throws IOException {
+        Path path = tempDir.resolve("store");
+        LocalDate createDate = LocalDate.now().minusDays(10);
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(user);
+            store.getUserRepository().addUser(new User("Admin", "admin", "admin", User.Role.ADMIN));
+            Habit run = new Habit("Run", "Morning run", Habit.Frequency.DAILY, user, createDate);
+            store.getHabitRepository().addHabit(user, run);
+            for (int day = 0; day < 5; day++) {
+                store.getHabitCompletionRepository().addHabitCompletion(run, new HabitCompletion(createDate.plusDays(day), run));
+            }
+
+            assertTrue(store.snapshot());
+            assertFalse(store.snapshot());
+            store.getHabitCompletionRepository().deleteHabitCompletion(run, 2);
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            assertEquals(2, store.getSnapshotGeneration());
+            assertEquals(1, store.getReplayedRecords());
+            assertFalse(Files.exists(path.resolve("wal-1.log")));
+
+            User user = store.getUserRepository().getUser("alice@example.com");
+            assertEquals(User.Role.ADMIN, store.getUserRepository().getUser("admin").getRole());
+            Habit run = store.getHabitRepository().getHabit(user, "Run");
+            assertEquals(createDate, run.getCreateDate());
+            List<HabitCompletion> completions = store.getHabitCompletionRepository().getAllHabitCompletion(run);
+            assertEquals(List.of(1, 3, 4, 5), completions.stream().map(HabitCompletion::getSerialNumber).toList());
+            assertEquals(createDate.plusDays(4), completions.get(3).getMarkDate());
+        }
+    }
+
+    @Test
+    void testSnapshot_PreservesIdsAndReplacedCompletions() throws IOException {
+        Path path = tempDir.resolve("store");
+        LocalDate createDate = LocalDate.now().minusDays(10);
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            UserRepository users = store.getUserRepository();
+            User deleted = new User("Bob", "bob@example.com", "password", User.Role.USER);
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            users.addUser(deleted);
+            users.addUser(user);
+            users.blockUser(user, true);
+            users.deleteUser(deleted);
+            Habit run = new Habit("Run", "Morning run", Habit.Frequency.WEEKLY, user, createDate);
+            store.getHabitRepository().addHabit(user, run);
+            HabitCompletion moved = new HabitCompletion(createDate.plusDays(7), run);
+            store.getHabitCompletionRepository().addHabitCompletion(run, new HabitCompletion(createDate, run));
+            store.getHabitCompletionRepository().updateHabitCompletion(run, 1, moved);
+            store.snapshot();
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            assertEquals(0, store.getReplayedRecords());
+            User user = store.getUserRepository().getUser("alice@example.com");
+            assertEquals(2, user.getId());
+            assertTrue(user.isBlocked());
+            Habit run = store.getHabitRepository().getHabit(user, "Run");
+            assertEquals(1, run.getId());
+            HabitCompletion completion = store.getHabitCompletionRepository().getHabitCompletion(run, 1);
+            assertEquals(2, completion.getSerialNumber());
+            assertEquals(createDate.plusDays(7), completion.getMarkDate());
+
+            User carol = new User("Carol", "carol@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(carol);
+            assertEquals(3, carol.getId());
+        }
+    }
+
+    @Test
+    void testReopen_ReadsAddRecordsWithoutIds() throws IOException {
+        Path path = tempDir.resolve("store");
+        Files.createDirectories(path);
+        try (WriteAheadLog log = new WriteAheadLog(path.resolve("wal-1.log"), FsyncPolicy.ALWAYS, 0)) {
+            log.replay((type, data) -> {
+            });
+            log.append(WalStore.ADD_USER_WITHOUT_ID, WalStore.encode(out -> {
+                out.writeUTF("Alice");
+                out.writeUTF("alice@example.com");
+                out.writeUTF("password");
+                out.writeByte(User.Role.USER.ordinal());
+            }));
+            long seq = log.append(WalStore.ADD_HABIT_WITHOUT_ID, WalStore.encode(out -> {
+                out.writeUTF("alice@example.com");
+                out.writeUTF("Run");
+                out.writeUTF("Morning run");
+                out.writeByte(Habit.Frequency.DAILY.ordinal());
+                out.writeLong(LocalDate.now().toEpochDay());
+            }));
+            log.sync(seq);
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            User alice = store.getUserRepository().getUser("alice@example.com");
+            assertNotNull(alice);
+            assertEquals("Alice", alice.getName());
+            assertEquals(1, alice.getId());
+            Habit run = store.getHabitRepository().getHabit(alice, "Run");
+            assertNotNull(run);
+            assertEquals("Morning run", run.getDescription());
+            assertEquals(1, run.getId());
+
+            User bob = new User("Bob", "bob@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(bob);
+            assertEquals(2, bob.getId());
+        }
+        try (WalStore store = new WalStore(path, FsyncPolicy.ALWAYS, 0)) {
+            assertEquals(2, store.getUserRepository().getUser("bob@example.com").getId());
+        }
+    }
+
+    @Test
+    void testReopen_DoesNotReuseIdsOfDeletedHabits() throws IOException {
+        Path path = tempDir.resolve("store");
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(user);
+            HabitRepository habits = store.getHabitRepository();
+            habits.addHabit(user, new Habit("Run", "Morning run", Habit.Frequency.DAILY, user));
+            habits.addHabit(user, new Habit("Read", "Read a book", Habit.Frequency.DAILY, user));
+            habits.deleteHabit(user, "Read");
+            store.snapshot();
+            Habit swim = new Habit("Swim", "Swim in the pool", Habit.Frequency.DAILY, user);
+            habits.addHabit(user, swim);
+            assertEquals(3, swim.getId());
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            User user = store.getUserRepository().getUser("alice@example.com");
+            HabitRepository habits = store.getHabitRepository();
+            assertEquals(1, habits.getHabit(user, "Run").getId());
+            assertEquals(3, habits.getHabit(user, "Swim").getId());
+
+            Habit walk = new Habit("Walk", "Evening walk", Habit.Frequency.DAILY, user);
+            habits.addHabit(user, walk);
+            assertEquals(4, walk.getId());
+        }
+    }
+
+    @Test
+    void testSnapshot_WritersContinueDuringSnapshot() throws Exception {
+        Path path = tempDir.resolve("store");
+        LocalDate createDate = LocalDate.now().minusDays(1000);
+        int days = 1000;
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            User user = new User("Alice", "alice@example.com", "password", User.Role.USER);
+            store.getUserRepository().addUser(user);
+            Habit run = new Habit("Run", "Morning run", Habit.Frequency.DAILY, user, createDate);
+            store.getHabitRepository().addHabit(user, run);
+
+            Thread writer = new Thread(() -> {
+                for (int day = 0; day < days; day++) {
+                    store.getHabitCompletionRepository().addHabitCompletion(run, new HabitCompletion(createDate.plusDays(day), run));
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                store.snapshot();
+            }
+            writer.join();
+        }
+
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            User user = store.getUserRepository().getUser("alice@example.com");
+            Habit run = store.getHabitRepository().getHabit(user, "Run");
+            assertEquals(days, store.getHabitCompletionRepository().getAllHabitCompletion(run).size());
+        }
+    }
+
+    @Test
+    void testSnapshot_CorruptedFileIsRejected() throws IOException {
+        Path path = tempDir.resolve("store");
+        try (WalStore store = new WalStore(path, FsyncPolicy.NEVER, 0)) {
+            store.getUserRepository().addUser(new User("Alice", "alice@example.com", "password", User.Role.USER));
+            store.snapshot();
+        }
+        Path snapshot = path.resolve("snapshot-2.bin");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[12] ^= 1;
+        Files.write(snapshot, bytes);
+
+        assertThrows(IOException.class, () -> new WalStore(path, FsyncPolicy.NEVER, 0));
+    }
+}
@@ -258,17 +258,12 @@ class HabitServiceTest {
         Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
         dailyHabit.setCreateDate(LocalDate.now().minusDays(4)); // Создана 4 дня назад
 
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now(), dailyHabit), // Завершение сегодня
-                new HabitCompletion(LocalDate.now().minusDays(1), dailyHabit), // Завершение вчера
-                new HabitCompletion(LocalDate.now().minusDays(2), dailyHabit) // Завершение позавчера
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletion(dailyHabit)).thenReturn(completions);
+        when(habitCompletionRepository.getHabitStreak(dailyHabit, 5)).thenReturn(3); // Сегодня пятый день
 
         int streak = habitService.countHabitStreak(dailyHabit);
 
         assertEquals(3, streak);
+        verify(habitCompletionRepository, never()).getAllHabitCompletion(any());
     }
 
 
@@ -277,12 +272,7 @@ class HabitServiceTest {
         Habit weeklyHabit = new Habit("Weekly Habit", "Weekly description", Habit.Frequency.WEEKLY, testUser);
         weeklyHabit.setCreateDate(LocalDate.now().minusWeeks(3)); // Создана 3 недели назад
 
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now().minusWeeks(1), weeklyHabit), // Завершение на прошлой неделе
-                new HabitCompletion(LocalDate.now(), weeklyHabit) // Завершение на этой неделе
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletion(weeklyHabit)).thenReturn(completions);
+        when(habitCompletionRepository.getHabitStreak(weeklyHabit, 4)).thenReturn(2); // Сейчас четвертая неделя
 
         int streak = habitService.countHabitStreak(weeklyHabit);
 
@@ -295,7 +285,7 @@ class HabitServiceTest {
         Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
         dailyHabit.setCreateDate(LocalDate.now().minusDays(4)); // Создана 4 дня назад
 
-        when(habitCompletionRepository.getAllHabitCompletion(dailyHabit)).thenReturn(Collections.emptyList());
+        when(habitCompletionRepository.getHabitStreak(dailyHabit, 5)).thenReturn(0);
 
         int streak = habitService.countHabitStreak(dailyHabit);
 
@@ -306,28 +296,19 @@ class HabitServiceTest {
     public void testCountPercentage_DailyHabit_Success() {
         LocalDate startDate = LocalDate.now().minusDays(9);
         Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser, startDate);
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now().minusDays(2), dailyHabit),
-                new HabitCompletion(LocalDate.now().minusDays(5), dailyHabit)
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, startDate)).thenReturn(completions);
+        when(habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, startDate)).thenReturn(2);
 
         int result = habitService.countPercentage(startDate, dailyHabit);
 
         assertEquals(20, result);
+        verify(habitCompletionRepository, never()).getAllHabitCompletionByDate(any(), any());
     }
 
     @Test
     public void testCountPercentage_WeeklyHabit_Success() {
         LocalDate startDate = LocalDate.now().minusWeeks(4);
         Habit weeklyHabit = new Habit("Weekly Habit", "Description", Habit.Frequency.WEEKLY, testUser, startDate);
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now().minusWeeks(1), weeklyHabit),
-                new HabitCompletion(LocalDate.now().minusWeeks(3), weeklyHabit)
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletionByDate(weeklyHabit, startDate)).thenReturn(completions);
+        when(habitCompletionRepository.countHabitCompletionsByDate(weeklyHabit, startDate)).thenReturn(2);
 
         int result = habitService.countPercentage(startDate, weeklyHabit);
 
@@ -339,7 +320,7 @@ class HabitServiceTest {
         LocalDate startDate = LocalDate.now().minusDays(7);
         Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser);
 
-        when(habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, startDate)).thenReturn(Arrays.asList());
+        when(habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, startDate)).thenReturn(0);
 
         int result = habitService.countPercentage(startDate, dailyHabit);
 
@@ -355,16 +336,4 @@ class HabitServiceTest {
 
         assertEquals(0, result);
     }
-
-    @Test
-    public void testCountPercentage_NullCompletions() {
-        LocalDate startDate = LocalDate.now().minusDays(10);
-        Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser);
-
-        when(habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, startDate)).thenReturn(null);
-
-        int result = habitService.countPercentage(startDate, dailyHabit);
-
-        assertEquals(0, result);
-    }
 }
@@ -0,0 +1,216 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
+import com.habittracker.infrastructure.db.migration.LiquibaseMigration;
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+import com.habittracker.repository.HabitCompletionRepository;
+import com.habittracker.repository.HabitCompletionRepositoryImpl;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.HabitRepositoryImpl;
+import com.habittracker.repository.UserRepository;
+import com.habittracker.repository.UserRepositoryImpl;
+import com.habittracker.service.HabitService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Набор данных для бенчмарков на локально запущенной PostgreSQL из {@code application.properties}:
+ * {@code users} пользователей, у каждого {@code habits} привычек с историей выполнений за {@code days} дней.
+ * Половина привычек ежедневные, половина еженедельные, выполнения пропускаются с вероятностью
+ * {@code 1 - completionRate}.
+ *
+ * <p>Данные заливаются пакетными вставками в обход репозиториев, чтобы подготовка больших наборов
+ * не занимала больше времени, чем сами замеры, после чего статистика привычек пересчитывается
+ * целиком, а недельная сводка выполнений обновляется. Пользователи набора получают email вида
+ * {@code bench-*@bench} и удаляются вместе с привычками и выполнениями после замера.
+ */
+@State(Scope.Benchmark)
+public class HabitDataset {
+
+    private static final String CONFIG_PATH = "src/main/resources/application.properties";
+
+    private static final String EMAIL_PATTERN = "bench-%@bench";
+
+    @Param({"10"})
+    public int users;
+
+    @Param({"10"})
+    public int habits;
+
+    @Param({"30", "365"})
+    public int days;
+
+    @Param({"0.8"})
+    public double completionRate;
+
+    ConnectionPool connectionPool;
+    UserRepository userRepository;
+    HabitRepository habitRepository;
+    HabitCompletionRepository habitCompletionRepository;
+    HabitService habitService;
+
+    /** Все пользователи набора данных, загруженные через репозиторий */
+    final List<User> userList = new ArrayList<>();
+
+    /** Все привычки набора данных, загруженные через репозиторий */
+    final List<Habit> habitList = new ArrayList<>();
+
+    /** Дата, с которой считается процент выполнения */
+    LocalDate percentageStartDate;
+
+    private DatabaseConfig config;
+    private int nextUser;
+    private int nextHabit;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        config = new DatabaseConfig(CONFIG_PATH);
+        try (Connection connection = openConnection()) {
+            new LiquibaseMigration(connection).runMigrations();
+            connection.commit();
+            deleteDataset(connection);
+            insertDataset(connection);
+            connection.commit();
+        }
+
+        connectionPool = new ConnectionPool(config);
+        userRepository = new UserRepositoryImpl(connectionPool);
+        habitRepository = new HabitRepositoryImpl(connectionPool);
+        habitCompletionRepository = new HabitCompletionRepositoryImpl(connectionPool);
+        habitService = new HabitService(habitCompletionRepository, habitRepository);
+        habitCompletionRepository.rebuildHabitStats();
+        habitCompletionRepository.refreshCompletionRollup();
+        analyze();
+        percentageStartDate = LocalDate.now().minusDays(days / 2);
+
+        for (int u = 0; u < users; u++) {
+            User user = userRepository.getUser(email(u));
+            userList.add(user);
+            habitList.addAll(habitRepository.getAllHabits(user));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws SQLException {
+        connectionPool.close();
+        try (Connection connection = openConnection()) {
+            deleteDataset(connection);
+            connection.commit();
+        }
+    }
+
+    /**
+     * Возвращает следующего пользователя по кругу, чтобы замер не сводился к одной записи.
+     */
+    User nextUser() {
+        User user = userList.get(nextUser);
+        nextUser = (nextUser + 1) % userList.size();
+        return user;
+    }
+
+    /**
+     * Возвращает следующую привычку по кругу.
+     */
+    Habit nextHabit() {
+        Habit habit = habitList.get(nextHabit);
+        nextHabit = (nextHabit + 1) % habitList.size();
+        return habit;
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword());
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private static String email(int user) {
+        return "bench-" + user + "@bench";
+    }
+
+    private void insertDataset(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        LocalDate createDate = LocalDate.now().minusDays(days - 1);
+
+        try (PreparedStatement insertUser = connection.prepareStatement(
+                "INSERT INTO app_schema.user (name, email, password, role, is_blocked) VALUES (?, ?, 'password', 'USER', false) RETURNING id");
+             PreparedStatement insertHabit = connection.prepareStatement(
+                     "INSERT INTO app_schema.habit (name, description, frequency, create_date, user_id) VALUES (?, 'Benchmark habit', ?, ?, ?) RETURNING id");
+             PreparedStatement insertCompletion = connection.prepareStatement(
+                     "INSERT INTO app_schema.habit_completion (mark_date, serial_number, habit_id) VALUES (?, ?, ?)")) {
+
+            for (int u = 0; u < users; u++) {
+                insertUser.setString(1, "User " + u);
+                insertUser.setString(2, email(u));
+                int userId = returnedId(insertUser);
+
+                for (int h = 0; h < habits; h++) {
+                    Habit.Frequency frequency = h % 2 == 0 ? Habit.Frequency.DAILY : Habit.Frequency.WEEKLY;
+                    insertHabit.setString(1, "Habit " + h);
+                    insertHabit.setString(2, frequency.name());
+                    insertHabit.setDate(3, Date.valueOf(createDate));
+                    insertHabit.setInt(4, userId);
+                    int habitId = returnedId(insertHabit);
+
+                    ChronoUnit unit = frequency == Habit.Frequency.DAILY ? ChronoUnit.DAYS : ChronoUnit.WEEKS;
+                    for (LocalDate date = createDate; !date.isAfter(LocalDate.now()); date = date.plus(1, unit)) {
+                        if (random.nextDouble() < completionRate) {
+                            insertCompletion.setDate(1, Date.valueOf(date));
+                            insertCompletion.setInt(2, (int) unit.between(createDate, date) + 1);
+                            insertCompletion.setInt(3, habitId);
+                            insertCompletion.addBatch();
+                        }
+                    }
+                }
+                insertCompletion.executeBatch();
+            }
+        }
+    }
+
+    private static int returnedId(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * Собирает статистику планировщика по только что залитым таблицам, чтобы планы запросов
+     * не зависели от того, успел ли автоочиститель обработать их до начала замеров.
+     */
+    private void analyze() throws SQLException {
+        try (Connection connection = openConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+            connection.commit();
+        }
+    }
+
+    private void deleteDataset(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM app_schema.habit_completion WHERE habit_id IN (SELECT h.id FROM app_schema.habit h "
+                    + "JOIN app_schema.user u ON u.id = h.user_id WHERE u.email LIKE '" + EMAIL_PATTERN + "')");
+            statement.executeUpdate("DELETE FROM app_schema.habit WHERE user_id IN (SELECT id FROM app_schema.user WHERE email LIKE '"
+                    + EMAIL_PATTERN + "')");
+            statement.executeUpdate("DELETE FROM app_schema.user WHERE email LIKE '" + EMAIL_PATTERN + "'");
+        }
+    }
+}
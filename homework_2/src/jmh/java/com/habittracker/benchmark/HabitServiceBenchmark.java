@@ -0,0 +1,46 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.model.CompletionCounts;
+import com.habittracker.model.Habit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры расчетов статистики в {@link com.habittracker.service.HabitService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HabitServiceBenchmark {
+
+    @Benchmark
+    public int countHabitStreak(HabitDataset dataset) {
+        return dataset.habitService.countHabitStreak(dataset.nextHabit());
+    }
+
+    @Benchmark
+    public int countPercentage(HabitDataset dataset) {
+        return dataset.habitService.countPercentage(dataset.percentageStartDate, dataset.nextHabit());
+    }
+
+    @Benchmark
+    public Map<Integer, CompletionCounts> countHabitCompletions(HabitDataset dataset) {
+        return dataset.habitService.countHabitCompletions(dataset.nextUser());
+    }
+
+    @Benchmark
+    public List<Habit> getAvailableHabits(HabitDataset dataset) {
+        return dataset.habitService.getAvailableHabits(dataset.habitRepository.getAllHabits(dataset.nextUser()));
+    }
+}
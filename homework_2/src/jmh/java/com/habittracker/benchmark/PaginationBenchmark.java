@@ -0,0 +1,66 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение чтения всех пользователей и привычек одним списком с постраничным чтением по идентификатору.
+ *
+ * <p>Память сравнивается по метрике {@code gc.alloc.rate.norm} профилировщика {@code gc}: для первой
+ * страницы она не зависит от числа пользователей, для полного списка растет вместе с таблицей.
+ * Обход всех страниц выделяет столько же, сколько полный список, но держит в памяти одну страницу.
+ * Например:
+ * <pre>
+ * mvn -P jmh -DskipTests verify -Djmh.args="PaginationBenchmark -prof gc -p users=100,1000,10000 -p habits=2 -p days=1"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public List<User> getAllUsers(HabitDataset dataset) {
+        return dataset.userRepository.getAllUsers();
+    }
+
+    @Benchmark
+    public List<User> getUsersPage(HabitDataset dataset) {
+        return dataset.userRepository.getAllUsers(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int scanUsersByPages(HabitDataset dataset) {
+        int count = 0;
+        List<User> page = dataset.userRepository.getAllUsers(0, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            count += page.size();
+            page = dataset.userRepository.getAllUsers(page.get(page.size() - 1).getId(), PAGE_SIZE);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<Habit> getAllHabits(HabitDataset dataset) {
+        return dataset.habitRepository.getAllHabits(dataset.nextUser());
+    }
+
+    @Benchmark
+    public List<Habit> getHabitsPage(HabitDataset dataset) {
+        return dataset.habitRepository.getAllHabits(dataset.nextUser(), 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,64 @@
+package com.habittracker.benchmark;
+
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры операций чтения JDBC-репозиториев, включая получение соединения из пула.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Benchmark
+    public User getUser(HabitDataset dataset) {
+        return dataset.userRepository.getUser(dataset.nextUser().getEmail());
+    }
+
+    @Benchmark
+    public List<Habit> getAllHabits(HabitDataset dataset) {
+        return dataset.habitRepository.getAllHabits(dataset.nextUser());
+    }
+
+    @Benchmark
+    public HabitCompletion getHabitCompletion(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getHabitCompletion(dataset.nextHabit(), 1);
+    }
+
+    @Benchmark
+    public List<HabitCompletion> getAllHabitCompletion(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getAllHabitCompletion(dataset.nextHabit());
+    }
+
+    @Benchmark
+    public void streamHabitCompletionHistory(HabitDataset dataset, Blackhole blackhole) {
+        dataset.habitCompletionRepository.streamHabitCompletionHistory(dataset.nextHabit(),
+                (serialNumber, markDay) -> blackhole.consume(serialNumber + markDay));
+    }
+
+    @Benchmark
+    public List<HabitCompletion> getAllHabitCompletionByDate(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getAllHabitCompletionByDate(dataset.nextHabit(), dataset.percentageStartDate);
+    }
+
+    @Benchmark
+    public Map<Integer, HabitCompletion> getLastHabitCompletions(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.getLastHabitCompletions(dataset.habitRepository.getAllHabits(dataset.nextUser()));
+    }
+}
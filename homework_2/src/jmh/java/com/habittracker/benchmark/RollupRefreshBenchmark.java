@@ -0,0 +1,28 @@
+package com.habittracker.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер полного обновления недельной сводки выполнений {@code habit_completion_weekly}.
+ * Время обновления растет с числом всех выполнений в базе, а не в одном наборе данных.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RollupRefreshBenchmark {
+
+    @Benchmark
+    public boolean refreshCompletionRollup(HabitDataset dataset) {
+        return dataset.habitCompletionRepository.refreshCompletionRollup();
+    }
+}
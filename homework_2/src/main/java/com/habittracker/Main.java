@@ -1,9 +1,11 @@
 package com.habittracker;
 
+import com.habittracker.config.CacheConfig;
 import com.habittracker.config.DatabaseConfig;
 import com.habittracker.controller.MenuController;
 import com.habittracker.infrastructure.db.DatabaseConnection;
 import com.habittracker.infrastructure.db.migration.LiquibaseMigration;
+import com.habittracker.service.RollupRefreshJob;
 import com.habittracker.util.ServiceFactory;
 
 import java.sql.Connection;
@@ -12,6 +14,7 @@ public class Main {
 
     public static void main(String[] args) {
         DatabaseConfig config = new DatabaseConfig("homework_2/src/main/resources/application.properties");
+        CacheConfig cacheConfig = new CacheConfig("homework_2/src/main/resources/application.properties");
 
         try (DatabaseConnection dbConnection = new DatabaseConnection(config)) {
             Connection connection = dbConnection.getConnection();
@@ -21,10 +24,15 @@ public class Main {
             migration.runMigrations();
             connection.close();
 
-            ServiceFactory factory = new ServiceFactory(config);
+            ServiceFactory factory = new ServiceFactory(config, cacheConfig);
             MenuController menuController = factory.getMenuController();
 
-            menuController.start();
+            RollupRefreshJob rollupRefreshJob = factory.getRollupRefreshJob();
+            try {
+                menuController.start();
+            } finally {
+                rollupRefreshJob.close();
+            }
         } catch (Exception e) {
             System.err.println("Migration or database setup failed: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,65 @@
+package com.habittracker.config;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+public class CacheConfig {
+
+    /** Максимальное число пользователей в кэше; 0 отключает кэш */
+    private int userMaxSize = 1_000;
+
+    /** Время жизни записи кэша пользователей (мс) */
+    private long userTtlMillis = 300_000;
+
+    /** Максимальное число пользователей, чьи списки привычек хранятся в кэше; 0 отключает кэш */
+    private int habitMaxUsers = 500;
+
+    /** Время жизни списка привычек в кэше (мс) */
+    private long habitTtlMillis = 300_000;
+
+    /**
+     * Создает конфигурацию со значениями по умолчанию.
+     */
+    public CacheConfig() {
+    }
+
+    public CacheConfig(String configFilePath) {
+        Properties properties = new Properties();
+        try (FileInputStream fis = new FileInputStream(configFilePath)) {
+            properties.load(fis);
+            this.userMaxSize = getInt(properties, "cache.user.maxSize", userMaxSize);
+            this.userTtlMillis = getLong(properties, "cache.user.ttlMs", userTtlMillis);
+            this.habitMaxUsers = getInt(properties, "cache.habit.maxUsers", habitMaxUsers);
+            this.habitTtlMillis = getLong(properties, "cache.habit.ttlMs", habitTtlMillis);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public int getUserMaxSize() {
+        return userMaxSize;
+    }
+
+    public long getUserTtlMillis() {
+        return userTtlMillis;
+    }
+
+    public int getHabitMaxUsers() {
+        return habitMaxUsers;
+    }
+
+    public long getHabitTtlMillis() {
+        return habitTtlMillis;
+    }
+}
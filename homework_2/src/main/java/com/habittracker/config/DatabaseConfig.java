@@ -10,6 +10,39 @@ public class DatabaseConfig {
     private String password;
     private String driver;
 
+    /** Минимальное число соединений, которое пул держит открытыми */
+    private int poolMinSize = 2;
+
+    /** Максимальное число одновременно открытых соединений */
+    private int poolMaxSize = 10;
+
+    /** Время простоя, после которого лишнее соединение закрывается (мс) */
+    private long poolIdleTimeoutMillis = 300_000;
+
+    /** Максимальное время ожидания свободного соединения (мс) */
+    private long poolAcquireTimeoutMillis = 5_000;
+
+    /** Таймаут проверки соединения перед выдачей из пула (с) */
+    private int poolValidationTimeoutSeconds = 2;
+
+    /** Период фоновой проверки простаивающих соединений (мс) */
+    private long poolEvictionIntervalMillis = 30_000;
+
+    /** Число подготовленных запросов, кэшируемых в каждом соединении */
+    private int statementCacheSize = 32;
+
+    /** Число выполнений запроса, после которого драйвер готовит его на сервере */
+    private int prepareThreshold = 1;
+
+    /** Число строк, отправляемых на сервер одним пакетом при массовой вставке */
+    private int batchSize = 500;
+
+    /** Число строк, получаемых с сервера за одно обращение при потоковом чтении */
+    private int fetchSize = 200;
+
+    /** Интервал обновления недельной сводки выполнений (мс); 0 отключает обновление */
+    private long rollupRefreshIntervalMillis = 3_600_000;
+
     public DatabaseConfig(String configFilePath) {
         Properties properties = new Properties();
         try (FileInputStream fis = new FileInputStream(configFilePath)) {
@@ -18,11 +51,32 @@ public class DatabaseConfig {
             this.username = properties.getProperty("db.username");
             this.password = properties.getProperty("db.password");
             this.driver = properties.getProperty("db.driver");
+            this.poolMinSize = getInt(properties, "db.pool.minSize", poolMinSize);
+            this.poolMaxSize = getInt(properties, "db.pool.maxSize", poolMaxSize);
+            this.poolIdleTimeoutMillis = getLong(properties, "db.pool.idleTimeoutMs", poolIdleTimeoutMillis);
+            this.poolAcquireTimeoutMillis = getLong(properties, "db.pool.acquireTimeoutMs", poolAcquireTimeoutMillis);
+            this.poolValidationTimeoutSeconds = getInt(properties, "db.pool.validationTimeoutSec", poolValidationTimeoutSeconds);
+            this.poolEvictionIntervalMillis = getLong(properties, "db.pool.evictionIntervalMs", poolEvictionIntervalMillis);
+            this.statementCacheSize = getInt(properties, "db.pool.statementCacheSize", statementCacheSize);
+            this.prepareThreshold = getInt(properties, "db.prepareThreshold", prepareThreshold);
+            this.batchSize = getInt(properties, "db.batchSize", batchSize);
+            this.fetchSize = getInt(properties, "db.fetchSize", fetchSize);
+            this.rollupRefreshIntervalMillis = getLong(properties, "db.rollup.refreshIntervalMs", rollupRefreshIntervalMillis);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long getLong(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
     public String getUrl() {
         return url;
     }
@@ -38,4 +92,48 @@ public class DatabaseConfig {
     public String getDriver() {
         return driver;
     }
-}
\ No newline at end of file
+
+    public int getPoolMinSize() {
+        return poolMinSize;
+    }
+
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    public long getPoolIdleTimeoutMillis() {
+        return poolIdleTimeoutMillis;
+    }
+
+    public long getPoolAcquireTimeoutMillis() {
+        return poolAcquireTimeoutMillis;
+    }
+
+    public int getPoolValidationTimeoutSeconds() {
+        return poolValidationTimeoutSeconds;
+    }
+
+    public long getPoolEvictionIntervalMillis() {
+        return poolEvictionIntervalMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public long getRollupRefreshIntervalMillis() {
+        return rollupRefreshIntervalMillis;
+    }
+}
@@ -1,20 +1,28 @@
 package com.habittracker.controller;
 
+import com.habittracker.model.CompletionCounts;
 import com.habittracker.model.Habit;
-import com.habittracker.model.HabitCompletion;
 import com.habittracker.model.User;
 import com.habittracker.service.HabitCompletionService;
 import com.habittracker.service.HabitService;
+import com.habittracker.service.ReportService;
 import com.habittracker.service.UserService;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * Контроллер меню, который управляет взаимодействием с пользователем через консоль.
@@ -23,6 +31,9 @@ import java.util.Scanner;
  */
 public class MenuController {
 
+    /** Число записей на одной странице списков пользователей и привычек */
+    private static final int PAGE_SIZE = 20;
+
     /** Текущий авторизованный пользователь */
     private User currentUser;
 
@@ -35,15 +46,15 @@ public class MenuController {
     /** Сервис для управления выполнения привычек */
     private final HabitCompletionService habitCompletionService;
 
+    /** Сервис для формирования отчетов */
+    private final ReportService reportService;
+
     /** Выбор пользователя в виде строки*/
     private String choice;
 
     /** Выбор пользователя в целочисленном виде */
     private int intChoice;
 
-    /** Список всех пользователей */
-    private List<User> allUsers;
-
     /** Сканер для получения ввода от пользователя */
     private final Scanner scanner;
 
@@ -68,11 +79,14 @@ public class MenuController {
      * @param userService            сервис для управления пользователями
      * @param habitService           сервис для управления привычками
      * @param habitCompletionService сервис для управления выполнением привычек
+     * @param reportService          сервис для формирования отчетов
      */
-    public MenuController(UserService userService, HabitService habitService, HabitCompletionService habitCompletionService) {
+    public MenuController(UserService userService, HabitService habitService, HabitCompletionService habitCompletionService,
+                          ReportService reportService) {
         this.userService = userService;
         this.habitService = habitService;
         this.habitCompletionService = habitCompletionService;
+        this.reportService = reportService;
         this.scanner = new Scanner(System.in);
     }
 
@@ -207,7 +221,8 @@ public class MenuController {
 
     /**
      * Отображает меню администратора, предоставляющее функции блокировки пользователя,
-     * удаления пользователя, просмотра всех пользователей с их привычками или выхода из системы.
+     * удаления пользователя, просмотра всех пользователей с их привычками, пересчета и проверки
+     * статистики привычек или выхода из системы.
      *
      * @return null в случае выхода из аккаунта администратора.
      */
@@ -218,7 +233,9 @@ public class MenuController {
             System.out.println("1. Block user");
             System.out.println("2. Delete user");
             System.out.println("3. Show users with habits");
-            System.out.println("4. Log out");
+            System.out.println("4. Rebuild habit statistics");
+            System.out.println("5. Check habit statistics");
+            System.out.println("6. Log out");
             System.out.println("-------------------------------------------------");
 
 
@@ -237,6 +254,14 @@ public class MenuController {
 
                     break;
                 case "4":
+                    handleRebuildHabitStats();
+
+                    break;
+                case "5":
+                    handleCheckHabitStats();
+
+                    break;
+                case "6":
                     return null;
             }
         }
@@ -420,102 +445,148 @@ public class MenuController {
 
     /**
      * Обрабатывает блокировку пользователя администратором.
-     * Отображает список всех пользователей и предоставляет возможность выбрать пользователя для блокировки.
+     * Постранично отображает список пользователей и предоставляет возможность выбрать пользователя для блокировки.
      */
     public void handleBlockUser(){
-        allUsers = userService.getAllUsers();
-
-        if (allUsers.isEmpty()) {
-            System.out.println("There are no registered users.");
+        User user = selectFromPages("Select a user to block:", "There are no registered users.", "user",
+                userService::getAllUsers, User::getId, User::getName);
+        if (user == null) {
             return;
         }
-
-        System.out.println("Select a user to block:");
-        for (int i = 0; i < allUsers.size(); i++) {
-            System.out.println((i + 1) + ". " + allUsers.get(i).getName());
-        }
-
-        System.out.print("Enter the user number or type 0 to exit: ");
-        while(true){
-            try {
-                choice = scanner.nextLine();
-                intChoice = Integer.parseInt(choice);
-                if (intChoice < 0 || intChoice > allUsers.size()) {
-                    System.out.println("Wrong user number. Try again.");
-                } else{
-                    break;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Enter right number.");
-            }
-        }
-        if(intChoice == 0) {
-            return;
+        if(userService.updateUserProfile(user, true).isPresent()){
+            System.out.println("The user has been successfully blocked.");
         } else {
-            if(userService.updateUserProfile(allUsers.get(intChoice-1), true).isPresent()){
-                System.out.println("The user has been successfully blocked.");
-            } else {
-                System.out.println("Error.");
-            }
+            System.out.println("Error.");
         }
     }
 
     /**
      * Обрабатывает удаление пользователя администратором.
-     * Отображает список всех пользователей и предоставляет возможность выбрать пользователя для удаления.
+     * Постранично отображает список пользователей и предоставляет возможность выбрать пользователя для удаления.
      */
     public void handleDeleteUserByAdmin(){
-        allUsers = userService.getAllUsers();
-
-        if (allUsers.isEmpty()) {
-            System.out.println("There are no registered users.");
+        User user = selectFromPages("Select a user to delete:", "There are no registered users.", "user",
+                userService::getAllUsers, User::getId, User::getName);
+        if (user == null) {
             return;
         }
+        userService.deleteUser(user);
+        System.out.println("The user has been successfully deleted.");
+    }
 
-        System.out.println("Select a user to delete:");
-        for (int i = 0; i < allUsers.size(); i++) {
-            System.out.println((i + 1) + ". " + allUsers.get(i).getName());
+    /**
+     * Обрабатывает команду пересчета статистики всех привычек по их выполнениям.
+     */
+    public void handleRebuildHabitStats(){
+        if(habitService.rebuildHabitStats()){
+            System.out.println("Habit statistics have been successfully rebuilt.");
+        } else {
+            System.out.println("Error.");
         }
+    }
 
-        System.out.print("Enter the user number or type 0 to exit: ");
-        while(true){
-            try {
-                choice = scanner.nextLine();
-                intChoice = Integer.parseInt(choice);
-                if (intChoice < 0 || intChoice > allUsers.size()) {
-                    System.out.println("Wrong user number. Try again.");
-                } else{
-                    break;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Enter right number.");
-            }
-        }
-        if(intChoice == 0) {
-            return;
+    /**
+     * Обрабатывает команду проверки статистики привычек. Выводит идентификаторы привычек,
+     * статистика которых расходится с их выполнениями.
+     */
+    public void handleCheckHabitStats(){
+        List<Integer> habitIds = habitService.checkHabitStats();
+        if(habitIds.isEmpty()){
+            System.out.println("Habit statistics are consistent.");
         } else {
-            userService.deleteUser(allUsers.get(intChoice-1));
-            System.out.println("The user has been successfully deleted.");
+            System.out.println("Habit statistics differ from completions for habits: " + habitIds);
+            System.out.println("Use \"Rebuild habit statistics\" to fix them.");
         }
     }
 
     /**
      * Обрабатывает команду показа всех пользователей и их привычек. Выводит на консоль список пользователей
-     * и их привычек, полученных с помощью сервисов пользователей и привычек.
+     * и их привычек постранично: каждая страница из {@link #PAGE_SIZE} пользователей загружается одним запросом.
      */
     public void handleShowUsersWithHabits(){
-        allUsers = userService.getAllUsers();
-        for(User user : allUsers){
-            System.out.println("User: " + user.getName());
-            allHabits = habitService.getAllHabits(user);
-            int count = 1;
-            for(Habit habit : allHabits){
-                System.out.println("   " + count + ". " + habit.getName());
-                count++;
+        int afterId = 0;
+        while (true) {
+            List<User> page = userService.getUsersWithHabits(afterId, PAGE_SIZE);
+            for(User user : page){
+                System.out.println("User: " + user.getName());
+                int count = 1;
+                for(Habit habit : user.getHabits()){
+                    System.out.println("   " + count + ". " + habit.getName());
+                    count++;
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+            System.out.print("Press Enter to show the next page or type 0 to exit: ");
+            if (scanner.nextLine().trim().equals("0")) {
+                return;
             }
         }
     }
 
+    /**
+     * Постранично выводит список и предлагает выбрать из него элемент. Каждая страница
+     * из {@link #PAGE_SIZE} элементов загружается отдельным запросом после идентификатора
+     * последнего элемента предыдущей страницы, поэтому в памяти держится только одна страница.
+     *
+     * @param title     заголовок списка
+     * @param emptyText сообщение, выводимое, если список пуст
+     * @param itemName  название элемента в приглашении к вводу
+     * @param loader    загрузчик страницы по идентификатору последнего элемента и размеру страницы
+     * @param id        идентификатор элемента
+     * @param label     отображаемое имя элемента
+     * @return выбранный элемент или {@code null}, если список пуст или пользователь отказался от выбора
+     */
+    private <T> T selectFromPages(String title, String emptyText, String itemName,
+                                  BiFunction<Integer, Integer, List<T>> loader,
+                                  ToIntFunction<T> id, Function<T, String> label) {
+        List<T> page = loader.apply(0, PAGE_SIZE + 1);
+        if (page.isEmpty()) {
+            System.out.println(emptyText);
+            return null;
+        }
+
+        while (true) {
+            boolean hasNextPage = page.size() > PAGE_SIZE;
+            if (hasNextPage) {
+                page = page.subList(0, PAGE_SIZE);
+            }
+
+            System.out.println(title);
+            for (int i = 0; i < page.size(); i++) {
+                System.out.println((i + 1) + ". " + label.apply(page.get(i)));
+            }
+
+            if (hasNextPage) {
+                System.out.print("Enter the " + itemName + " number, press Enter to show the next page or type 0 to exit: ");
+            } else {
+                System.out.print("Enter the " + itemName + " number or type 0 to exit: ");
+            }
+            while(true){
+                choice = scanner.nextLine();
+                if (hasNextPage && choice.isEmpty()) {
+                    break;
+                }
+                try {
+                    intChoice = Integer.parseInt(choice);
+                    if (intChoice < 0 || intChoice > page.size()) {
+                        System.out.println("Wrong " + itemName + " number. Try again.");
+                    } else if (intChoice == 0) {
+                        return null;
+                    } else {
+                        return page.get(intChoice - 1);
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Enter right number.");
+                }
+            }
+
+            page = loader.apply(id.applyAsInt(page.get(page.size() - 1)), PAGE_SIZE + 1);
+        }
+    }
+
     /**
      * Обрабатывает команду создания новой привычки. Вводит название, описание и частоту выполнения
      * привычки с консоли и передает их в сервис для создания привычки.
@@ -562,36 +633,11 @@ public class MenuController {
      * название, описание и частоту выполнения.
      */
     public void handleEditHabit(){
-        allHabits = habitService.getAllHabits(currentUser);
-
-        if (allHabits.isEmpty()) {
-            System.out.println("You don't have editing habits.");
-            return;
-        }
-
-        System.out.println("Select a habit to edit:");
-        for (int i = 0; i < allHabits.size(); i++) {
-            System.out.println((i + 1) + ". " + allHabits.get(i).getName());
-        }
-
-        System.out.print("Enter the habit number or type 0 to exit: ");
-        while(true){
-            try {
-                choice = scanner.nextLine();
-                intChoice = Integer.parseInt(choice);
-                if (intChoice < 0 || intChoice > allHabits.size()) {
-                    System.out.println("Wrong habit number. Try again.");
-                } else{
-                    break;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Enter right number.");
-            }
-        }
-        if(intChoice == 0){
+        Habit habitToUpdate = selectFromPages("Select a habit to edit:", "You don't have editing habits.", "habit",
+                (afterId, limit) -> habitService.getAllHabits(currentUser, afterId, limit), Habit::getId, Habit::getName);
+        if(habitToUpdate == null){
             return;
         } else{
-            Habit habitToUpdate = allHabits.get(intChoice - 1);
             System.out.print("Enter a new habit name (leave blank to keep the current one): ");
             String newNameHabit = scanner.nextLine();
             if(newNameHabit.isEmpty()){
@@ -642,39 +688,14 @@ public class MenuController {
      * и удалить её, вместе со всеми связанными с ней отметками выполнения.
      */
     public void handleRemoveHabit(){
-        allHabits = habitService.getAllHabits(currentUser);
-
-        if (allHabits.isEmpty()) {
-            System.out.println("You don't have removal habits.");
-            return;
-        }
-
-        System.out.println("Select a habit to delete:");
-        for (int i = 0; i < allHabits.size(); i++) {
-            System.out.println((i + 1) + ". " + allHabits.get(i).getName());
-        }
-
-        while(true){
-            try {
-                choice = scanner.nextLine();
-                intChoice = Integer.parseInt(choice);
-                if (intChoice < 0 || intChoice > allHabits.size()) {
-                    System.out.println("Wrong habit number. Try again.");
-                } else {
-                    break;
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Enter right number.");
-                return;
-            }
-        }
-
-        if(intChoice == 0){
+        Habit habitToRemove = selectFromPages("Select a habit to delete:", "You don't have removal habits.", "habit",
+                (afterId, limit) -> habitService.getAllHabits(currentUser, afterId, limit), Habit::getId, Habit::getName);
+        if(habitToRemove == null){
             return;
         } else{
-            String habitName = allHabits.get(intChoice - 1).getName();
-            if(!allHabits.get(intChoice - 1).getCompletions().isEmpty()){
-                habitCompletionService.deleteAllHabitCompletion(allHabits.get(intChoice - 1));
+            String habitName = habitToRemove.getName();
+            if(!habitToRemove.getCompletions().isEmpty()){
+                habitCompletionService.deleteAllHabitCompletion(habitToRemove);
             }
             if(habitService.deleteHabit(currentUser, habitName)){
                 System.out.println("The habit has been successfully removed.");
@@ -778,26 +799,15 @@ public class MenuController {
 
     /**
      * Отображает историю выполнения всех привычек пользователя. Для каждой привычки выводится
-     * список дат выполнения.
+     * список дат выполнения; выполнения читаются из базы потоком и сразу выводятся на консоль.
      */
     public void handleViewHistory(){
-        allHabits = habitService.getAllHabits(currentUser);
-
-        if (allHabits.isEmpty()) {
-            System.out.println("You don't have habits.");
-            return;
-        }
-
-        for(Habit habit : allHabits){
-            List <HabitCompletion> completions = habitCompletionService.getAllHabitCompletions(habit);
-            System.out.println("Habit: " + habit.getName() + ": ");
-            if(completions.isEmpty()){
-                System.out.println("   There are no fulfillment marks.");
-            } else {
-                for (int i = 0; i < completions.size(); i++) {
-                    System.out.println("   " + (i + 1) + ". " + completions.get(i).getMarkDate());
-                }
-            }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out));
+        try {
+            reportService.writeHistory(currentUser, writer);
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
@@ -829,8 +839,9 @@ public class MenuController {
             if (intChoice == 0) {
                 return;
             } else if (intChoice == 1) {
+                Map<Integer, Integer> streaks = habitService.countHabitStreaks(currentUser);
                 for (Habit habit : allHabits) {
-                    System.out.println("Habit: " + habit.getName() + " current streak = " + habitService.countHabitStreak(habit));
+                    System.out.println("Habit: " + habit.getName() + " current streak = " + streaks.getOrDefault(habit.getId(), 0));
                 }
             } else {
                 System.out.println("1. Completion percentage for today.");
@@ -848,17 +859,21 @@ public class MenuController {
                         System.out.println("Enter right number.");
                     }
                 }
+                Map<Integer, CompletionCounts> counts = habitService.countHabitCompletions(currentUser);
                 if (intChoice == 1) {
                     for (Habit habit : allHabits) {
-                        System.out.println("The percentage of successful execution of the habit \"" + habit.getName() + "\" for the day: " + habitService.countPercentage(LocalDate.now(), habit) + "%");
+                        int count = counts.getOrDefault(habit.getId(), CompletionCounts.EMPTY).getDay();
+                        System.out.println("The percentage of successful execution of the habit \"" + habit.getName() + "\" for the day: " + habitService.countPercentage(LocalDate.now(), habit, count) + "%");
                     }
                 } else if (intChoice == 2) {
                     for (Habit habit : allHabits) {
-                        System.out.println("The percentage of successful execution of the habit \"" + habit.getName() + "\" for the week: " + habitService.countPercentage(LocalDate.now().minusWeeks(1), habit) + "%");
+                        int count = counts.getOrDefault(habit.getId(), CompletionCounts.EMPTY).getWeek();
+                        System.out.println("The percentage of successful execution of the habit \"" + habit.getName() + "\" for the week: " + habitService.countPercentage(LocalDate.now().minusWeeks(1), habit, count) + "%");
                     }
                 } else {
                     for (Habit habit : allHabits) {
-                        System.out.println("The percentage of successful execution of the habit \"" + habit.getName() + "\" for the month: " + habitService.countPercentage(LocalDate.now().minusMonths(1), habit) + "%");
+                        int count = counts.getOrDefault(habit.getId(), CompletionCounts.EMPTY).getMonth();
+                        System.out.println("The percentage of successful execution of the habit \"" + habit.getName() + "\" for the month: " + habitService.countPercentage(LocalDate.now().minusMonths(1), habit, count) + "%");
                     }
                 }
             }
@@ -874,7 +889,6 @@ public class MenuController {
         String baseDirectory = "homework_1";
         String directoryPath = baseDirectory + File.separator + "reports";
         String filePath = directoryPath + File.separator + generateFileName();
-        allHabits = habitService.getAllHabits(currentUser);
 
         File baseDir = new File(baseDirectory);
         if (!baseDir.exists()) {
@@ -898,25 +912,8 @@ public class MenuController {
             file.delete();
         }
 
-        StringBuilder report = new StringBuilder();
-        report.append("Hello, ").append(currentUser.getName()).append("!\n");
-        report.append("This is your report on keeping your habits:\n");
-        if (allHabits.isEmpty()) {
-            report.append("You don't have habits.");
-        } else {
-            for(Habit habit : allHabits){
-                report.append(habit.getFrequency() + " habbit ").append(habit.getName() + ":\n");
-                report.append("   Current streak: ").append(habitService.countHabitStreak(habit) + "\n");
-                report.append("   For all time fulfilled ").append(habitService.countPercentage(habit.getCreateDate(), habit) + "% \n");
-                report.append("   Today's accomplished ").append(habitService.countPercentage(LocalDate.now(), habit) + "% \n");
-                report.append("   In the last week, accomplished ").append(habitService.countPercentage(LocalDate.now().minusWeeks(1), habit) + "% \n");
-                report.append("   In the last month, accomplished ").append(habitService.countPercentage(LocalDate.now().minusMonths(1), habit) + "% \n\n");
-            }
-        }
-        report.append("Good luck!\n");
-
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write(String.valueOf(report));
+        try (Writer writer = new BufferedWriter(new FileWriter(filePath))) {
+            reportService.writeReport(currentUser, writer);
             System.out.println("Report saved to: " + filePath);
         } catch (IOException e) {
             e.printStackTrace();
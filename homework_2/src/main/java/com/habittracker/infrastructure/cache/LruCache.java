@@ -0,0 +1,238 @@
+package com.habittracker.infrastructure.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный по размеру потокобезопасный кэш с вытеснением давно не использованных записей
+ * и временем жизни записи. Просроченная запись удаляется при обращении к ней.
+ *
+ * <p>Загрузка значения при промахе выполняется вне блокировки, поэтому медленный источник
+ * не задерживает обращения к другим ключам. Если за время загрузки кэш был инвалидирован,
+ * загруженное значение возвращается вызывающему, но в кэш не попадает: иначе запись,
+ * прочитанная до изменения данных, пережила бы инвалидацию.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class LruCache<K, V> {
+
+    /** Максимальное число записей в кэше. */
+    private final int maxSize;
+
+    /** Время жизни записи (мс); 0 или меньше — без ограничения. */
+    private final long ttlMillis;
+
+    /** Источник текущего времени (мс). */
+    private final LongSupplier clock;
+
+    /** Записи в порядке последнего использования. */
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Номер поколения, увеличивается при каждой инвалидации. */
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * Создает кэш, использующий системное время.
+     *
+     * @param maxSize   максимальное число записей; 0 или меньше отключает кэширование
+     * @param ttlMillis время жизни записи (мс); 0 или меньше — без ограничения
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Создает кэш с заданным источником времени.
+     *
+     * @param maxSize   максимальное число записей; 0 или меньше отключает кэширование
+     * @param ttlMillis время жизни записи (мс); 0 или меньше — без ограничения
+     * @param clock     источник текущего времени (мс)
+     */
+    public LruCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Возвращает значение из кэша.
+     *
+     * @param key ключ
+     * @return значение или {@code null}, если записи нет или она просрочена
+     */
+    public V get(K key) {
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!isExpired(entry)) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(key);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Возвращает значение из кэша, а при промахе загружает его и кладет в кэш.
+     * Значение {@code null} не кэшируется.
+     *
+     * @param key    ключ
+     * @param loader загрузчик значения по ключу
+     * @return значение из кэша или загруженное значение
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (loadGeneration == generation) {
+                    putEntry(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Кладет значение в кэш, заменяя прежнее.
+     *
+     * @param key   ключ
+     * @param value значение
+     */
+    public synchronized void put(K key, V value) {
+        putEntry(key, value);
+    }
+
+    /**
+     * Удаляет запись из кэша.
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Удаляет все записи из кэша.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Возвращает текущее число записей, включая еще не удаленные просроченные.
+     *
+     * @return число записей
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Возвращает число обращений, найденных в кэше.
+     *
+     * @return число попаданий
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Возвращает число обращений, не найденных в кэше.
+     *
+     * @return число промахов
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Возвращает число записей, вытесненных из-за превышения размера.
+     *
+     * @return число вытеснений
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Возвращает число записей, удаленных по истечении времени жизни.
+     *
+     * @return число просроченных записей
+     */
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    /**
+     * Возвращает долю обращений, найденных в кэше.
+     *
+     * @return доля попаданий от 0 до 1; 0, если обращений еще не было
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, expirations=%d",
+                size(), getHits(), getMisses(), getHitRatio(), getEvictions(), getExpirations());
+    }
+
+    private void putEntry(K key, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        long expiresAt = ttlMillis > 0 ? clock.getAsLong() + ttlMillis : Long.MAX_VALUE;
+        entries.put(key, new Entry<>(value, expiresAt));
+        Iterator<Map.Entry<K, Entry<V>>> eldestFirst = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldestFirst.hasNext()) {
+            eldestFirst.next();
+            eldestFirst.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return clock.getAsLong() >= entry.expiresAt;
+    }
+
+    /**
+     * Значение кэша и момент, после которого оно считается просроченным.
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.habittracker.infrastructure.db;
+
+import com.habittracker.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченный пул соединений с базой данных.
+ * Держит не меньше {@code db.pool.minSize} и не больше {@code db.pool.maxSize} открытых соединений,
+ * проверяет соединение перед выдачей, закрывает лишние простаивающие соединения
+ * и ограничивает время ожидания свободного соединения.
+ *
+ * <p>Выданное соединение нужно закрыть ({@code close()}), после чего оно возвращается в пул.
+ * Каждое соединение хранит кэш подготовленных запросов размером {@code db.pool.statementCacheSize},
+ * статистика попаданий в кэш доступна через {@link #getStatementCacheHits()} и {@link #getStatementCacheMisses()}.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Конфигурация подключения и параметров пула. */
+    private final DatabaseConfig config;
+
+    /** Свободные соединения; последнее возвращенное выдается первым. */
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+
+    /** Разрешения на владение соединением, их число равно максимальному размеру пула. */
+    private final Semaphore permits;
+
+    /** Общее число открытых физических соединений. */
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    /** Фоновая задача вытеснения простаивающих соединений и поддержания минимума. */
+    private final ScheduledExecutorService maintenance;
+
+    /** Число выдач подготовленного запроса из кэша. */
+    private final AtomicLong statementCacheHits = new AtomicLong();
+
+    /** Число подготовок запроса мимо кэша. */
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Создает пул и запускает фоновое поддержание минимального числа соединений.
+     *
+     * @param config конфигурация базы данных и пула
+     */
+    public ConnectionPool(DatabaseConfig config) {
+        if (config.getPoolMinSize() < 0 || config.getPoolMaxSize() < 1 || config.getPoolMinSize() > config.getPoolMaxSize()) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + config.getPoolMinSize() + ", max=" + config.getPoolMaxSize());
+        }
+        this.config = config;
+        this.permits = new Semaphore(config.getPoolMaxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, 0, config.getPoolEvictionIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Выдает соединение из пула. Если свободных соединений нет и пул заполнен,
+     * ожидает не дольше {@code db.pool.acquireTimeoutMs}.
+     *
+     * @return проверенное соединение; его закрытие возвращает соединение в пул
+     * @throws SQLTimeoutException если свободное соединение не появилось за отведенное время
+     * @throws SQLException если пул закрыт или не удалось открыть новое соединение
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        acquirePermit();
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                if (isValid(pooled)) {
+                    return pooled.lease();
+                }
+                destroy(pooled);
+            }
+            return createConnection().lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает соединение в пул. Незавершенная транзакция откатывается,
+     * закрытое или неисправное соединение уничтожается.
+     *
+     * @param pooled возвращаемое соединение
+     */
+    void release(PooledConnection pooled) {
+        try {
+            Connection connection = pooled.getPhysicalConnection();
+            if (closed || connection.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            pooled.getStatementCache().releaseAll();
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+            } else {
+                connection.rollback();
+            }
+            pooled.markReleased();
+            idleConnections.offerFirst(pooled);
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Возвращает конфигурацию, с которой создан пул.
+     *
+     * @return конфигурация базы данных и пула
+     */
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Возвращает общее число открытых соединений.
+     *
+     * @return число открытых физических соединений
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Возвращает число свободных соединений.
+     *
+     * @return число соединений, ожидающих выдачи
+     */
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Возвращает число подготовленных запросов, выданных из кэша соединений.
+     *
+     * @return число попаданий в кэш запросов
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * Возвращает число запросов, которые пришлось подготовить заново.
+     *
+     * @return число промахов кэша запросов
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * Закрывает пул и все свободные соединения. Выданные соединения закрываются при возврате.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(config.getPoolAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + config.getPoolAcquireTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Properties properties = new Properties();
+        if (config.getUsername() != null) {
+            properties.setProperty("user", config.getUsername());
+        }
+        if (config.getPassword() != null) {
+            properties.setProperty("password", config.getPassword());
+        }
+        properties.setProperty("prepareThreshold", String.valueOf(config.getPrepareThreshold()));
+
+        Connection connection = DriverManager.getConnection(config.getUrl(), properties);
+        connection.setAutoCommit(false);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(this, connection, config.getStatementCacheSize(),
+                statementCacheHits, statementCacheMisses);
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.getPhysicalConnection().isValid(config.getPoolValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    /**
+     * Закрывает соединения, простаивающие дольше {@code db.pool.idleTimeoutMs}, пока их больше минимума,
+     * и открывает новые, если открытых соединений меньше минимума.
+     */
+    private void maintain() {
+        long expiredBefore = System.currentTimeMillis() - config.getPoolIdleTimeoutMillis();
+        Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > config.getPoolMinSize()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (pooled.getLastReleasedAt() < expiredBefore && idleConnections.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        while (!closed && totalConnections.get() < config.getPoolMinSize() && permits.tryAcquire()) {
+            try {
+                idleConnections.offerLast(createConnection());
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -27,6 +27,17 @@ public class DatabaseConnection implements AutoCloseable {
         connection.setAutoCommit(false);
     }
 
+    /**
+     * Конструктор класса DatabaseConnection, берет соединение из пула.
+     * Закрытие такого соединения возвращает его в пул.
+     *
+     * @param connectionPool пул соединений с базой данных
+     * @throws SQLException если не удалось получить соединение из пула
+     */
+    public DatabaseConnection(ConnectionPool connectionPool) throws SQLException {
+        this.connection = connectionPool.getConnection();
+    }
+
     /**
      * Получает текущее соединение с базой данных.
      *
@@ -0,0 +1,119 @@
+package com.habittracker.infrastructure.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Физическое соединение с базой данных, принадлежащее {@link ConnectionPool}.
+ * Наружу соединение выдается только через прокси, у которого вызов {@code close()}
+ * возвращает соединение в пул вместо его закрытия, а {@code prepareStatement(String)}
+ * берет запрос из {@link StatementCache} этого соединения.
+ */
+class PooledConnection {
+
+    /** Пул, которому принадлежит соединение. */
+    private final ConnectionPool pool;
+
+    /** Реальное соединение с базой данных. */
+    private final Connection physicalConnection;
+
+    /** Кэш подготовленных запросов соединения. */
+    private final StatementCache statementCache;
+
+    /** Момент последнего возврата соединения в пул (мс). */
+    private volatile long lastReleasedAt;
+
+    PooledConnection(ConnectionPool pool, Connection physicalConnection, int statementCacheSize,
+                     AtomicLong cacheHits, AtomicLong cacheMisses) {
+        this.pool = pool;
+        this.physicalConnection = physicalConnection;
+        this.statementCache = new StatementCache(physicalConnection, statementCacheSize, cacheHits, cacheMisses);
+        this.lastReleasedAt = System.currentTimeMillis();
+    }
+
+    Connection getPhysicalConnection() {
+        return physicalConnection;
+    }
+
+    StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    long getLastReleasedAt() {
+        return lastReleasedAt;
+    }
+
+    void markReleased() {
+        this.lastReleasedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Выдает соединение во временное пользование. Каждая выдача получает собственный прокси,
+     * поэтому повторный {@code close()} у уже возвращенного прокси не затронет следующего владельца.
+     *
+     * @return прокси соединения
+     */
+    Connection lease() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new LeaseHandler()
+        );
+    }
+
+    /**
+     * Закрывает физическое соединение, игнорируя ошибки.
+     */
+    void closePhysical() {
+        statementCache.clear();
+        try {
+            physicalConnection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private class LeaseHandler implements InvocationHandler {
+        private boolean released;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        pool.release(PooledConnection.this);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || physicalConnection.isClosed();
+                case "prepareStatement":
+                    if (!released && args.length == 1) {
+                        return statementCache.prepare((String) args[0]);
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physicalConnection;
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(physicalConnection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.habittracker.infrastructure.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш подготовленных запросов одного физического соединения.
+ * Ключом служит текст SQL-запроса (константы из классов {@code *Queries}),
+ * поэтому повторный {@code prepareStatement} того же запроса возвращает уже подготовленный
+ * на сервере запрос. При переполнении вытесняется давно не использованный запрос.
+ *
+ * <p>Вызов {@code close()} у выданного запроса не закрывает его, а закрывает открытый результат,
+ * очищает параметры, сбрасывает настройки выдачи и возвращает запрос в кэш. Каждая выдача получает
+ * собственный прокси, и после {@code close()} любой вызов у него, кроме повторного закрытия,
+ * выбрасывает {@link SQLException}, даже если тот же запрос уже выдан следующему владельцу.
+ */
+class StatementCache {
+
+    /** Соединение, которому принадлежат запросы. */
+    private final Connection connection;
+
+    /** Максимальное число запросов в кэше. */
+    private final int maxSize;
+
+    /** Счетчик попаданий в кэш, общий для всех соединений пула. */
+    private final AtomicLong hits;
+
+    /** Счетчик промахов кэша, общий для всех соединений пула. */
+    private final AtomicLong misses;
+
+    /** Подготовленные запросы в порядке последнего использования. */
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection connection, int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Возвращает подготовленный запрос для заданного SQL. Если запрос уже выдан и еще не закрыт
+     * (вложенное использование того же запроса), подготавливается отдельный некэшируемый запрос.
+     *
+     * @param sql текст запроса
+     * @return подготовленный запрос
+     * @throws SQLException если не удалось подготовить запрос
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        if (maxSize <= 0) {
+            misses.incrementAndGet();
+            return connection.prepareStatement(sql);
+        }
+
+        CachedStatement cached = statements.get(sql);
+        if (cached != null && !cached.inUse() && !cached.statement.isClosed()) {
+            hits.incrementAndGet();
+            return cached.lease();
+        }
+
+        misses.incrementAndGet();
+        if (cached != null && cached.inUse()) {
+            return connection.prepareStatement(sql);
+        }
+
+        cached = new CachedStatement(connection.prepareStatement(sql));
+        statements.put(sql, cached);
+        evictOverflow();
+        return cached.lease();
+    }
+
+    /**
+     * Закрывает все запросы кэша.
+     */
+    void clear() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closeQuietly();
+        }
+        statements.clear();
+    }
+
+    /**
+     * Возвращает в кэш запросы, которые владелец соединения забыл закрыть.
+     */
+    void releaseAll() throws SQLException {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse()) {
+                cached.lease.proxy.close();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > maxSize && eldestFirst.hasNext()) {
+            CachedStatement eldest = eldestFirst.next();
+            if (!eldest.inUse()) {
+                eldestFirst.remove();
+                eldest.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Запрос, хранящийся в кэше.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+
+        /** Текущая выдача запроса; {@code null}, если запрос свободен. */
+        private Lease lease;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private boolean inUse() {
+            return lease != null;
+        }
+
+        private PreparedStatement lease() {
+            lease = new Lease(this);
+            return lease.proxy;
+        }
+
+        /**
+         * Возвращает запрос в кэш: закрывает открытый результат (и курсор на сервере при чтении
+         * порциями) и сбрасывает все, что мог изменить владелец. Если сбросить не удалось,
+         * запрос закрывается, и следующий {@link #prepare} подготовит его заново.
+         */
+        private void release() throws SQLException {
+            lease = null;
+            try {
+                ResultSet resultSet = statement.getResultSet();
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.clearWarnings();
+                statement.setFetchSize(0);
+                statement.setMaxRows(0);
+                statement.setQueryTimeout(0);
+            } catch (SQLException e) {
+                closeQuietly();
+                throw e;
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Одна выдача запроса из кэша и прокси, через который ею пользуются.
+     */
+    private static final class Lease implements InvocationHandler {
+        private final CachedStatement cached;
+        private final PreparedStatement proxy;
+        private boolean closed;
+
+        private Lease(CachedStatement cached) {
+            this.cached = cached;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this
+            );
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been returned to the cache");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
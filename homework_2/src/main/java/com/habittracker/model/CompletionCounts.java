@@ -0,0 +1,53 @@
+package com.habittracker.model;
+
+/**
+ * Класс, представляющий число выполнений привычки за несколько периодов:
+ * за текущий день, за последнюю неделю, за последний месяц и за всё время.
+ */
+public class CompletionCounts {
+    /** Пустой набор счетчиков для привычки без выполнений */
+    public static final CompletionCounts EMPTY = new CompletionCounts(0, 0, 0, 0);
+
+    /** Число выполнений за текущий день */
+    private final int day;
+
+    /** Число выполнений за последнюю неделю */
+    private final int week;
+
+    /** Число выполнений за последний месяц */
+    private final int month;
+
+    /** Число выполнений за всё время существования привычки */
+    private final int allTime;
+
+    /**
+     * Конструктор класса CompletionCounts.
+     *
+     * @param day Число выполнений за текущий день.
+     * @param week Число выполнений за последнюю неделю.
+     * @param month Число выполнений за последний месяц.
+     * @param allTime Число выполнений за всё время.
+     */
+    public CompletionCounts(int day, int week, int month, int allTime) {
+        this.day = day;
+        this.week = week;
+        this.month = month;
+        this.allTime = allTime;
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    public int getWeek() {
+        return week;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getAllTime() {
+        return allTime;
+    }
+}
@@ -0,0 +1,14 @@
+package com.habittracker.model;
+
+/**
+ * Обработчик выполнения привычки, получающий его поля без создания объектов:
+ * ни {@link HabitCompletion}, ни даты отметки на каждое выполнение.
+ */
+@FunctionalInterface
+public interface CompletionVisitor {
+    /**
+     * @param serialNumber серийный номер выполнения
+     * @param markDay      дата отметки в днях от 1970-01-01
+     */
+    void accept(int serialNumber, int markDay);
+}
@@ -149,7 +149,38 @@ public class Habit {
     public void setUser(User user) {
         this.user = user;
     }
-}
 
+    /**
+     * Возвращает неизменяемый ключ привычки.
+     *
+     * @return ключ {@link HabitId} с идентификатором привычки
+     */
+    public HabitId getHabitId() {
+        return new HabitId(id);
+    }
 
+    /**
+     * Сравнивает привычки по идентификатору. Пока идентификатор не присвоен (равен 0),
+     * объект равен только самому себе.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Habit)) {
+            return false;
+        }
+        Habit other = (Habit) o;
+        return id != 0 && id == other.id;
+    }
 
+    /**
+     * Хэш-код по идентификатору, а для еще не сохраненного объекта — по ссылке. Идентификатор нужно
+     * присвоить до того, как объект станет ключом карты: иначе хэш-код ключа изменится.
+     */
+    @Override
+    public int hashCode() {
+        return id != 0 ? Integer.hashCode(id) : System.identityHashCode(this);
+    }
+}
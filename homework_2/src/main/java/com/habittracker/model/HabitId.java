@@ -0,0 +1,10 @@
+package com.habittracker.model;
+
+/**
+ * Неизменяемый ключ привычки: ее идентификатор без остальных полей.
+ * Подходит для ключей карт и кэшей, где хранить или сравнивать весь объект {@link Habit} не нужно.
+ *
+ * @param value идентификатор привычки
+ */
+public record HabitId(int value) {
+}
@@ -0,0 +1,41 @@
+package com.habittracker.model;
+
+/**
+ * Класс, представляющий строку отчета о привычке: саму привычку, её текущую серию
+ * и число выполнений за несколько периодов.
+ */
+public class HabitReportRow {
+    /** Привычка, к которой относится строка отчета */
+    private final Habit habit;
+
+    /** Текущая серия выполнений привычки */
+    private final int streak;
+
+    /** Число выполнений привычки за день, неделю, месяц и всё время */
+    private final CompletionCounts counts;
+
+    /**
+     * Конструктор класса HabitReportRow.
+     *
+     * @param habit Привычка.
+     * @param streak Текущая серия выполнений привычки.
+     * @param counts Число выполнений привычки за несколько периодов.
+     */
+    public HabitReportRow(Habit habit, int streak, CompletionCounts counts) {
+        this.habit = habit;
+        this.streak = streak;
+        this.counts = counts;
+    }
+
+    public Habit getHabit() {
+        return habit;
+    }
+
+    public int getStreak() {
+        return streak;
+    }
+
+    public CompletionCounts getCounts() {
+        return counts;
+    }
+}
@@ -0,0 +1,54 @@
+package com.habittracker.model;
+
+/**
+ * Класс, представляющий заранее посчитанную статистику привычки из таблицы {@code habit_stats}:
+ * серию, заканчивающуюся последним выполнением, самую длинную серию, общее число выполнений
+ * и серийный номер последнего выполнения.
+ */
+public class HabitStats {
+    /** Статистика привычки без выполнений */
+    public static final HabitStats EMPTY = new HabitStats(0, 0, 0, 0);
+
+    /** Длина серии выполнений подряд, заканчивающейся последним выполнением */
+    private final int currentStreak;
+
+    /** Длина самой длинной серии выполнений подряд */
+    private final int longestStreak;
+
+    /** Общее число выполнений */
+    private final int totalCompletions;
+
+    /** Серийный номер последнего выполнения или 0, если выполнений нет */
+    private final int lastSerialNumber;
+
+    /**
+     * Конструктор класса HabitStats.
+     *
+     * @param currentStreak Длина серии, заканчивающейся последним выполнением.
+     * @param longestStreak Длина самой длинной серии.
+     * @param totalCompletions Общее число выполнений.
+     * @param lastSerialNumber Серийный номер последнего выполнения.
+     */
+    public HabitStats(int currentStreak, int longestStreak, int totalCompletions, int lastSerialNumber) {
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.totalCompletions = totalCompletions;
+        this.lastSerialNumber = lastSerialNumber;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public int getTotalCompletions() {
+        return totalCompletions;
+    }
+
+    public int getLastSerialNumber() {
+        return lastSerialNumber;
+    }
+}
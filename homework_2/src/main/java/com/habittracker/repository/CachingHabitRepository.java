@@ -0,0 +1,139 @@
+package com.habittracker.repository;
+
+import com.habittracker.config.CacheConfig;
+import com.habittracker.infrastructure.cache.LruCache;
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Репозиторий привычек, кэширующий полный список привычек пользователя поверх другого репозитория.
+ * Списки хранятся в {@link LruCache} по идентификатору пользователя; число пользователей в кэше
+ * ограничено, давно не использованные списки вытесняются.
+ *
+ * <p>Добавление, изменение и удаление привычки сначала записываются в исходный репозиторий,
+ * затем список пользователя удаляется из кэша. Если идентификатор пользователя неизвестен
+ * (пользователь еще не сохранен), чтение идет мимо кэша, а запись очищает кэш целиком.
+ * Отдельные привычки и страницы списка не кэшируются.
+ */
+public class CachingHabitRepository implements HabitRepository {
+    private final HabitRepository delegate;
+    private final LruCache<Integer, List<Habit>> habitsByUserId;
+
+    public CachingHabitRepository(HabitRepository delegate, CacheConfig config) {
+        this(delegate, new LruCache<>(config.getHabitMaxUsers(), config.getHabitTtlMillis()));
+    }
+
+    public CachingHabitRepository(HabitRepository delegate, LruCache<Integer, List<Habit>> habitsByUserId) {
+        this.delegate = delegate;
+        this.habitsByUserId = habitsByUserId;
+    }
+
+    /**
+     * Возвращает кэш списков привычек, например, для просмотра доли попаданий и числа вытеснений.
+     *
+     * @return кэш списков привычек по идентификатору пользователя
+     */
+    public LruCache<Integer, List<Habit>> getCache() {
+        return habitsByUserId;
+    }
+
+    @Override
+    public Habit getHabit(User user, String habitName) {
+        return delegate.getHabit(user, habitName);
+    }
+
+    @Override
+    public boolean addHabit(User user, Habit habit) {
+        boolean added = delegate.addHabit(user, habit);
+        invalidate(user);
+        return added;
+    }
+
+    @Override
+    public boolean updateHabit(User user, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency) {
+        boolean updated = delegate.updateHabit(user, habit, newName, newDescription, newFrequency);
+        invalidate(user);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteHabit(User user, String habit) {
+        boolean deleted = delegate.deleteHabit(user, habit);
+        invalidate(user);
+        return deleted;
+    }
+
+    /**
+     * Возвращает все привычки пользователя из кэша, а при промахе читает их из исходного репозитория.
+     * Вызывающий получает собственную копию списка.
+     *
+     * @param user пользователь, для которого нужно получить список привычек
+     * @return список привычек пользователя
+     */
+    @Override
+    public List<Habit> getAllHabits(User user) {
+        if (user.getId() == 0) {
+            return delegate.getAllHabits(user);
+        }
+        return getAllHabits(user.getId());
+    }
+
+    @Override
+    public List<Habit> getAllHabits(User user, int afterId, int limit) {
+        return delegate.getAllHabits(user, afterId, limit);
+    }
+
+    @Override
+    public Habit getHabit(int userId, String habitName) {
+        return delegate.getHabit(userId, habitName);
+    }
+
+    @Override
+    public boolean addHabit(int userId, Habit habit) {
+        boolean added = delegate.addHabit(userId, habit);
+        habitsByUserId.invalidate(userId);
+        return added;
+    }
+
+    @Override
+    public boolean updateHabit(int userId, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency) {
+        boolean updated = delegate.updateHabit(userId, habit, newName, newDescription, newFrequency);
+        habitsByUserId.invalidate(userId);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteHabit(int userId, String habit) {
+        boolean deleted = delegate.deleteHabit(userId, habit);
+        habitsByUserId.invalidate(userId);
+        return deleted;
+    }
+
+    /**
+     * Возвращает все привычки пользователя с заданным идентификатором из кэша,
+     * а при промахе читает их из исходного репозитория. Вызывающий получает собственную копию списка.
+     *
+     * @param userId идентификатор пользователя
+     * @return список привычек пользователя
+     */
+    @Override
+    public List<Habit> getAllHabits(int userId) {
+        return new ArrayList<>(habitsByUserId.get(userId, delegate::getAllHabits));
+    }
+
+    @Override
+    public List<Habit> getAllHabits(int userId, int afterId, int limit) {
+        return delegate.getAllHabits(userId, afterId, limit);
+    }
+
+    private void invalidate(User user) {
+        if (user.getId() == 0) {
+            habitsByUserId.invalidateAll();
+        } else {
+            habitsByUserId.invalidate(user.getId());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.habittracker.repository;
+
+import com.habittracker.config.CacheConfig;
+import com.habittracker.infrastructure.cache.LruCache;
+import com.habittracker.model.User;
+
+import java.util.List;
+
+/**
+ * Репозиторий пользователей, кэширующий чтение пользователя по email поверх другого репозитория.
+ * Пользователи хранятся в {@link LruCache} с ограничением по числу записей и времени жизни.
+ * Любое изменение пользователя сначала записывается в исходный репозиторий, затем запись
+ * удаляется из кэша, так что следующее чтение снова обращается к базе данных.
+ *
+ * <p>Идентификатор пользователя по email также берется из кэша: пользователь хранит свой идентификатор.
+ * Постраничные списки пользователей не кэшируются.
+ */
+public class CachingUserRepository implements UserRepository {
+    private final UserRepository delegate;
+    private final LruCache<String, User> usersByEmail;
+
+    public CachingUserRepository(UserRepository delegate, CacheConfig config) {
+        this(delegate, new LruCache<>(config.getUserMaxSize(), config.getUserTtlMillis()));
+    }
+
+    public CachingUserRepository(UserRepository delegate, LruCache<String, User> usersByEmail) {
+        this.delegate = delegate;
+        this.usersByEmail = usersByEmail;
+    }
+
+    /**
+     * Возвращает кэш пользователей, например, для просмотра доли попаданий и числа вытеснений.
+     *
+     * @return кэш пользователей по email
+     */
+    public LruCache<String, User> getCache() {
+        return usersByEmail;
+    }
+
+    /**
+     * Возвращает пользователя из кэша, а при промахе читает его из исходного репозитория.
+     * Отсутствующие пользователи не кэшируются.
+     *
+     * @param email адрес электронной почты пользователя
+     * @return объект {@link User}, если пользователь найден, или {@code null}, если пользователя нет
+     */
+    @Override
+    public User getUser(String email) {
+        return usersByEmail.get(email, delegate::getUser);
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        boolean added = delegate.addUser(user);
+        usersByEmail.invalidate(user.getEmail());
+        return added;
+    }
+
+    @Override
+    public boolean updateUser(User user, String newName, String newEmail) {
+        String oldEmail = user.getEmail();
+        boolean updated = delegate.updateUser(user, newName, newEmail);
+        usersByEmail.invalidate(oldEmail);
+        usersByEmail.invalidate(newEmail);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteUser(User user) {
+        boolean deleted = delegate.deleteUser(user);
+        usersByEmail.invalidate(user.getEmail());
+        return deleted;
+    }
+
+    @Override
+    public User updateUserPassword(User user, String newPassword) {
+        User updated = delegate.updateUserPassword(user, newPassword);
+        usersByEmail.invalidate(user.getEmail());
+        return updated;
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public List<User> getAllUsers(int afterId, int limit) {
+        return delegate.getAllUsers(afterId, limit);
+    }
+
+    @Override
+    public List<User> getUsersWithHabits(int afterId, int limit) {
+        return delegate.getUsersWithHabits(afterId, limit);
+    }
+
+    @Override
+    public boolean blockUser(User user, Boolean block) {
+        boolean blocked = delegate.blockUser(user, block);
+        usersByEmail.invalidate(user.getEmail());
+        return blocked;
+    }
+
+    /**
+     * Возвращает идентификатор пользователя по email, используя кэш пользователей.
+     *
+     * @param email адрес электронной почты пользователя
+     * @return идентификатор пользователя, если он найден, иначе {@code null}
+     */
+    @Override
+    public Integer getUserIdByEmail(String email) {
+        User user = getUser(email);
+        return user == null ? null : user.getId();
+    }
+}
@@ -21,6 +21,13 @@ public class HabitCompletionQueries {
     public static final String INSERT_HABIT_COMPLETION =
             "INSERT INTO app_schema.habit_completion (habit_id, serial_number, mark_date) VALUES (?, ?, ?)";
 
+    /**
+     * Запрос для добавления завершения привычки, который пропускает строку,
+     * если завершение с таким серийным номером у привычки уже есть.
+     */
+    public static final String INSERT_HABIT_COMPLETION_IGNORE_CONFLICT =
+            "INSERT INTO app_schema.habit_completion (habit_id, serial_number, mark_date) VALUES (?, ?, ?) ON CONFLICT (habit_id, serial_number) DO NOTHING";
+
     /**
      * Запрос для обновления даты завершения привычки по идентификатору
      * привычки и серийному номеру завершения.
@@ -47,10 +54,93 @@ public class HabitCompletionQueries {
     public static final String SELECT_ALL_HABIT_COMPLETIONS =
             "SELECT * FROM app_schema.habit_completion WHERE habit_id = ?";
 
+    /**
+     * Запрос для чтения истории завершений привычки по возрастанию серийного номера.
+     * Дата возвращается числом дней от 1970-01-01, чтобы драйвер не создавал объекты дат.
+     */
+    public static final String SELECT_HABIT_COMPLETION_HISTORY =
+            "SELECT serial_number, mark_date - DATE '1970-01-01' AS mark_day FROM app_schema.habit_completion WHERE habit_id = ? ORDER BY serial_number";
+
     /**
      * Запрос для выборки завершений привычки по идентификатору привычки
      * и дате завершения, где дата завершения больше или равна указанной.
      */
     public static final String SELECT_ALL_HABIT_COMPLETIONS_BY_DATE =
             "SELECT * FROM app_schema.habit_completion WHERE habit_id = ? AND mark_date >= ?";
+
+    /**
+     * Запрос для подсчета завершений привычки, дата которых больше или равна указанной.
+     */
+    public static final String COUNT_HABIT_COMPLETIONS_BY_DATE =
+            "SELECT count(*) AS completions FROM app_schema.habit_completion WHERE habit_id = ? AND mark_date >= ?";
+
+    /**
+     * Запрос для подсчета завершений каждой привычки пользователя сразу за несколько периодов.
+     * Целые недели периода берутся из недельной сводки habit_completion_weekly, а по строкам
+     * habit_completion считаются только дни до первой целой недели и дни после последней недели
+     * сводки этой привычки, поэтому число читаемых строк не зависит от длины истории.
+     * Завершения, добавленные или удаленные задним числом внутри недель сводки, учитываются
+     * после её обновления. Число завершений за всё время берется из habit_stats.
+     * Параметры: начало дня, начало недели, начало месяца, идентификатор пользователя.
+     * Привычки без завершений в результат не попадают.
+     */
+    public static final String COUNT_HABIT_COMPLETIONS_BY_USER_ID =
+            "WITH periods (period, start_date) AS (VALUES (1, CAST(? AS date)), (2, CAST(? AS date)), (3, CAST(? AS date)))"
+                    + " SELECT h.id AS habit_id,"
+                    + " sum(n.completions) FILTER (WHERE p.period = 1) AS day_count,"
+                    + " sum(n.completions) FILTER (WHERE p.period = 2) AS week_count,"
+                    + " sum(n.completions) FILTER (WHERE p.period = 3) AS month_count,"
+                    + " max(s.total_completions) AS all_time_count"
+                    + " FROM app_schema.habit h"
+                    + " JOIN app_schema.habit_stats s ON s.habit_id = h.id AND s.total_completions > 0"
+                    + " CROSS JOIN LATERAL (SELECT coalesce(max(r.week_start) + 7, DATE '-infinity') AS bound"
+                    + " FROM app_schema.habit_completion_weekly r WHERE r.habit_id = h.id) b"
+                    + " CROSS JOIN periods p"
+                    + " CROSS JOIN LATERAL (SELECT"
+                    + " (SELECT coalesce(sum(r.completions), 0) FROM app_schema.habit_completion_weekly r"
+                    + " WHERE r.habit_id = h.id AND r.week_start >= p.start_date)"
+                    + " + (SELECT count(*) FROM app_schema.habit_completion c WHERE c.habit_id = h.id AND c.mark_date >= p.start_date"
+                    + " AND c.mark_date < least(b.bound, CAST(date_trunc('week', CAST(p.start_date + 6 AS timestamp)) AS date)))"
+                    + " + (SELECT count(*) FROM app_schema.habit_completion c WHERE c.habit_id = h.id"
+                    + " AND c.mark_date >= greatest(b.bound, p.start_date)) AS completions) n"
+                    + " WHERE h.user_id = ? GROUP BY h.id";
+
+    /**
+     * Запрос для выборки последнего (с наибольшим серийным номером) завершения
+     * для каждой привычки из переданного массива идентификаторов.
+     */
+    public static final String SELECT_LAST_HABIT_COMPLETIONS =
+            "SELECT DISTINCT ON (habit_id) * FROM app_schema.habit_completion WHERE habit_id = ANY (?) ORDER BY habit_id, serial_number DESC";
+
+    /**
+     * Запрос для подсчета текущей серии выполнений привычки: начиная с текущего
+     * серийного номера, по индексу ищется выполнение с номером на единицу меньше,
+     * пока не встретится пропуск. Читаются только строки текущей серии.
+     * Параметры: идентификатор привычки, текущий серийный номер, идентификатор привычки.
+     */
+    public static final String SELECT_HABIT_STREAK =
+            "WITH RECURSIVE streak AS ("
+                    + " SELECT serial_number FROM app_schema.habit_completion WHERE habit_id = ? AND serial_number = ?"
+                    + " UNION ALL"
+                    + " SELECT c.serial_number FROM app_schema.habit_completion c JOIN streak s"
+                    + " ON c.habit_id = ? AND c.serial_number = s.serial_number - 1"
+                    + ") SELECT count(*) AS streak FROM streak";
+
+    /**
+     * Запрос для подсчета текущих серий всех привычек пользователя. Текущий серийный номер
+     * каждой привычки вычисляется из её частоты и даты создания относительно переданной даты.
+     * Привычки без выполнения в текущем периоде в результат не попадают.
+     * Параметры: текущая дата, текущая дата, идентификатор пользователя.
+     */
+    public static final String SELECT_HABIT_STREAKS_BY_USER_ID =
+            "WITH RECURSIVE streak AS ("
+                    + " SELECT c.habit_id, c.serial_number FROM app_schema.habit h"
+                    + " JOIN app_schema.habit_completion c ON c.habit_id = h.id AND c.serial_number = CASE h.frequency"
+                    + " WHEN 'DAILY' THEN CAST(? AS date) - h.create_date + 1"
+                    + " ELSE (CAST(? AS date) - h.create_date) / 7 + 1 END"
+                    + " WHERE h.user_id = ?"
+                    + " UNION ALL"
+                    + " SELECT c.habit_id, c.serial_number FROM app_schema.habit_completion c JOIN streak s"
+                    + " ON c.habit_id = s.habit_id AND c.serial_number = s.serial_number - 1"
+                    + ") SELECT habit_id, count(*) AS streak FROM streak GROUP BY habit_id";
 }
@@ -1,11 +1,16 @@
 package com.habittracker.repository;
 
+import com.habittracker.model.CompletionCounts;
+import com.habittracker.model.CompletionVisitor;
 import com.habittracker.model.Habit;
 import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.HabitStats;
 
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Интерфейс для репозитория завершений привычек.
@@ -31,6 +36,28 @@ public interface HabitCompletionRepository {
      */
     boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion);
 
+    /**
+     * Добавляет несколько завершений одной привычки в одной транзакции.
+     * Завершения, порядковый номер которых у привычки уже занят, пропускаются.
+     *
+     * @param habit        Привычка, к которой относятся завершения.
+     * @param completions  Завершения привычки для добавления.
+     * @return Список завершений, пропущенных из-за занятого порядкового номера; пустой, если добавлены все.
+     * @throws IllegalStateException если из-за ошибки базы данных не добавлено ни одно завершение.
+     */
+    List<HabitCompletion> addHabitCompletions(Habit habit, Collection<HabitCompletion> completions);
+
+    /**
+     * Добавляет завершения разных привычек в одной транзакции.
+     * Привычка каждого завершения берется из {@link HabitCompletion#getHabit()}.
+     * Завершения, порядковый номер которых у привычки уже занят, пропускаются.
+     *
+     * @param completions Завершения привычек для добавления.
+     * @return Список завершений, пропущенных из-за занятого порядкового номера; пустой, если добавлены все.
+     * @throws IllegalStateException если из-за ошибки базы данных не добавлено ни одно завершение.
+     */
+    List<HabitCompletion> addHabitCompletions(Collection<HabitCompletion> completions);
+
     /**
      * Обновляет существующее завершение привычки.
      *
@@ -66,6 +93,17 @@ public interface HabitCompletionRepository {
      */
     List<HabitCompletion> getAllHabitCompletion(Habit habit);
 
+    /**
+     * Последовательно передает серийные номера и даты отметки (epoch day) всех завершений привычки
+     * в обработчик по возрастанию серийного номера, не создавая объектов на каждое завершение
+     * и не накапливая историю в памяти. Ресурсы чтения освобождаются до возврата из метода,
+     * в том числе если обработчик выбросил исключение.
+     *
+     * @param habit   Привычка, для которой необходимо прочитать завершения.
+     * @param visitor Обработчик завершений привычки.
+     */
+    void streamHabitCompletionHistory(Habit habit, CompletionVisitor visitor);
+
     /**
      * Получает все завершения привычки по заданной дате.
      *
@@ -74,4 +112,90 @@ public interface HabitCompletionRepository {
      * @return Список завершений привычки для заданной даты.
      */
     List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date);
+
+    /**
+     * Считает завершения привычки начиная с заданной даты, не загружая сами завершения.
+     *
+     * @param habit Привычка, для которой необходимо посчитать завершения.
+     * @param date  Дата, начиная с которой считаются завершения.
+     * @return Число завершений привычки.
+     */
+    int countHabitCompletionsByDate(Habit habit, LocalDate date);
+
+    /**
+     * Считает завершения всех привычек пользователя за несколько периодов за одно обращение к хранилищу.
+     * Завершения, добавленные или удаленные задним числом в прошедших неделях, могут учитываться
+     * только после обновления сводки методом {@link #refreshCompletionRollup()}.
+     *
+     * @param userId     Идентификатор пользователя.
+     * @param dayStart   Дата начала периода "день".
+     * @param weekStart  Дата начала периода "неделя".
+     * @param monthStart Дата начала периода "месяц".
+     * @return Отображение идентификатора привычки в счетчики её завершений;
+     *         привычки без завершений в отображение не попадают.
+     */
+    Map<Integer, CompletionCounts> getHabitCompletionCounts(int userId, LocalDate dayStart, LocalDate weekStart, LocalDate monthStart);
+
+    /**
+     * Получает последнее завершение для каждой из заданных привычек за одно обращение к хранилищу.
+     *
+     * @param habits Привычки, для которых необходимо получить последние завершения.
+     * @return Отображение идентификатора привычки в ее последнее завершение;
+     *         привычки без завершений в отображение не попадают.
+     */
+    Map<Integer, HabitCompletion> getLastHabitCompletions(List<Habit> habits);
+
+    /**
+     * Считает текущую серию выполнений привычки: число выполнений подряд,
+     * заканчивающихся заданным порядковым номером.
+     *
+     * @param habit               Привычка, для которой считается серия.
+     * @param currentSerialNumber Порядковый номер текущего дня или недели.
+     * @return Длина текущей серии; 0, если в текущем периоде привычка не выполнена.
+     */
+    int getHabitStreak(Habit habit, int currentSerialNumber);
+
+    /**
+     * Считает текущие серии выполнений всех привычек пользователя за одно обращение к хранилищу.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param date   Дата, относительно которой определяется текущий период каждой привычки.
+     * @return Отображение идентификатора привычки в длину её текущей серии;
+     *         привычки с нулевой серией в отображение не попадают.
+     */
+    Map<Integer, Integer> getHabitStreaks(int userId, LocalDate date);
+
+    /**
+     * Получает заранее посчитанную статистику привычки одним чтением строки, без обхода завершений.
+     * Статистика обновляется в той же транзакции, что и добавление и удаление завершений.
+     *
+     * @param habit Привычка, для которой необходимо получить статистику.
+     * @return Статистика привычки; {@link HabitStats#EMPTY}, если завершений нет;
+     *         null, если статистику не удалось прочитать.
+     */
+    HabitStats getHabitStats(Habit habit);
+
+    /**
+     * Пересчитывает статистику всех привычек по их завершениям в одной транзакции.
+     * Пока идет пересчет, завершения не изменяются.
+     *
+     * @return true, если статистика была пересчитана; иначе false.
+     */
+    boolean rebuildHabitStats();
+
+    /**
+     * Сравнивает сохраненную статистику привычек с посчитанной по завершениям.
+     *
+     * @return Идентификаторы привычек, статистика которых расходится с завершениями;
+     *         пустой список, если расхождений нет.
+     */
+    List<Integer> checkHabitStats();
+
+    /**
+     * Обновляет недельную сводку завершений, по которой считаются завершения за периоды.
+     * Чтение сводки во время обновления не блокируется.
+     *
+     * @return true, если сводка была обновлена; иначе false.
+     */
+    boolean refreshCompletionRollup();
 }
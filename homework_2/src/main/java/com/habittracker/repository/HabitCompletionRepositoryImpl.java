@@ -1,22 +1,40 @@
 package com.habittracker.repository;
 
-import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
 import com.habittracker.infrastructure.db.DatabaseConnection;
+import com.habittracker.model.CompletionCounts;
+import com.habittracker.model.CompletionVisitor;
 import com.habittracker.model.Habit;
 import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.HabitStats;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
 
 
 
 public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
-    private final DatabaseConfig config;
+    private final ConnectionPool connectionPool;
 
-    public HabitCompletionRepositoryImpl(DatabaseConfig config) {
-        this.config = config;
+    /** Число строк в одном пакете массовой вставки */
+    private final int batchSize;
+
+    /** Число строк, получаемых с сервера за одно обращение при потоковом чтении */
+    private final int fetchSize;
+
+    public HabitCompletionRepositoryImpl(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.batchSize = Math.max(1, connectionPool.getConfig().getBatchSize());
+        this.fetchSize = Math.max(1, connectionPool.getConfig().getFetchSize());
     }
     /**
      * Получает выполнение привычки по заданному серийному номеру для указанной привычки.
@@ -27,7 +45,7 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      */
     @Override
     public HabitCompletion getHabitCompletion(Habit habit, Integer serialNumber) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_HABIT_COMPLETION)) {
 
@@ -45,7 +63,8 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
     }
 
     /**
-     * Добавляет новое выполнение привычки для указанной привычки.
+     * Добавляет новое выполнение привычки для указанной привычки и в той же транзакции
+     * обновляет статистику привычки методом {@link #appendHabitStats}.
      * Если серийный номер уже существует, метод возвращает {@code false}.
      *
      * @param habit привычка {@link Habit}, для которой добавляется выполнение
@@ -55,7 +74,7 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
     @Override
     public boolean addHabitCompletion(Habit habit, HabitCompletion newCompletion) {
 
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.INSERT_HABIT_COMPLETION)) {
 
@@ -63,6 +82,9 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
             statement.setInt(2, newCompletion.getSerialNumber());
             statement.setDate(3, Date.valueOf(newCompletion.getMarkDate()));
             int rowsAffected = statement.executeUpdate();
+            if (rowsAffected > 0) {
+                appendHabitStats(connection, habit.getId(), newCompletion.getSerialNumber());
+            }
             connection.commit();
             return rowsAffected > 0;
         } catch (SQLException e) {
@@ -71,6 +93,84 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
         }
     }
 
+    /**
+     * Добавляет выполнения привычки пакетами по {@code db.batchSize} строк в одной транзакции.
+     * Выполнения с уже занятым серийным номером пропускаются, остальные добавляются.
+     * Статистика привычки пересчитывается в той же транзакции.
+     * При ошибке базы данных транзакция откатывается и не добавляется ни одно выполнение.
+     *
+     * @param habit привычка {@link Habit}, для которой добавляются выполнения
+     * @param completions добавляемые выполнения {@link HabitCompletion}
+     * @return выполнения, пропущенные из-за занятого серийного номера
+     * @throws IllegalStateException если выполнения не удалось добавить из-за ошибки базы данных
+     */
+    @Override
+    public List<HabitCompletion> addHabitCompletions(Habit habit, Collection<HabitCompletion> completions) {
+        return insertCompletions(completions, completion -> habit.getId());
+    }
+
+    /**
+     * Добавляет выполнения разных привычек пакетами по {@code db.batchSize} строк в одной транзакции.
+     * Привычка берется из каждого выполнения. Выполнения с уже занятым серийным номером пропускаются.
+     * Статистика каждой затронутой привычки пересчитывается в той же транзакции.
+     * При ошибке базы данных транзакция откатывается и не добавляется ни одно выполнение.
+     *
+     * @param completions добавляемые выполнения {@link HabitCompletion}
+     * @return выполнения, пропущенные из-за занятого серийного номера
+     * @throws IllegalStateException если выполнения не удалось добавить из-за ошибки базы данных
+     */
+    @Override
+    public List<HabitCompletion> addHabitCompletions(Collection<HabitCompletion> completions) {
+        return insertCompletions(completions, completion -> completion.getHabit().getId());
+    }
+
+    private List<HabitCompletion> insertCompletions(Collection<HabitCompletion> completions, ToIntFunction<HabitCompletion> habitId) {
+        List<HabitCompletion> skipped = new ArrayList<>();
+        if (completions.isEmpty()) {
+            return skipped;
+        }
+
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.INSERT_HABIT_COMPLETION_IGNORE_CONFLICT)) {
+
+            List<HabitCompletion> batch = new ArrayList<>(Math.min(batchSize, completions.size()));
+            Set<Integer> habitIds = new HashSet<>();
+            for (HabitCompletion completion : completions) {
+                int id = habitId.applyAsInt(completion);
+                habitIds.add(id);
+                statement.setInt(1, id);
+                statement.setInt(2, completion.getSerialNumber());
+                statement.setDate(3, Date.valueOf(completion.getMarkDate()));
+                statement.addBatch();
+                batch.add(completion);
+
+                if (batch.size() == batchSize) {
+                    collectSkipped(statement.executeBatch(), batch, skipped);
+                }
+            }
+            if (!batch.isEmpty()) {
+                collectSkipped(statement.executeBatch(), batch, skipped);
+            }
+            if (skipped.size() < completions.size()) {
+                rebuildHabitStats(connection, habitIds);
+            }
+            connection.commit();
+            return skipped;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to add " + completions.size() + " habit completions", e);
+        }
+    }
+
+    private void collectSkipped(int[] rowsAffected, List<HabitCompletion> batch, List<HabitCompletion> skipped) {
+        for (int i = 0; i < rowsAffected.length; i++) {
+            if (rowsAffected[i] == 0) {
+                skipped.add(batch.get(i));
+            }
+        }
+        batch.clear();
+    }
+
     /**
      * Обновляет существующее выполнение привычки по заданному серийному номеру.
      *
@@ -81,7 +181,7 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      */
     @Override
     public boolean updateHabitCompletion(Habit habit, int serialNumber, HabitCompletion updatedCompletion) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.UPDATE_HABIT_COMPLETION)) {
 
@@ -98,7 +198,9 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
     }
 
     /**
-     * Удаляет выполнение привычки по серийному номеру.
+     * Удаляет выполнение привычки по серийному номеру и в той же транзакции пересчитывает
+     * статистику привычки: удаление может разорвать самую длинную серию, а её новую длину
+     * нельзя узнать по одной строке статистики.
      *
      * @param habit привычка {@link Habit}, из которой нужно удалить выполнение
      * @param serialNumber серийный номер выполнения, которое нужно удалить
@@ -106,13 +208,16 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
      */
     @Override
     public boolean deleteHabitCompletion(Habit habit, int serialNumber) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.DELETE_HABIT_COMPLETION)) {
 
             statement.setInt(1, habit.getId());
             statement.setInt(2, serialNumber);
             int rowsAffected = statement.executeUpdate();
+            if (rowsAffected > 0) {
+                rebuildHabitStats(connection, Set.of(habit.getId()));
+            }
             connection.commit();
             return rowsAffected > 0;
         } catch (SQLException e) {
@@ -122,19 +227,21 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
     }
 
     /**
-     * Удаляет все выполнения для указанной привычки.
+     * Удаляет все выполнения для указанной привычки и в той же транзакции пересчитывает её статистику.
+     * Пересчет, а не удаление строки, учитывает выполнения, добавленные одновременно с удалением.
      *
      * @param habit привычка {@link Habit}, для которой нужно удалить все выполнения
      * @return {@code true}, если все выполнения были удалены, или {@code false}, если для привычки нет выполнений
      */
     @Override
     public boolean deleteAllHabitCompletion(Habit habit) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.DELETE_ALL_HABIT_COMPLETION)) {
 
             statement.setInt(1, habit.getId());
             int rowsAffected = statement.executeUpdate();
+            rebuildHabitStats(connection, Set.of(habit.getId()));
             connection.commit();
             return rowsAffected > 0;
         } catch (SQLException e) {
@@ -152,7 +259,7 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
     @Override
     public List<HabitCompletion> getAllHabitCompletion(Habit habit) {
         List<HabitCompletion> completions = new ArrayList<>();
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_ALL_HABIT_COMPLETIONS)) {
 
@@ -170,6 +277,37 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
         return completions;
     }
 
+    /**
+     * Последовательно передает серийные номера и даты отметки выполнений привычки в обработчик.
+     * Дата читается числом дней от 1970-01-01, поэтому на строку не создаются ни {@link Date},
+     * ни {@link LocalDate}, ни {@link HabitCompletion}. Соединение из пула работает без автофиксации,
+     * поэтому при заданном размере выборки драйвер читает результат через курсор на сервере порциями
+     * по {@code fetchSize} строк и не держит в памяти всю историю. Запрос, результат и соединение
+     * закрываются до возврата из метода.
+     *
+     * @param habit привычка {@link Habit}, для которой нужно прочитать выполнения
+     * @param visitor обработчик серийного номера и даты отметки
+     */
+    @Override
+    public void streamHabitCompletionHistory(Habit habit, CompletionVisitor visitor) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_HABIT_COMPLETION_HISTORY)) {
+
+            statement.setFetchSize(fetchSize);
+            statement.setInt(1, habit.getId());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    visitor.accept(resultSet.getInt(1), resultSet.getInt(2));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Получает все выполнения привычки для указанной привычки начиная с указанной даты.
      * Серийный номер вычисляется на основе частоты привычки (ежедневной или еженедельной).
@@ -181,7 +319,7 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
     @Override
     public List<HabitCompletion> getAllHabitCompletionByDate(Habit habit, LocalDate date) {
         List<HabitCompletion> result = new ArrayList<>();
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_ALL_HABIT_COMPLETIONS_BY_DATE)) {
 
@@ -200,6 +338,316 @@ public class HabitCompletionRepositoryImpl implements HabitCompletionRepository{
         return result;
     }
 
+    /**
+     * Получает последнее выполнение для каждой из указанных привычек одним запросом.
+     *
+     * @param habits список привычек {@link Habit}
+     * @return отображение идентификатора привычки в ее последнее выполнение {@link HabitCompletion}
+     */
+    @Override
+    public Map<Integer, HabitCompletion> getLastHabitCompletions(List<Habit> habits) {
+        Map<Integer, HabitCompletion> result = new HashMap<>();
+        if (habits.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, Habit> habitsById = new HashMap<>();
+        for (Habit habit : habits) {
+            habitsById.put(habit.getId(), habit);
+        }
+
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_LAST_HABIT_COMPLETIONS)) {
+
+            statement.setArray(1, connection.createArrayOf("integer", habitsById.keySet().toArray()));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Habit habit = habitsById.get(resultSet.getInt("habit_id"));
+                    result.put(habit.getId(), mapToHabitCompletion(resultSet, habit));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Считает выполнения привычки, дата которых больше или равна указанной.
+     *
+     * @param habit привычка {@link Habit}, для которой считаются выполнения
+     * @param date дата, начиная с которой считаются выполнения
+     * @return число выполнений
+     */
+    @Override
+    public int countHabitCompletionsByDate(Habit habit, LocalDate date) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.COUNT_HABIT_COMPLETIONS_BY_DATE)) {
+
+            statement.setInt(1, habit.getId());
+            statement.setDate(2, Date.valueOf(date));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt("completions");
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Считает выполнения всех привычек пользователя за день, неделю, месяц и всё время одним запросом.
+     * Целые недели берутся из недельной сводки, поэтому запрос читает несколько строк на привычку
+     * независимо от длины её истории.
+     *
+     * @param userId идентификатор пользователя
+     * @param dayStart дата начала периода "день"
+     * @param weekStart дата начала периода "неделя"
+     * @param monthStart дата начала периода "месяц"
+     * @return отображение идентификатора привычки в счетчики {@link CompletionCounts}
+     */
+    @Override
+    public Map<Integer, CompletionCounts> getHabitCompletionCounts(int userId, LocalDate dayStart, LocalDate weekStart, LocalDate monthStart) {
+        Map<Integer, CompletionCounts> result = new HashMap<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.COUNT_HABIT_COMPLETIONS_BY_USER_ID)) {
+
+            statement.setDate(1, Date.valueOf(dayStart));
+            statement.setDate(2, Date.valueOf(weekStart));
+            statement.setDate(3, Date.valueOf(monthStart));
+            statement.setInt(4, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    result.put(resultSet.getInt("habit_id"), new CompletionCounts(
+                            resultSet.getInt("day_count"),
+                            resultSet.getInt("week_count"),
+                            resultSet.getInt("month_count"),
+                            resultSet.getInt("all_time_count")));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Считает текущую серию выполнений привычки одним рекурсивным запросом,
+     * который читает только выполнения текущей серии.
+     *
+     * @param habit привычка {@link Habit}, для которой считается серия
+     * @param currentSerialNumber серийный номер текущего дня или недели
+     * @return длина текущей серии или 0, если в текущем периоде привычка не выполнена
+     */
+    @Override
+    public int getHabitStreak(Habit habit, int currentSerialNumber) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_HABIT_STREAK)) {
+
+            statement.setInt(1, habit.getId());
+            statement.setInt(2, currentSerialNumber);
+            statement.setInt(3, habit.getId());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getInt("streak");
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Считает текущие серии выполнений всех привычек пользователя одним запросом.
+     *
+     * @param userId идентификатор пользователя
+     * @param date дата, относительно которой определяется текущий период привычек
+     * @return отображение идентификатора привычки в длину её текущей серии
+     */
+    @Override
+    public Map<Integer, Integer> getHabitStreaks(int userId, LocalDate date) {
+        Map<Integer, Integer> result = new HashMap<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitCompletionQueries.SELECT_HABIT_STREAKS_BY_USER_ID)) {
+
+            statement.setDate(1, Date.valueOf(date));
+            statement.setDate(2, Date.valueOf(date));
+            statement.setInt(3, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    result.put(resultSet.getInt("habit_id"), resultSet.getInt("streak"));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Читает статистику привычки из таблицы habit_stats по первичному ключу.
+     *
+     * @param habit привычка {@link Habit}, для которой читается статистика
+     * @return статистика {@link HabitStats}, {@link HabitStats#EMPTY}, если строки нет,
+     *         или {@code null} при ошибке базы данных
+     */
+    @Override
+    public HabitStats getHabitStats(Habit habit) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitStatsQueries.SELECT_HABIT_STATS)) {
+
+            statement.setInt(1, habit.getId());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return new HabitStats(
+                            resultSet.getInt("current_streak"),
+                            resultSet.getInt("longest_streak"),
+                            resultSet.getInt("total_completions"),
+                            resultSet.getInt("last_serial_number"));
+                }
+            }
+            return HabitStats.EMPTY;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Пересчитывает статистику всех привычек: блокирует изменение выполнений, удаляет старую
+     * статистику и заполняет её заново одним запросом в одной транзакции.
+     *
+     * @return {@code true}, если статистика пересчитана, или {@code false} при ошибке базы данных
+     */
+    @Override
+    public boolean rebuildHabitStats() {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute(HabitStatsQueries.LOCK_HABIT_COMPLETIONS);
+            statement.executeUpdate(HabitStatsQueries.DELETE_ALL_HABIT_STATS);
+            statement.executeUpdate(HabitStatsQueries.INSERT_ALL_HABIT_STATS);
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Находит привычки, сохраненная статистика которых расходится с посчитанной по выполнениям.
+     *
+     * @return список идентификаторов привычек по возрастанию
+     */
+    @Override
+    public List<Integer> checkHabitStats() {
+        List<Integer> result = new ArrayList<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(HabitStatsQueries.SELECT_INCONSISTENT_HABIT_STATS);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                result.add(resultSet.getInt("habit_id"));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Пересчитывает недельную сводку выполнений habit_completion_weekly по всем выполнениям.
+     *
+     * @return {@code true}, если сводка обновлена, или {@code false} при ошибке базы данных
+     */
+    @Override
+    public boolean refreshCompletionRollup() {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             Statement statement = connection.createStatement()) {
+
+            statement.execute(HabitStatsQueries.REFRESH_HABIT_COMPLETION_WEEKLY);
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Учитывает в статистике привычки только что добавленное выполнение. Если номер больше последнего,
+     * строка обновляется одним запросом; если выполнение добавлено задним числом, оно может соединить
+     * серии, поэтому статистика привычки пересчитывается.
+     */
+    private void appendHabitStats(Connection connection, int habitId, int serialNumber) throws SQLException {
+        lockHabitStats(connection, Set.of(habitId));
+        try (PreparedStatement statement = connection.prepareStatement(HabitStatsQueries.APPEND_HABIT_STATS)) {
+            statement.setInt(1, habitId);
+            statement.setInt(2, serialNumber);
+            if (statement.executeUpdate() > 0) {
+                return;
+            }
+        }
+        computeHabitStats(connection, Set.of(habitId));
+    }
+
+    private void rebuildHabitStats(Connection connection, Set<Integer> habitIds) throws SQLException {
+        lockHabitStats(connection, habitIds);
+        computeHabitStats(connection, habitIds);
+    }
+
+    /**
+     * Блокирует статистику привычек до конца транзакции. Привычки блокируются по возрастанию
+     * идентификатора, чтобы две транзакции с пересекающимися наборами не ждали друг друга.
+     * Расчет статистики нужно выполнять только после блокировки: каждый запрос читает выполнения,
+     * зафиксированные к его началу.
+     */
+    private void lockHabitStats(Connection connection, Set<Integer> habitIds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(HabitStatsQueries.LOCK_HABIT_STATS)) {
+            for (int habitId : new TreeSet<>(habitIds)) {
+                statement.setInt(1, habitId);
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    private void computeHabitStats(Connection connection, Set<Integer> habitIds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(HabitStatsQueries.REBUILD_HABIT_STATS)) {
+            for (int habitId : habitIds) {
+                statement.setInt(1, habitId);
+                statement.setInt(2, habitId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
     private HabitCompletion mapToHabitCompletion(ResultSet resultSet, Habit habit) throws SQLException {
         int serialNumber = resultSet.getInt("serial_number");
         LocalDate markDate = resultSet.getDate("mark_date").toLocalDate();
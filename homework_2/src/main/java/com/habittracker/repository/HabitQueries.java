@@ -38,4 +38,50 @@ public class HabitQueries {
      */
     public static final String SELECT_ALL_HABITS =
             "SELECT * FROM app_schema.habit WHERE user_id = (SELECT id FROM app_schema.user WHERE email = ?)";
-}
\ No newline at end of file
+
+    /**
+     * Запрос для выборки привычки по названию и идентификатору пользователя,
+     * известному заранее.
+     */
+    public static final String SELECT_HABIT_BY_USER_ID =
+            "SELECT * FROM app_schema.habit WHERE user_id = ? AND name = ?";
+
+    /**
+     * Запрос для добавления новой привычки пользователю с известным идентификатором.
+     * Возвращает идентификатор созданной привычки.
+     */
+    public static final String INSERT_HABIT_BY_USER_ID =
+            "INSERT INTO app_schema.habit (name, description, frequency, create_date, user_id) VALUES (?, ?, ?, ?, ?) RETURNING id";
+
+    /**
+     * Запрос для обновления привычки по её названию и идентификатору пользователя.
+     */
+    public static final String UPDATE_HABIT_BY_USER_ID =
+            "UPDATE app_schema.habit SET name = ?, description = ?, frequency = ? WHERE user_id = ? AND name = ?";
+
+    /**
+     * Запрос для удаления привычки по названию и идентификатору пользователя.
+     */
+    public static final String DELETE_HABIT_BY_USER_ID =
+            "DELETE FROM app_schema.habit WHERE user_id = ? AND name = ?";
+
+    /**
+     * Запрос для выборки всех привычек пользователя по его идентификатору.
+     */
+    public static final String SELECT_ALL_HABITS_BY_USER_ID =
+            "SELECT * FROM app_schema.habit WHERE user_id = ?";
+
+    /**
+     * Запрос для выборки страницы привычек пользователя по его email.
+     * Привычки упорядочены по идентификатору, страница начинается после указанного идентификатора.
+     */
+    public static final String SELECT_HABITS_PAGE =
+            "SELECT * FROM app_schema.habit WHERE user_id = (SELECT id FROM app_schema.user WHERE email = ?) AND id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * Запрос для выборки страницы привычек пользователя с известным идентификатором.
+     * Привычки упорядочены по идентификатору, страница начинается после указанного идентификатора.
+     */
+    public static final String SELECT_HABITS_PAGE_BY_USER_ID =
+            "SELECT * FROM app_schema.habit WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?";
+}
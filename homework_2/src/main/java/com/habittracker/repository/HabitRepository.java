@@ -58,4 +58,71 @@ public interface HabitRepository {
      * @return Список привычек пользователя.
      */
     List<Habit> getAllHabits(User user);
+
+    /**
+     * Получает страницу привычек заданного пользователя, упорядоченных по идентификатору.
+     *
+     * @param user    Пользователь, для которого необходимо получить привычки.
+     * @param afterId Идентификатор последней привычки предыдущей страницы; 0 для первой страницы.
+     * @param limit   Максимальное число привычек на странице.
+     * @return Список привычек страницы.
+     */
+    List<Habit> getAllHabits(User user, int afterId, int limit);
+
+    /**
+     * Получает привычку по идентификатору пользователя и имени привычки.
+     *
+     * @param userId     Идентификатор пользователя, которому принадлежит привычка.
+     * @param habitName  Имя привычки, которую необходимо получить.
+     * @return Привычка, если найдена; иначе null.
+     */
+    Habit getHabit(int userId, String habitName);
+
+    /**
+     * Добавляет новую привычку пользователю с заданным идентификатором.
+     *
+     * @param userId Идентификатор пользователя, которому необходимо добавить привычку.
+     * @param habit  Привычка, которую нужно добавить.
+     * @return true, если привычка была успешно добавлена; иначе false.
+     */
+    boolean addHabit(int userId, Habit habit);
+
+    /**
+     * Обновляет существующую привычку пользователя с заданным идентификатором.
+     *
+     * @param userId          Идентификатор пользователя, которому принадлежит привычка.
+     * @param habit           Привычка, которую нужно обновить.
+     * @param newName         Новое имя привычки.
+     * @param newDescription  Новое описание привычки.
+     * @param newFrequency    Новая частота выполнения привычки.
+     * @return true, если привычка была успешно обновлена; иначе false.
+     */
+    boolean updateHabit(int userId, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency);
+
+    /**
+     * Удаляет привычку пользователя с заданным идентификатором по имени привычки.
+     *
+     * @param userId Идентификатор пользователя, которому принадлежит привычка.
+     * @param habit  Имя привычки, которую необходимо удалить.
+     * @return true, если привычка была успешно удалена; иначе false.
+     */
+    boolean deleteHabit(int userId, String habit);
+
+    /**
+     * Получает все привычки пользователя с заданным идентификатором.
+     *
+     * @param userId Идентификатор пользователя, для которого необходимо получить все привычки.
+     * @return Список привычек пользователя.
+     */
+    List<Habit> getAllHabits(int userId);
+
+    /**
+     * Получает страницу привычек пользователя с заданным идентификатором, упорядоченных по идентификатору.
+     *
+     * @param userId  Идентификатор пользователя, для которого необходимо получить привычки.
+     * @param afterId Идентификатор последней привычки предыдущей страницы; 0 для первой страницы.
+     * @param limit   Максимальное число привычек на странице.
+     * @return Список привычек страницы.
+     */
+    List<Habit> getAllHabits(int userId, int afterId, int limit);
 }
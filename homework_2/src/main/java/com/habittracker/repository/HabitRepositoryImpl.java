@@ -1,6 +1,6 @@
 package com.habittracker.repository;
 
-import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
 import com.habittracker.infrastructure.db.DatabaseConnection;
 import com.habittracker.model.Habit;
 import com.habittracker.model.User;
@@ -10,11 +10,16 @@ import java.sql.Date;
 import java.util.*;
 
 
+/**
+ * Реализация {@link HabitRepository} поверх PostgreSQL.
+ * Методы, принимающие {@link User}, обращаются к таблице по {@code user_id}, если идентификатор
+ * пользователя уже известен, и ищут пользователя по email только для несохраненных объектов.
+ */
 public class HabitRepositoryImpl implements HabitRepository{
-    private final DatabaseConfig config;
+    private final ConnectionPool connectionPool;
 
-    public HabitRepositoryImpl(DatabaseConfig config) {
-        this.config = config;
+    public HabitRepositoryImpl(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     /**
@@ -26,7 +31,10 @@ public class HabitRepositoryImpl implements HabitRepository{
      */
     @Override
     public Habit getHabit(User user, String habitName) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        if (user.getId() != 0) {
+            return getHabit(user.getId(), habitName);
+        }
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement stmt = connection.prepareStatement(HabitQueries.SELECT_HABIT)) {
 
@@ -55,7 +63,10 @@ public class HabitRepositoryImpl implements HabitRepository{
      */
     @Override
     public boolean addHabit(User user, Habit newHabit) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        if (user.getId() != 0) {
+            return addHabit(user.getId(), newHabit);
+        }
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement stmt = connection.prepareStatement(HabitQueries.INSERT_HABIT)) {
 
@@ -86,7 +97,10 @@ public class HabitRepositoryImpl implements HabitRepository{
      */
     @Override
     public boolean updateHabit(User user, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency){
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        if (user.getId() != 0) {
+            return updateHabit(user.getId(), habit, newName, newDescription, newFrequency);
+        }
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement stmt = connection.prepareStatement(HabitQueries.UPDATE_HABIT)) {
 
@@ -114,7 +128,10 @@ public class HabitRepositoryImpl implements HabitRepository{
      */
     @Override
     public boolean deleteHabit(User user, String habitName) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        if (user.getId() != 0) {
+            return deleteHabit(user.getId(), habitName);
+        }
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement stmt = connection.prepareStatement(HabitQueries.DELETE_HABIT)) {
 
@@ -138,8 +155,11 @@ public class HabitRepositoryImpl implements HabitRepository{
      */
     @Override
     public List<Habit> getAllHabits(User user) {
+        if (user.getId() != 0) {
+            return getAllHabits(user.getId());
+        }
         List<Habit> habitsList = new ArrayList<>();
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement stmt = connection.prepareStatement(HabitQueries.SELECT_ALL_HABITS)) {
 
@@ -157,6 +177,215 @@ public class HabitRepositoryImpl implements HabitRepository{
         return habitsList;
     }
 
+    /**
+     * Возвращает страницу привычек пользователя, упорядоченных по идентификатору.
+     *
+     * @param user пользователь, для которого нужно получить привычки
+     * @param afterId идентификатор последней привычки предыдущей страницы или 0 для первой страницы
+     * @param limit максимальное число привычек на странице
+     * @return список объектов {@link Habit}, или пустой список, если привычек на странице нет
+     */
+    @Override
+    public List<Habit> getAllHabits(User user, int afterId, int limit) {
+        if (user.getId() != 0) {
+            return getAllHabits(user.getId(), afterId, limit);
+        }
+        List<Habit> habitsList = new ArrayList<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.SELECT_HABITS_PAGE)) {
+
+            stmt.setString(1, user.getEmail());
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+
+            try(ResultSet resultSet = stmt.executeQuery()){
+                while (resultSet.next()) {
+                    habitsList.add(mapRowToHabit(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return habitsList;
+    }
+
+    /**
+     * Возвращает привычку пользователя по её названию и идентификатору пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param habitName название привычки
+     * @return объект {@link Habit}, если привычка найдена, или {@code null}, если привычка отсутствует
+     */
+    @Override
+    public Habit getHabit(int userId, String habitName) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.SELECT_HABIT_BY_USER_ID)) {
+
+            stmt.setInt(1, userId);
+            stmt.setString(2, habitName);
+
+            try(ResultSet resultSet = stmt.executeQuery()){
+                if (resultSet.next()) {
+                    return mapRowToHabit(resultSet);
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Добавляет новую привычку пользователю с известным идентификатором.
+     * После успешного добавления привычке присваивается идентификатор, выданный базой данных.
+     *
+     * @param userId идентификатор пользователя
+     * @param newHabit новая привычка {@link Habit}, которую нужно добавить
+     * @return {@code true}, если привычка была успешно добавлена, иначе {@code false}
+     */
+    @Override
+    public boolean addHabit(int userId, Habit newHabit) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.INSERT_HABIT_BY_USER_ID)) {
+
+            stmt.setString(1, newHabit.getName());
+            stmt.setString(2, newHabit.getDescription());
+            stmt.setString(3, newHabit.getFrequency().toString());
+            stmt.setDate(4, Date.valueOf(newHabit.getCreateDate()));
+            stmt.setInt(5, userId);
+
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                if (resultSet.next()) {
+                    newHabit.setId(resultSet.getInt("id"));
+                    connection.commit();
+                    return true;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Обновляет привычку пользователя с известным идентификатором.
+     *
+     * @param userId идентификатор пользователя
+     * @param habit старая привычка {@link Habit}, которую нужно обновить
+     * @param newName новое название привычки
+     * @param newDescription новое описание привычки
+     * @param newFrequency новая частота привычки {@link Habit.Frequency}
+     * @return {@code true}, если обновление прошло успешно, или {@code false}, если привычка не найдена
+     */
+    @Override
+    public boolean updateHabit(int userId, Habit habit, String newName, String newDescription, Habit.Frequency newFrequency) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.UPDATE_HABIT_BY_USER_ID)) {
+
+            stmt.setString(1, newName);
+            stmt.setString(2, newDescription);
+            stmt.setString(3, newFrequency.toString());
+            stmt.setInt(4, userId);
+            stmt.setString(5, habit.getName());
+
+            int rowsAffected = stmt.executeUpdate();
+            connection.commit();
+            return rowsAffected > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Удаляет привычку пользователя с известным идентификатором по её названию.
+     *
+     * @param userId идентификатор пользователя
+     * @param habitName название привычки, которую нужно удалить
+     * @return {@code true}, если привычка была успешно удалена, или {@code false}, если привычка не найдена
+     */
+    @Override
+    public boolean deleteHabit(int userId, String habitName) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.DELETE_HABIT_BY_USER_ID)) {
+
+            stmt.setInt(1, userId);
+            stmt.setString(2, habitName);
+
+            int rowsAffected = stmt.executeUpdate();
+            connection.commit();
+            return rowsAffected > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Возвращает список всех привычек пользователя по его идентификатору.
+     *
+     * @param userId идентификатор пользователя
+     * @return список объектов {@link Habit}, или пустой список, если у пользователя нет привычек
+     */
+    @Override
+    public List<Habit> getAllHabits(int userId) {
+        List<Habit> habitsList = new ArrayList<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.SELECT_ALL_HABITS_BY_USER_ID)) {
+
+            stmt.setInt(1, userId);
+
+            try(ResultSet resultSet = stmt.executeQuery()){
+                while (resultSet.next()) {
+                    habitsList.add(mapRowToHabit(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return habitsList;
+    }
+
+    /**
+     * Возвращает страницу привычек пользователя с известным идентификатором, упорядоченных по идентификатору.
+     *
+     * @param userId идентификатор пользователя
+     * @param afterId идентификатор последней привычки предыдущей страницы или 0 для первой страницы
+     * @param limit максимальное число привычек на странице
+     * @return список объектов {@link Habit}, или пустой список, если привычек на странице нет
+     */
+    @Override
+    public List<Habit> getAllHabits(int userId, int afterId, int limit) {
+        List<Habit> habitsList = new ArrayList<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(HabitQueries.SELECT_HABITS_PAGE_BY_USER_ID)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+
+            try(ResultSet resultSet = stmt.executeQuery()){
+                while (resultSet.next()) {
+                    habitsList.add(mapRowToHabit(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return habitsList;
+    }
+
     private Habit mapRowToHabit(ResultSet resultSet) throws SQLException {
         Habit habit = new Habit();
         habit.setName(resultSet.getString("name"));
@@ -0,0 +1,129 @@
+package com.habittracker.repository;
+
+/**
+ * Класс, содержащий SQL-запросы для таблицы habit_stats со статистикой привычек
+ * и для недельной сводки выполнений habit_completion_weekly.
+ * Статистика поддерживается в той же транзакции, что и изменение выполнений,
+ * а запросы пересчета строят её заново по таблице habit_completion. Перед изменением статистики
+ * привычки транзакция берет блокировку {@link #LOCK_HABIT_STATS}, поэтому пересчет читает
+ * выполнения уже после того, как все предыдущие изменения статистики этой привычки зафиксированы.
+ * Сводка хранит только завершенные недели и обновляется периодически.
+ */
+public class HabitStatsQueries {
+
+    /**
+     * Статистика каждой привычки, посчитанная по выполнениям: выполнения с серийными номерами подряд
+     * образуют одну серию (разность номера и его порядкового места одинакова внутри серии).
+     * Привычки без выполнений в результат не попадают.
+     */
+    private static final String COMPUTE_ALL_HABIT_STATS =
+            "SELECT habit_id,"
+                    + " (array_agg(run_length ORDER BY run_end DESC))[1] AS current_streak,"
+                    + " max(run_length) AS longest_streak,"
+                    + " sum(run_length) AS total_completions,"
+                    + " max(run_end) AS last_serial_number"
+                    + " FROM (SELECT habit_id, count(*) AS run_length, max(serial_number) AS run_end"
+                    + " FROM (SELECT habit_id, serial_number,"
+                    + " serial_number - row_number() OVER (PARTITION BY habit_id ORDER BY serial_number) AS run"
+                    + " FROM app_schema.habit_completion) c"
+                    + " GROUP BY habit_id, run) runs"
+                    + " GROUP BY habit_id";
+
+    /**
+     * Запрос для чтения статистики привычки по идентификатору привычки.
+     */
+    public static final String SELECT_HABIT_STATS =
+            "SELECT current_streak, longest_streak, total_completions, last_serial_number FROM app_schema.habit_stats WHERE habit_id = ?";
+
+    /**
+     * Запрос для блокировки статистики привычки до конца транзакции (рекомендательная блокировка
+     * с OID таблицы habit_stats в качестве пространства ключей). Одновременные изменения статистики
+     * одной привычки выполняются по очереди, а следующий запрос транзакции видит все изменения,
+     * зафиксированные до получения блокировки.
+     * Параметры: идентификатор привычки.
+     */
+    public static final String LOCK_HABIT_STATS =
+            "SELECT pg_advisory_xact_lock('app_schema.habit_stats'::regclass::oid::int, ?)";
+
+    /**
+     * Запрос для учета выполнения, добавленного после последнего: серия продолжается, если номер
+     * следует сразу за последним, иначе начинается заново. Выполняется под блокировкой
+     * {@link #LOCK_HABIT_STATS}, поэтому одновременные отметки одной привычки применяются по очереди. Если выполнение добавлено
+     * раньше последнего, строка не изменяется и статистику нужно пересчитать запросом
+     * {@link #REBUILD_HABIT_STATS}.
+     * Параметры: идентификатор привычки, серийный номер выполнения.
+     */
+    public static final String APPEND_HABIT_STATS =
+            "INSERT INTO app_schema.habit_stats AS s (habit_id, current_streak, longest_streak, total_completions, last_serial_number)"
+                    + " VALUES (?, 1, 1, 1, ?) ON CONFLICT (habit_id) DO UPDATE SET"
+                    + " current_streak = CASE WHEN s.last_serial_number = EXCLUDED.last_serial_number - 1 THEN s.current_streak + 1 ELSE 1 END,"
+                    + " longest_streak = greatest(s.longest_streak,"
+                    + " CASE WHEN s.last_serial_number = EXCLUDED.last_serial_number - 1 THEN s.current_streak + 1 ELSE 1 END),"
+                    + " total_completions = s.total_completions + 1,"
+                    + " last_serial_number = EXCLUDED.last_serial_number"
+                    + " WHERE s.total_completions = 0 OR s.last_serial_number < EXCLUDED.last_serial_number";
+
+    /**
+     * Запрос для пересчета статистики одной привычки по её выполнениям.
+     * Читает только выполнения этой привычки по индексу (habit_id, serial_number). Выполняется
+     * под блокировкой {@link #LOCK_HABIT_STATS}: иначе он мог бы записать статистику по выполнениям,
+     * прочитанным до фиксации одновременной отметки, поверх уже учтенной ею строки.
+     * Параметры: идентификатор привычки, идентификатор привычки.
+     */
+    public static final String REBUILD_HABIT_STATS =
+            "INSERT INTO app_schema.habit_stats (habit_id, current_streak, longest_streak, total_completions, last_serial_number)"
+                    + " SELECT ?,"
+                    + " coalesce((array_agg(run_length ORDER BY run_end DESC))[1], 0),"
+                    + " coalesce(max(run_length), 0),"
+                    + " coalesce(sum(run_length), 0),"
+                    + " coalesce(max(run_end), 0)"
+                    + " FROM (SELECT count(*) AS run_length, max(serial_number) AS run_end"
+                    + " FROM (SELECT serial_number, serial_number - row_number() OVER (ORDER BY serial_number) AS run"
+                    + " FROM app_schema.habit_completion WHERE habit_id = ?) c"
+                    + " GROUP BY run) runs"
+                    + " ON CONFLICT (habit_id) DO UPDATE SET"
+                    + " current_streak = EXCLUDED.current_streak,"
+                    + " longest_streak = EXCLUDED.longest_streak,"
+                    + " total_completions = EXCLUDED.total_completions,"
+                    + " last_serial_number = EXCLUDED.last_serial_number";
+
+    /**
+     * Запрос, запрещающий изменять выполнения до конца транзакции пересчета всей статистики.
+     */
+    public static final String LOCK_HABIT_COMPLETIONS =
+            "LOCK TABLE app_schema.habit_completion IN SHARE MODE";
+
+    /**
+     * Запрос для удаления статистики всех привычек.
+     */
+    public static final String DELETE_ALL_HABIT_STATS =
+            "DELETE FROM app_schema.habit_stats";
+
+    /**
+     * Запрос для заполнения статистики всех привычек по их выполнениям.
+     */
+    public static final String INSERT_ALL_HABIT_STATS =
+            "INSERT INTO app_schema.habit_stats (habit_id, current_streak, longest_streak, total_completions, last_serial_number) "
+                    + COMPUTE_ALL_HABIT_STATS;
+
+    /**
+     * Запрос для поиска привычек, сохраненная статистика которых расходится с посчитанной по выполнениям.
+     * Строка из одних нулей равносильна отсутствию строки.
+     */
+    public static final String SELECT_INCONSISTENT_HABIT_STATS =
+            "SELECT coalesce(e.habit_id, s.habit_id) AS habit_id FROM (" + COMPUTE_ALL_HABIT_STATS + ") e"
+                    + " FULL JOIN (SELECT * FROM app_schema.habit_stats"
+                    + " WHERE (current_streak, longest_streak, total_completions, last_serial_number) <> (0, 0, 0, 0)) s"
+                    + " ON s.habit_id = e.habit_id"
+                    + " WHERE e.habit_id IS NULL OR s.habit_id IS NULL"
+                    + " OR s.current_streak <> e.current_streak OR s.longest_streak <> e.longest_streak"
+                    + " OR s.total_completions <> e.total_completions OR s.last_serial_number <> e.last_serial_number"
+                    + " ORDER BY 1";
+
+    /**
+     * Запрос для пересчета недельной сводки выполнений. Сводка пересчитывается без блокировки
+     * чтения: до конца обновления запросы видят её предыдущее содержимое.
+     */
+    public static final String REFRESH_HABIT_COMPLETION_WEEKLY =
+            "REFRESH MATERIALIZED VIEW CONCURRENTLY app_schema.habit_completion_weekly";
+}
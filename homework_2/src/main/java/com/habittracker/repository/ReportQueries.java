@@ -0,0 +1,45 @@
+package com.habittracker.repository;
+
+/**
+ * Класс, содержащий SQL-запросы для построения отчетов о привычках.
+ * Этот класс служит хранилищем строковых констант, представляющих
+ * запросы, которые объединяют данные таблиц habit и habit_completion.
+ */
+public class ReportQueries {
+
+    /**
+     * Запрос для выборки всех данных отчета пользователя одной командой: каждая привычка
+     * вместе с текущей серией выполнений (как в {@link HabitCompletionQueries#SELECT_HABIT_STREAKS_BY_USER_ID})
+     * и числом выполнений за день, неделю, месяц и всё время
+     * (как в {@link HabitCompletionQueries#COUNT_HABIT_COMPLETIONS_BY_USER_ID}).
+     * Параметры: текущая дата, текущая дата, идентификатор пользователя, начало дня, начало недели,
+     * начало месяца, идентификатор пользователя, идентификатор пользователя.
+     */
+    public static final String SELECT_HABIT_REPORT =
+            "WITH RECURSIVE streak AS ("
+                    + " SELECT c.habit_id, c.serial_number FROM app_schema.habit h"
+                    + " JOIN app_schema.habit_completion c ON c.habit_id = h.id AND c.serial_number = CASE h.frequency"
+                    + " WHEN 'DAILY' THEN CAST(? AS date) - h.create_date + 1"
+                    + " ELSE (CAST(? AS date) - h.create_date) / 7 + 1 END"
+                    + " WHERE h.user_id = ?"
+                    + " UNION ALL"
+                    + " SELECT c.habit_id, c.serial_number FROM app_schema.habit_completion c JOIN streak s"
+                    + " ON c.habit_id = s.habit_id AND c.serial_number = s.serial_number - 1"
+                    + "), streaks AS ("
+                    + " SELECT habit_id, count(*) AS streak FROM streak GROUP BY habit_id"
+                    + "), counts AS ("
+                    + " SELECT c.habit_id,"
+                    + " count(*) FILTER (WHERE c.mark_date >= ?) AS day_count,"
+                    + " count(*) FILTER (WHERE c.mark_date >= ?) AS week_count,"
+                    + " count(*) FILTER (WHERE c.mark_date >= ?) AS month_count,"
+                    + " count(*) FILTER (WHERE c.mark_date >= h.create_date) AS all_time_count"
+                    + " FROM app_schema.habit h JOIN app_schema.habit_completion c ON c.habit_id = h.id"
+                    + " WHERE h.user_id = ? GROUP BY c.habit_id"
+                    + ") SELECT h.*, COALESCE(s.streak, 0) AS streak,"
+                    + " COALESCE(k.day_count, 0) AS day_count, COALESCE(k.week_count, 0) AS week_count,"
+                    + " COALESCE(k.month_count, 0) AS month_count, COALESCE(k.all_time_count, 0) AS all_time_count"
+                    + " FROM app_schema.habit h"
+                    + " LEFT JOIN streaks s ON s.habit_id = h.id"
+                    + " LEFT JOIN counts k ON k.habit_id = h.id"
+                    + " WHERE h.user_id = ? ORDER BY h.id";
+}
@@ -0,0 +1,26 @@
+package com.habittracker.repository;
+
+import com.habittracker.model.HabitReportRow;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Интерфейс для репозитория отчетов.
+ * Определяет методы для получения данных, необходимых для отчета о привычках пользователя.
+ */
+public interface ReportRepository {
+
+    /**
+     * Передает строки отчета по всем привычкам пользователя в обработчик по мере чтения,
+     * не накапливая их в памяти. Все данные читаются за одно обращение к хранилищу.
+     *
+     * @param userId     Идентификатор пользователя.
+     * @param dayStart   Дата начала периода "день"; относительно неё определяется текущая серия.
+     * @param weekStart  Дата начала периода "неделя".
+     * @param monthStart Дата начала периода "месяц".
+     * @param consumer   Обработчик строк отчета.
+     */
+    void streamHabitReport(int userId, LocalDate dayStart, LocalDate weekStart, LocalDate monthStart,
+                           Consumer<HabitReportRow> consumer);
+}
@@ -0,0 +1,73 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.db.ConnectionPool;
+import com.habittracker.infrastructure.db.DatabaseConnection;
+import com.habittracker.model.CompletionCounts;
+import com.habittracker.model.Habit;
+import com.habittracker.model.HabitReportRow;
+
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+
+public class ReportRepositoryImpl implements ReportRepository {
+    private final ConnectionPool connectionPool;
+
+    public ReportRepositoryImpl(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * Читает данные отчета пользователя одним запросом и передает каждую строку в обработчик.
+     *
+     * @param userId идентификатор пользователя
+     * @param dayStart дата начала периода "день"
+     * @param weekStart дата начала периода "неделя"
+     * @param monthStart дата начала периода "месяц"
+     * @param consumer обработчик строк отчета {@link HabitReportRow}
+     */
+    @Override
+    public void streamHabitReport(int userId, LocalDate dayStart, LocalDate weekStart, LocalDate monthStart,
+                                  Consumer<HabitReportRow> consumer) {
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(ReportQueries.SELECT_HABIT_REPORT)) {
+
+            statement.setDate(1, Date.valueOf(dayStart));
+            statement.setDate(2, Date.valueOf(dayStart));
+            statement.setInt(3, userId);
+            statement.setDate(4, Date.valueOf(dayStart));
+            statement.setDate(5, Date.valueOf(weekStart));
+            statement.setDate(6, Date.valueOf(monthStart));
+            statement.setInt(7, userId);
+            statement.setInt(8, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    consumer.accept(mapRowToReportRow(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private HabitReportRow mapRowToReportRow(ResultSet resultSet) throws SQLException {
+        Habit habit = new Habit();
+        habit.setName(resultSet.getString("name"));
+        habit.setDescription(resultSet.getString("description"));
+        habit.setFrequency(Habit.Frequency.valueOf(resultSet.getString("frequency")));
+        habit.setCreateDate(resultSet.getDate("create_date").toLocalDate());
+        habit.setId(resultSet.getInt("id"));
+
+        CompletionCounts counts = new CompletionCounts(
+                resultSet.getInt("day_count"),
+                resultSet.getInt("week_count"),
+                resultSet.getInt("month_count"),
+                resultSet.getInt("all_time_count"));
+        return new HabitReportRow(habit, resultSet.getInt("streak"), counts);
+    }
+}
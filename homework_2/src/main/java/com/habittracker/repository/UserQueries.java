@@ -2,12 +2,20 @@ package com.habittracker.repository;
 
 public class UserQueries {
     public static final String SELECT_USER_BY_EMAIL = "SELECT * FROM app_schema.user WHERE email = ?";
-    public static final String INSERT_USER = "INSERT INTO app_schema.user (name, email, password, role, is_blocked) VALUES (?, ?, ?, ?, ?)";
+    public static final String INSERT_USER = "INSERT INTO app_schema.user (name, email, password, role, is_blocked) VALUES (?, ?, ?, ?, ?) RETURNING id";
     public static final String UPDATE_USER = "UPDATE app_schema.user SET name = ?, email = ? WHERE email = ?";
     public static final String UPDATE_BLOCK_USER = "UPDATE app_schema.user SET is_blocked = ? WHERE email = ?";
     public static final String DELETE_USER = "DELETE FROM app_schema.user WHERE email = ?";
     public static final String UPDATE_USER_PASSWORD = "UPDATE app_schema.user SET password = ? WHERE email = ?";
     public static final String SELECT_ALL_USERS = "SELECT * FROM app_schema.user WHERE role <> 'ADMIN'";
+    public static final String SELECT_USERS_PAGE = "SELECT * FROM app_schema.user WHERE role <> 'ADMIN' AND id > ? ORDER BY id LIMIT ?";
     public static final String SELECT_USER_ID_BY_EMAIL = "SELECT id FROM app_schema.user WHERE email = ?";
+    public static final String SELECT_USERS_WITH_HABITS_PAGE =
+            "SELECT u.id, u.name, u.email, u.password, u.role, u.is_blocked,"
+                    + " h.id AS habit_id, h.name AS habit_name, h.description AS habit_description,"
+                    + " h.frequency AS habit_frequency, h.create_date AS habit_create_date"
+                    + " FROM (SELECT * FROM app_schema.user WHERE role <> 'ADMIN' AND id > ? ORDER BY id LIMIT ?) u"
+                    + " LEFT JOIN app_schema.habit h ON h.user_id = u.id"
+                    + " ORDER BY u.id, h.id";
 
 }
@@ -62,6 +62,25 @@ public interface UserRepository {
      */
     List<User> getAllUsers();
 
+    /**
+     * Получает страницу пользователей (кроме администраторов), упорядоченных по идентификатору.
+     *
+     * @param afterId Идентификатор последнего пользователя предыдущей страницы; 0 для первой страницы.
+     * @param limit   Максимальное число пользователей на странице.
+     * @return Список пользователей страницы.
+     */
+    List<User> getAllUsers(int afterId, int limit);
+
+    /**
+     * Получает страницу пользователей (кроме администраторов) вместе с их привычками
+     * за одно обращение к хранилищу. Пользователи упорядочены по идентификатору.
+     *
+     * @param afterId Идентификатор последнего пользователя предыдущей страницы; 0 для первой страницы.
+     * @param limit   Максимальное число пользователей на странице.
+     * @return Пользователи страницы с заполненным списком привычек.
+     */
+    List<User> getUsersWithHabits(int afterId, int limit);
+
     /**
      * Блокирует пользователя.
      *
@@ -1,7 +1,8 @@
 package com.habittracker.repository;
 
-import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
 import com.habittracker.infrastructure.db.DatabaseConnection;
+import com.habittracker.model.Habit;
 import com.habittracker.model.User;
 
 import java.util.ArrayList;
@@ -10,10 +11,10 @@ import java.sql.*;
 
 
 public class UserRepositoryImpl implements UserRepository{
-    private final DatabaseConfig config;
+    private final ConnectionPool connectionPool;
 
-    public UserRepositoryImpl(DatabaseConfig config) {
-        this.config = config;
+    public UserRepositoryImpl(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     /**
@@ -24,7 +25,7 @@ public class UserRepositoryImpl implements UserRepository{
      */
     @Override
     public User getUser(String email) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.SELECT_USER_BY_EMAIL)) {
 
@@ -43,13 +44,14 @@ public class UserRepositoryImpl implements UserRepository{
     /**
      * Добавляет нового пользователя в репозиторий.
      * Если пользователь с таким email уже существует, метод возвращает {@code false}.
+     * После успешного добавления пользователю присваивается идентификатор, выданный базой данных.
      *
      * @param user новый пользователь {@link User}, который будет добавлен
      * @return {@code true}, если пользователь был успешно добавлен, или {@code false}, если пользователь с таким email уже существует
      */
     @Override
     public boolean addUser(User user) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.INSERT_USER)) {
 
@@ -59,9 +61,13 @@ public class UserRepositoryImpl implements UserRepository{
             statement.setString(4, user.getRole().name());
             statement.setBoolean(5, user.isBlocked());
 
-            int rowsAffected = statement.executeUpdate();
-            connection.commit();
-            return rowsAffected > 0;
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    user.setId(resultSet.getInt("id"));
+                    connection.commit();
+                    return true;
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -79,7 +85,7 @@ public class UserRepositoryImpl implements UserRepository{
      */
     @Override
     public boolean updateUser(User user, String newName, String newEmail) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.UPDATE_USER)) {
 
@@ -109,7 +115,7 @@ public class UserRepositoryImpl implements UserRepository{
      */
     @Override
     public boolean blockUser(User user, Boolean block) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.UPDATE_BLOCK_USER)) {
 
@@ -132,7 +138,7 @@ public class UserRepositoryImpl implements UserRepository{
      */
     @Override
     public boolean deleteUser(User user) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.DELETE_USER)) {
 
@@ -159,7 +165,7 @@ public class UserRepositoryImpl implements UserRepository{
      */
     @Override
     public User updateUserPassword(User user, String newPassword) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.UPDATE_USER_PASSWORD)) {
 
@@ -184,7 +190,7 @@ public class UserRepositoryImpl implements UserRepository{
     @Override
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement statement = connection.prepareStatement(UserQueries.SELECT_ALL_USERS)) {
 
@@ -200,9 +206,91 @@ public class UserRepositoryImpl implements UserRepository{
         return users;
     }
 
+    /**
+     * Возвращает страницу пользователей, исключая пользователей с ролью ADMIN.
+     * Страница определяется идентификатором последнего пользователя предыдущей страницы,
+     * поэтому её чтение не зависит от общего числа пользователей.
+     *
+     * @param afterId идентификатор последнего пользователя предыдущей страницы или 0 для первой страницы
+     * @param limit максимальное число пользователей на странице
+     * @return список пользователей {@link User} страницы
+     */
+    @Override
+    public List<User> getAllUsers(int afterId, int limit) {
+        List<User> users = new ArrayList<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UserQueries.SELECT_USERS_PAGE)) {
+
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+
+            try(ResultSet resultSet = statement.executeQuery()){
+                while (resultSet.next()) {
+                    users.add(mapRowToUser(resultSet));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return users;
+    }
+
+    /**
+     * Возвращает страницу пользователей (кроме администраторов) вместе с их привычками.
+     * Пользователи и привычки читаются одним запросом с {@code LEFT JOIN}, страница
+     * определяется идентификатором последнего пользователя предыдущей страницы.
+     *
+     * @param afterId идентификатор последнего пользователя предыдущей страницы или 0 для первой страницы
+     * @param limit максимальное число пользователей на странице
+     * @return список пользователей {@link User} с заполненным списком привычек
+     */
+    @Override
+    public List<User> getUsersWithHabits(int afterId, int limit) {
+        List<User> users = new ArrayList<>();
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
+             Connection connection = dbConnection.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UserQueries.SELECT_USERS_WITH_HABITS_PAGE)) {
+
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+
+            try(ResultSet resultSet = statement.executeQuery()){
+                User user = null;
+                while (resultSet.next()) {
+                    if (user == null || user.getId() != resultSet.getInt("id")) {
+                        user = mapRowToUser(resultSet);
+                        user.setHabits(new ArrayList<>());
+                        users.add(user);
+                    }
+                    resultSet.getInt("habit_id");
+                    if (!resultSet.wasNull()) {
+                        user.getHabits().add(mapRowToUserHabit(resultSet, user));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return users;
+    }
+
+    private Habit mapRowToUserHabit(ResultSet resultSet, User user) throws SQLException {
+        Habit habit = new Habit();
+        habit.setId(resultSet.getInt("habit_id"));
+        habit.setName(resultSet.getString("habit_name"));
+        habit.setDescription(resultSet.getString("habit_description"));
+        habit.setFrequency(Habit.Frequency.valueOf(resultSet.getString("habit_frequency")));
+        habit.setCreateDate(resultSet.getDate("habit_create_date").toLocalDate());
+        habit.setUser(user);
+        return habit;
+    }
 
     private User mapRowToUser(ResultSet resultSet) throws SQLException {
         User user = new User();
+        user.setId(resultSet.getInt("id"));
         user.setEmail(resultSet.getString("email"));
         user.setName(resultSet.getString("name"));
         user.setPassword(resultSet.getString("password"));
@@ -213,7 +301,7 @@ public class UserRepositoryImpl implements UserRepository{
 
     @Override
     public Integer getUserIdByEmail(String email) {
-        try (DatabaseConnection dbConnection = new DatabaseConnection(config);
+        try (DatabaseConnection dbConnection = new DatabaseConnection(connectionPool);
              Connection connection = dbConnection.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(UserQueries.SELECT_USER_ID_BY_EMAIL)) {
 
@@ -1,5 +1,6 @@
 package com.habittracker.service;
 
+import com.habittracker.model.CompletionVisitor;
 import com.habittracker.model.Habit;
 import com.habittracker.model.HabitCompletion;
 import com.habittracker.repository.HabitCompletionRepository;
@@ -76,5 +77,18 @@ public class HabitCompletionService {
         }
         return habitCompletionRepository.getAllHabitCompletion(habit);
     }
-}
 
+    /**
+     * Последовательно передает серийные номера и даты отметки завершений привычки в обработчик,
+     * не создавая объектов на каждое завершение. Если привычка является {@code null}, обработчик не вызывается.
+     *
+     * @param habit привычка, для которой нужно прочитать завершения
+     * @param visitor обработчик серийного номера и даты отметки (epoch day)
+     */
+    public void streamHabitCompletionHistory(Habit habit, CompletionVisitor visitor) {
+        if(habit == null){
+            return;
+        }
+        habitCompletionRepository.streamHabitCompletionHistory(habit, visitor);
+    }
+}
@@ -1,7 +1,9 @@
 package com.habittracker.service;
 
+import com.habittracker.model.CompletionCounts;
 import com.habittracker.model.Habit;
 import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.HabitStats;
 import com.habittracker.model.User;
 
 import com.habittracker.repository.HabitCompletionRepository;
@@ -15,6 +17,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -77,6 +80,18 @@ public class HabitService {
         return habitRepository.getAllHabits(user);
     }
 
+    /**
+     * Возвращает страницу привычек указанного пользователя, упорядоченных по идентификатору.
+     *
+     * @param user пользователь, для которого нужно получить привычки
+     * @param afterId идентификатор последней привычки предыдущей страницы или 0 для первой страницы
+     * @param limit максимальное число привычек на странице
+     * @return список привычек страницы
+     */
+    public List<Habit> getAllHabits(User user, int afterId, int limit) {
+        return habitRepository.getAllHabits(user, afterId, limit);
+    }
+
     /**
      * Обновляет существующую привычку пользователя с новыми данными.
      *
@@ -117,27 +132,33 @@ public class HabitService {
     /**
      * Возвращает список доступных для выполнения привычек, основываясь на их частоте и завершениях.
      * Ежедневные привычки доступны, если они не были выполнены сегодня. Еженедельные привычки доступны, если они не были выполнены на этой неделе.
+     * Последние выполнения всех привычек загружаются одним запросом.
      *
      * @param habitList список привычек
      * @return список доступных привычек
      */
     public List<Habit> getAvailableHabits(List<Habit> habitList) {
         List<Habit> availableHabits = new ArrayList<>();
+        if (habitList.isEmpty()) {
+            return availableHabits;
+        }
+
+        Map<Integer, HabitCompletion> lastCompletions = habitCompletionRepository.getLastHabitCompletions(habitList);
 
         for(Habit habit : habitList){
-            List<HabitCompletion> habitCompletions = habitCompletionRepository.getAllHabitCompletion(habit);
+            HabitCompletion lastCompletion = lastCompletions.get(habit.getId());
 
             if(habit.getFrequency() == Habit.Frequency.DAILY){
 
-                if( habitCompletions.isEmpty() || !(habitCompletions.get(habitCompletions.size() - 1).getMarkDate().isEqual(LocalDate.now())) ){
+                if( lastCompletion == null || !(lastCompletion.getMarkDate().isEqual(LocalDate.now())) ){
                     availableHabits.add(habit);
                 }
 
             } else {
-                if( habitCompletions.isEmpty() ){
+                if( lastCompletion == null ){
                     availableHabits.add(habit);
                 } else {
-                    int lastWeekCompletion = habitCompletions.get(habitCompletions.size() - 1).getSerialNumber();
+                    int lastWeekCompletion = lastCompletion.getSerialNumber();
                     int todayWeek = (int) ChronoUnit.WEEKS.between(habit.getCreateDate(), LocalDate.now()) + 1;
                     if( !(todayWeek == lastWeekCompletion) ){
                         availableHabits.add(habit);
@@ -151,52 +172,69 @@ public class HabitService {
 
     /**
      * Подсчитывает текущую серию успешных выполнений привычки.
-     * Метод проверяет последовательные выполненные привычки начиная с последнего дня или недели.
+     * Серия берется из статистики привычки одним чтением строки: если последнее выполнение
+     * приходится на текущий день или неделю, серия равна серии последнего выполнения, иначе 0.
+     * Если статистика недоступна или есть выполнения позже текущего периода, серия считается
+     * в базе данных начиная с текущего дня или недели и до первого пропуска.
      *
      * @param habit привычка, для которой нужно подсчитать серию
      * @return количество дней или недель в серии
      */
     public int countHabitStreak(Habit habit){
-        int result = 0;
         int currentSerialNumber;
         if(habit.getFrequency().equals(Habit.Frequency.DAILY)){
             currentSerialNumber = (int) ChronoUnit.DAYS.between(habit.getCreateDate(), LocalDate.now()) + 1;
         } else {
             currentSerialNumber = (int) ChronoUnit.WEEKS.between(habit.getCreateDate(), LocalDate.now()) + 1;
         }
-        List<HabitCompletion> habitCompletions = habitCompletionRepository.getAllHabitCompletion(habit);
-        List<HabitCompletion> sortedCompletions = habitCompletions.stream()
-                .sorted(Comparator.comparingInt(HabitCompletion::getSerialNumber).reversed())
-                .collect(Collectors.toList());
-        for(HabitCompletion comp : sortedCompletions){
-            if(comp.getSerialNumber() == currentSerialNumber){
-                result++;
-                currentSerialNumber--;
-            } else {
-                break;
-            }
+        HabitStats stats = habitCompletionRepository.getHabitStats(habit);
+        if (stats != null && stats.getLastSerialNumber() <= currentSerialNumber) {
+            return stats.getLastSerialNumber() == currentSerialNumber ? stats.getCurrentStreak() : 0;
         }
+        return habitCompletionRepository.getHabitStreak(habit, currentSerialNumber);
+    }
 
-        return result;
+    /**
+     * Подсчитывает текущие серии успешных выполнений всех привычек пользователя одним запросом.
+     *
+     * @param user пользователь, для привычек которого нужно подсчитать серии
+     * @return отображение идентификатора привычки в количество дней или недель в серии;
+     *         привычки без текущей серии в отображение не попадают
+     */
+    public Map<Integer, Integer> countHabitStreaks(User user) {
+        return habitCompletionRepository.getHabitStreaks(user.getId(), LocalDate.now());
     }
 
     /**
      * Рассчитывает процент выполнения привычки за указанный период.
      * Подсчитывает количество успешных завершений привычки и делит на максимальное возможное количество завершений.
+     * Если период начинается не позже создания привычки, число завершений берется из статистики привычки.
      *
      * @param startDate начальная дата периода
      * @param habit привычка, для которой рассчитывается процент выполнения
      * @return процент успешных выполнений привычки за указанный период
      */
     public int countPercentage(LocalDate startDate, Habit habit) {
-        double percentage = 0;
-        List<HabitCompletion> habitCompletions = habitCompletionRepository.getAllHabitCompletionByDate(habit, startDate);
-
-        if(habitCompletions == null){
-            return 0;
+        if (!startDate.isAfter(habit.getCreateDate())) {
+            HabitStats stats = habitCompletionRepository.getHabitStats(habit);
+            if (stats != null) {
+                return countPercentage(startDate, habit, stats.getTotalCompletions());
+            }
         }
+        int count = habitCompletionRepository.countHabitCompletionsByDate(habit, startDate);
+        return countPercentage(startDate, habit, count);
+    }
 
-        int count = habitCompletions.size();
+    /**
+     * Рассчитывает процент выполнения привычки за указанный период по уже известному числу выполнений,
+     * например, полученному из {@link #countHabitCompletions(User)}.
+     *
+     * @param startDate начальная дата периода
+     * @param habit привычка, для которой рассчитывается процент выполнения
+     * @param count число выполнений привычки начиная с {@code startDate}
+     * @return процент успешных выполнений привычки за указанный период
+     */
+    public int countPercentage(LocalDate startDate, Habit habit, int count) {
         LocalDate createDate = habit.getCreateDate();
 
         int max;
@@ -215,10 +253,42 @@ public class HabitService {
                 max = currentSerialNumber - serialNumberByDate;
             }
         }
-        percentage = (double) count / max;
+        if (max <= 0) {
+            return 0;
+        }
+        double percentage = (double) count / max;
         return (int) Math.round(percentage * 100);
+    }
 
+    /**
+     * Подсчитывает выполнения всех привычек пользователя за сегодня, последнюю неделю,
+     * последний месяц и всё время одним запросом.
+     *
+     * @param user пользователь, для привычек которого считаются выполнения
+     * @return отображение идентификатора привычки в счетчики выполнений;
+     *         привычки без выполнений в отображение не попадают
+     */
+    public Map<Integer, CompletionCounts> countHabitCompletions(User user) {
+        LocalDate today = LocalDate.now();
+        return habitCompletionRepository.getHabitCompletionCounts(user.getId(), today, today.minusWeeks(1), today.minusMonths(1));
     }
-}
 
+    /**
+     * Пересчитывает статистику всех привычек по их выполнениям, например после
+     * загрузки выполнений в обход приложения или найденного расхождения.
+     *
+     * @return true, если статистика была пересчитана
+     */
+    public boolean rebuildHabitStats() {
+        return habitCompletionRepository.rebuildHabitStats();
+    }
 
+    /**
+     * Проверяет, что статистика привычек совпадает с посчитанной по выполнениям.
+     *
+     * @return идентификаторы привычек с расхождениями; пустой список, если расхождений нет
+     */
+    public List<Integer> checkHabitStats() {
+        return habitCompletionRepository.checkHabitStats();
+    }
+}
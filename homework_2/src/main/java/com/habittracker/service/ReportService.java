@@ -0,0 +1,128 @@
+package com.habittracker.service;
+
+import com.habittracker.model.CompletionCounts;
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+import com.habittracker.repository.ReportRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Класс {@code ReportService} формирует текстовый отчет о выполнении привычек пользователя.
+ * Данные отчета читаются из {@link ReportRepository} одним запросом и записываются в поток по мере чтения.
+ * История выполнений привычек также пишется в поток по мере чтения, не накапливаясь в памяти.
+ */
+public class ReportService {
+
+    /**
+     * Репозиторий отчетов, который используется для получения данных отчета.
+     */
+    private final ReportRepository reportRepository;
+
+    /**
+     * Сервис привычек, который используется для расчёта процента выполнения.
+     */
+    private final HabitService habitService;
+
+    /**
+     * Сервис выполнений привычек, который используется для чтения истории выполнений.
+     */
+    private final HabitCompletionService habitCompletionService;
+
+    /**
+     * Конструктор класса ReportService.
+     *
+     * @param reportRepository Репозиторий отчетов, который будет использоваться в сервисе.
+     * @param habitService Сервис привычек, который будет использоваться для расчёта процентов.
+     * @param habitCompletionService Сервис выполнений привычек, который будет использоваться для чтения истории.
+     */
+    public ReportService(ReportRepository reportRepository, HabitService habitService, HabitCompletionService habitCompletionService) {
+        this.reportRepository = reportRepository;
+        this.habitService = habitService;
+        this.habitCompletionService = habitCompletionService;
+    }
+
+    /**
+     * Записывает отчет пользователя: для каждой привычки текущую серию и процент выполнения
+     * за всё время, за сегодня, за последнюю неделю и за последний месяц.
+     *
+     * @param user пользователь, для которого формируется отчет
+     * @param writer поток, в который записывается отчет
+     * @throws IOException если не удалось записать отчет
+     */
+    public void writeReport(User user, Writer writer) throws IOException {
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.minusWeeks(1);
+        LocalDate monthStart = today.minusMonths(1);
+
+        writer.write("Hello, " + user.getName() + "!\n");
+        writer.write("This is your report on keeping your habits:\n");
+
+        boolean[] hasHabits = {false};
+        try {
+            reportRepository.streamHabitReport(user.getId(), today, weekStart, monthStart, row -> {
+                hasHabits[0] = true;
+                Habit habit = row.getHabit();
+                CompletionCounts counts = row.getCounts();
+                try {
+                    writer.write(habit.getFrequency() + " habbit " + habit.getName() + ":\n");
+                    writer.write("   Current streak: " + row.getStreak() + "\n");
+                    writer.write("   For all time fulfilled " + habitService.countPercentage(habit.getCreateDate(), habit, counts.getAllTime()) + "% \n");
+                    writer.write("   Today's accomplished " + habitService.countPercentage(today, habit, counts.getDay()) + "% \n");
+                    writer.write("   In the last week, accomplished " + habitService.countPercentage(weekStart, habit, counts.getWeek()) + "% \n");
+                    writer.write("   In the last month, accomplished " + habitService.countPercentage(monthStart, habit, counts.getMonth()) + "% \n\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (!hasHabits[0]) {
+            writer.write("You don't have habits.");
+        }
+        writer.write("Good luck!\n");
+    }
+
+    /**
+     * Записывает историю выполнения всех привычек пользователя: для каждой привычки
+     * пронумерованный список дат выполнения. Выполнения читаются потоком серийных номеров и дат
+     * без объекта на каждое выполнение и сразу пишутся в {@code writer}.
+     *
+     * @param user пользователь, историю привычек которого нужно записать
+     * @param writer поток, в который записывается история
+     * @throws IOException если не удалось записать историю
+     */
+    public void writeHistory(User user, Writer writer) throws IOException {
+        List<Habit> habits = habitService.getAllHabits(user);
+        if (habits.isEmpty()) {
+            writer.write("You don't have habits.\n");
+            return;
+        }
+
+        for (Habit habit : habits) {
+            writer.write("Habit: " + habit.getName() + ": \n");
+            int[] count = {0};
+            try {
+                habitCompletionService.streamHabitCompletionHistory(habit, (serialNumber, markDay) -> {
+                    count[0]++;
+                    try {
+                        writer.write("   " + count[0] + ". " + LocalDate.ofEpochDay(markDay) + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (count[0] == 0) {
+                writer.write("   There are no fulfillment marks.\n");
+            }
+        }
+    }
+}
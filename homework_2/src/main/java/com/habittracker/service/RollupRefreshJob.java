@@ -0,0 +1,62 @@
+package com.habittracker.service;
+
+import com.habittracker.repository.HabitCompletionRepository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновое обновление недельной сводки выполнений, по которой считается процент выполнения
+ * привычек за день, неделю и месяц.
+ *
+ * <p>Сводка хранит только завершенные недели, а текущая неделя всегда читается из выполнений,
+ * поэтому редкое обновление влияет лишь на выполнения, измененные задним числом.
+ * Первое обновление выполняется сразу при запуске, чтобы сводка догнала выполнения,
+ * добавленные, пока приложение не работало.
+ */
+public class RollupRefreshJob implements AutoCloseable {
+    private final HabitCompletionRepository habitCompletionRepository;
+
+    /** Поток обновления; {@code null}, если обновление отключено */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Создает задачу и запускает обновление сводки с заданным интервалом.
+     *
+     * @param habitCompletionRepository репозиторий, обновляющий сводку
+     * @param intervalMillis интервал между обновлениями (мс); 0 или меньше отключает обновление
+     */
+    public RollupRefreshJob(HabitCompletionRepository habitCompletionRepository, long intervalMillis) {
+        this.habitCompletionRepository = habitCompletionRepository;
+        if (intervalMillis <= 0) {
+            this.scheduler = null;
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rollup-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Обновляет сводку в текущем потоке.
+     *
+     * @return true, если сводка была обновлена
+     */
+    public boolean refresh() {
+        return habitCompletionRepository.refreshCompletionRollup();
+    }
+
+    /**
+     * Останавливает фоновое обновление. Уже начатое обновление прерывается.
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -122,4 +122,26 @@ public class UserService {
     public List<User> getAllUsers(){
         return userRepository.getAllUsers();
     }
+
+    /**
+     * Возвращает страницу пользователей, за исключением администраторов, упорядоченных по идентификатору.
+     *
+     * @param afterId идентификатор последнего пользователя предыдущей страницы или 0 для первой страницы.
+     * @param limit   максимальное число пользователей на странице.
+     * @return пользователи страницы.
+     */
+    public List<User> getAllUsers(int afterId, int limit) {
+        return userRepository.getAllUsers(afterId, limit);
+    }
+
+    /**
+     * Возвращает страницу пользователей (кроме администраторов) вместе с их привычками.
+     *
+     * @param afterId идентификатор последнего пользователя предыдущей страницы или 0 для первой страницы.
+     * @param limit   максимальное число пользователей на странице.
+     * @return пользователи страницы с заполненным списком привычек.
+     */
+    public List<User> getUsersWithHabits(int afterId, int limit) {
+        return userRepository.getUsersWithHabits(afterId, limit);
+    }
 }
\ No newline at end of file
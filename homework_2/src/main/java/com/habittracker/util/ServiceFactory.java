@@ -1,48 +1,76 @@
 package com.habittracker.util;
 
+import com.habittracker.config.CacheConfig;
 import com.habittracker.config.DatabaseConfig;
 import com.habittracker.controller.MenuController;
+import com.habittracker.infrastructure.db.ConnectionPool;
 import com.habittracker.repository.*;
 import com.habittracker.service.HabitCompletionService;
 import com.habittracker.service.HabitService;
+import com.habittracker.service.ReportService;
+import com.habittracker.service.RollupRefreshJob;
 import com.habittracker.service.UserService;
 
 import java.sql.Connection;
 
 public class ServiceFactory {
     private final DatabaseConfig config;
+    private final CacheConfig cacheConfig;
+    private ConnectionPool connectionPool;
     private UserRepository userRepository;
     private HabitRepository habitRepository;
     private HabitCompletionRepository habitCompletionRepository;
+    private ReportRepository reportRepository;
     private UserService userService;
     private HabitService habitService;
     private HabitCompletionService habitCompletionService;
+    private ReportService reportService;
+    private RollupRefreshJob rollupRefreshJob;
 
     public ServiceFactory(DatabaseConfig config) {
+        this(config, new CacheConfig());
+    }
+
+    public ServiceFactory(DatabaseConfig config, CacheConfig cacheConfig) {
         this.config = config;
+        this.cacheConfig = cacheConfig;
+    }
+
+    public ConnectionPool getConnectionPool() {
+        if (connectionPool == null) {
+            connectionPool = new ConnectionPool(config);
+        }
+        return connectionPool;
     }
 
     public UserRepository getUserRepository() {
         if (userRepository == null) {
-            userRepository = new UserRepositoryImpl(config);
+            userRepository = new CachingUserRepository(new UserRepositoryImpl(getConnectionPool()), cacheConfig);
         }
         return userRepository;
     }
 
     public HabitRepository getHabitRepository() {
         if (habitRepository == null) {
-            habitRepository = new HabitRepositoryImpl(config);
+            habitRepository = new CachingHabitRepository(new HabitRepositoryImpl(getConnectionPool()), cacheConfig);
         }
         return habitRepository;
     }
 
     public HabitCompletionRepository getHabitCompletionRepository() {
         if (habitCompletionRepository == null) {
-            habitCompletionRepository = new HabitCompletionRepositoryImpl(config);
+            habitCompletionRepository = new HabitCompletionRepositoryImpl(getConnectionPool());
         }
         return habitCompletionRepository;
     }
 
+    public ReportRepository getReportRepository() {
+        if (reportRepository == null) {
+            reportRepository = new ReportRepositoryImpl(getConnectionPool());
+        }
+        return reportRepository;
+    }
+
     public UserService getUserService() {
         if (userService == null) {
             userService = new UserService(getUserRepository());
@@ -64,7 +92,21 @@ public class ServiceFactory {
         return habitCompletionService;
     }
 
+    public ReportService getReportService() {
+        if (reportService == null) {
+            reportService = new ReportService(getReportRepository(), getHabitService(), getHabitCompletionService());
+        }
+        return reportService;
+    }
+
+    public RollupRefreshJob getRollupRefreshJob() {
+        if (rollupRefreshJob == null) {
+            rollupRefreshJob = new RollupRefreshJob(getHabitCompletionRepository(), config.getRollupRefreshIntervalMillis());
+        }
+        return rollupRefreshJob;
+    }
+
     public MenuController getMenuController() {
-        return new MenuController(getUserService(), getHabitService(), getHabitCompletionService());
+        return new MenuController(getUserService(), getHabitService(), getHabitCompletionService(), getReportService());
     }
 }
@@ -0,0 +1,130 @@
+package com.habittracker.infrastructure.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование LRU-кэша с временем жизни записей")
+class LruCacheTest {
+    private AtomicLong now;
+    private LruCache<String, Integer> cache;
+
+    @BeforeEach
+    public void setUp() {
+        now = new AtomicLong(1_000);
+        cache = new LruCache<>(2, 100, now::get);
+    }
+
+    @Test
+    @DisplayName("Проверка вытеснения давно не использованной записи")
+    public void testPut_EvictsLeastRecentlyUsed() {
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Проверка истечения времени жизни записи")
+    public void testGet_Expired() {
+        cache.put("a", 1);
+        now.addAndGet(99);
+        assertEquals(1, cache.get("a"));
+
+        now.addAndGet(1);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Проверка загрузки при промахе и подсчета попаданий")
+    public void testGet_LoadsOnMiss() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.get("a", key -> loads.incrementAndGet()));
+        assertEquals(1, cache.get("a", key -> loads.incrementAndGet()));
+        assertEquals(1, cache.get("a", key -> loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Проверка того, что отсутствующее значение не кэшируется")
+    public void testGet_NullNotCached() {
+        assertNull(cache.get("a", key -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Проверка того, что значение, загруженное до инвалидации, не попадает в кэш")
+    public void testGet_InvalidatedDuringLoad() {
+        Integer loaded = cache.get("a", key -> {
+            cache.invalidate("a");
+            return 1;
+        });
+
+        assertEquals(1, loaded);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    @DisplayName("Проверка отключенного кэша")
+    public void testPut_Disabled() {
+        LruCache<String, Integer> disabled = new LruCache<>(0, 100, now::get);
+        disabled.put("a", 1);
+
+        assertNull(disabled.get("a"));
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    @DisplayName("Проверка одновременного доступа из нескольких потоков")
+    public void testConcurrentAccess() throws Exception {
+        LruCache<Integer, Integer> shared = new LruCache<>(64, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int seed = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = (i * 31 + seed) % 128;
+                        Integer value = shared.get(key, k -> k * 2);
+                        assertEquals(key * 2, value);
+                        if (i % 100 == 0) {
+                            shared.invalidate(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(shared.size() <= 64);
+        assertEquals(80_000, shared.getHits() + shared.getMisses());
+    }
+}
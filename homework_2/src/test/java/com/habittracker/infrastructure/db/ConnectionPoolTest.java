@@ -0,0 +1,176 @@
+package com.habittracker.infrastructure.db;
+
+import com.habittracker.config.DatabaseConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование пула соединений")
+class ConnectionPoolTest {
+    private static final String URL = "jdbc:pooltest:";
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool connectionPool;
+
+    @BeforeAll
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(new FakeDriver());
+    }
+
+    @BeforeEach
+    public void setUp() {
+        FakeDriver.opened.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка ожидания свободного соединения не дольше заданного времени")
+    public void testGetConnection_TimesOutWhenPoolIsExhausted() throws Exception {
+        connectionPool = new ConnectionPool(config("db.pool.minSize=0", "db.pool.maxSize=1", "db.pool.acquireTimeoutMs=100"));
+        Connection first = connectionPool.getConnection();
+
+        long start = System.nanoTime();
+        assertThrows(SQLTimeoutException.class, () -> connectionPool.getConnection());
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(waitedMillis >= 90, "waited " + waitedMillis + " ms");
+
+        first.close();
+        try (Connection second = connectionPool.getConnection()) {
+            assertNotNull(second);
+        }
+        assertEquals(1, FakeDriver.opened.size());
+    }
+
+    @Test
+    @DisplayName("Проверка замены неисправного соединения при выдаче из пула")
+    public void testGetConnection_ReplacesInvalidConnection() throws Exception {
+        connectionPool = new ConnectionPool(config("db.pool.minSize=0", "db.pool.maxSize=2"));
+        connectionPool.getConnection().close();
+        Connection broken = FakeDriver.opened.get(0);
+        when(broken.isValid(anyInt())).thenReturn(false);
+
+        try (Connection connection = connectionPool.getConnection()) {
+            assertNotNull(connection);
+        }
+
+        assertEquals(2, FakeDriver.opened.size());
+        verify(broken).close();
+        verify(FakeDriver.opened.get(1), never()).close();
+        assertEquals(1, connectionPool.getTotalConnections());
+        assertEquals(1, connectionPool.getIdleConnections());
+    }
+
+    @Test
+    @DisplayName("Проверка закрытия простаивающих соединений сверх минимума")
+    public void testMaintain_EvictsIdleConnectionsDownToMinSize() throws Exception {
+        connectionPool = new ConnectionPool(config("db.pool.minSize=1", "db.pool.maxSize=3",
+                "db.pool.idleTimeoutMs=50", "db.pool.evictionIntervalMs=20"));
+        Connection first = connectionPool.getConnection();
+        Connection second = connectionPool.getConnection();
+        Connection third = connectionPool.getConnection();
+        first.close();
+        second.close();
+        third.close();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (connectionPool.getTotalConnections() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, connectionPool.getTotalConnections());
+        assertEquals(1, connectionPool.getIdleConnections());
+        long closed = FakeDriver.opened.stream().filter(ConnectionPoolTest::isClosed).count();
+        assertEquals(FakeDriver.opened.size() - 1, closed);
+    }
+
+    private DatabaseConfig config(String... entries) throws IOException {
+        Path file = tempDir.resolve("pool.properties");
+        List<String> lines = new ArrayList<>(List.of("db.url=" + URL, "db.pool.evictionIntervalMs=60000"));
+        lines.addAll(List.of(entries));
+        Files.write(file, lines);
+        return new DatabaseConfig(file.toString());
+    }
+
+    private static boolean isClosed(Connection connection) {
+        return mockingDetails(connection).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("close"));
+    }
+
+    /**
+     * Драйвер, открывающий вместо соединений с базой данных заглушки, исправные до явной настройки.
+     */
+    public static class FakeDriver implements Driver {
+        static final List<Connection> opened = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            opened.add(connection);
+            return connection;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
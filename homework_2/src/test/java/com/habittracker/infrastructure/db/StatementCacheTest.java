@@ -0,0 +1,113 @@
+package com.habittracker.infrastructure.db;
+
+import com.habittracker.repository.HabitCompletionQueries;
+import com.habittracker.repository.UserQueries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование кэша подготовленных запросов")
+class StatementCacheTest {
+    private Connection connection;
+    private AtomicLong hits;
+    private AtomicLong misses;
+    private StatementCache statementCache;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        statementCache = new StatementCache(connection, 2, hits, misses);
+    }
+
+    @Test
+    @DisplayName("Проверка повторного использования закрытого запроса")
+    public void testPrepare_ReusesClosedStatement() throws SQLException {
+        PreparedStatement first = statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL);
+        first.close();
+        PreparedStatement second = statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL);
+
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+        assertThrows(SQLException.class, () -> first.setString(1, "user@example.com"));
+        assertEquals(1, hits.get());
+        assertEquals(1, misses.get());
+        verify(connection, times(1)).prepareStatement(UserQueries.SELECT_USER_BY_EMAIL);
+    }
+
+    @Test
+    @DisplayName("Проверка того, что закрытие запроса сбрасывает его, но не закрывает на сервере")
+    public void testClose_ResetsStatementWithoutClosing() throws SQLException {
+        PreparedStatement physical = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(physical.executeQuery()).thenReturn(resultSet);
+        when(physical.getResultSet()).thenReturn(resultSet);
+        when(connection.prepareStatement(UserQueries.SELECT_USER_BY_EMAIL)).thenReturn(physical);
+        PreparedStatement statement = statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL);
+        statement.setMaxRows(1);
+        statement.setQueryTimeout(5);
+        statement.executeQuery();
+
+        statement.close();
+        statement.close();
+
+        verify(resultSet, times(1)).close();
+        verify(physical, times(1)).clearParameters();
+        verify(physical).setMaxRows(0);
+        verify(physical).setQueryTimeout(0);
+        verify(physical, never()).close();
+        assertTrue(statement.isClosed());
+        assertThrows(SQLException.class, statement::executeQuery);
+        verify(physical, times(1)).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Проверка закрытия запроса, который не удалось сбросить")
+    public void testClose_ClosesStatementThatCannotBeReset() throws SQLException {
+        PreparedStatement physical = mock(PreparedStatement.class);
+        doThrow(new SQLException("connection lost")).when(physical).clearParameters();
+        when(connection.prepareStatement(UserQueries.SELECT_USER_BY_EMAIL)).thenReturn(physical);
+        PreparedStatement statement = statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL);
+
+        assertThrows(SQLException.class, statement::close);
+
+        verify(physical).close();
+    }
+
+    @Test
+    @DisplayName("Проверка вложенного использования одного и того же запроса")
+    public void testPrepare_StatementInUse() throws SQLException {
+        PreparedStatement first = statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL);
+        PreparedStatement second = statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL);
+
+        assertNotSame(first, second);
+        assertEquals(0, hits.get());
+        assertEquals(2, misses.get());
+    }
+
+    @Test
+    @DisplayName("Проверка вытеснения давно не использованного запроса")
+    public void testPrepare_EvictsLeastRecentlyUsed() throws SQLException {
+        statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL).close();
+        statementCache.prepare(HabitCompletionQueries.SELECT_ALL_HABIT_COMPLETIONS).close();
+        statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL).close();
+        statementCache.prepare(HabitCompletionQueries.SELECT_HABIT_COMPLETION).close();
+
+        statementCache.prepare(UserQueries.SELECT_USER_BY_EMAIL).close();
+        statementCache.prepare(HabitCompletionQueries.SELECT_ALL_HABIT_COMPLETIONS).close();
+
+        verify(connection, times(1)).prepareStatement(UserQueries.SELECT_USER_BY_EMAIL);
+        verify(connection, times(2)).prepareStatement(HabitCompletionQueries.SELECT_ALL_HABIT_COMPLETIONS);
+    }
+}
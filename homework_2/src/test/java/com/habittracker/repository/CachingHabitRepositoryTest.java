@@ -0,0 +1,117 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.cache.LruCache;
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование кэширующего репозитория привычек")
+class CachingHabitRepositoryTest {
+    private HabitRepository delegate;
+    private CachingHabitRepository habitRepository;
+    private User user;
+    private Habit habit;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = mock(HabitRepository.class);
+        habitRepository = new CachingHabitRepository(delegate, new LruCache<>(10, 0));
+        user = new User("John Doe", "john@example.com", "password", User.Role.USER);
+        user.setId(7);
+        habit = new Habit("Exercise", "Daily workout", Habit.Frequency.DAILY, user);
+        when(delegate.getAllHabits(7)).thenAnswer(invocation -> new ArrayList<>(List.of(habit)));
+    }
+
+    @Test
+    @DisplayName("Проверка того, что повторные чтения списка выполняют один запрос")
+    public void testGetAllHabits_ReadThrough() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(List.of(habit), habitRepository.getAllHabits(user));
+        }
+
+        verify(delegate, times(1)).getAllHabits(7);
+        verify(delegate, never()).getAllHabits(user);
+        assertEquals(19, habitRepository.getCache().getHits());
+    }
+
+    @Test
+    @DisplayName("Проверка того, что изменение полученной копии не меняет кэш")
+    public void testGetAllHabits_ReturnsCopy() {
+        habitRepository.getAllHabits(user).clear();
+
+        assertEquals(1, habitRepository.getAllHabits(user).size());
+    }
+
+    @Test
+    @DisplayName("Проверка инвалидации при добавлении, изменении и удалении привычки")
+    public void testInvalidateOnWrite() {
+        habitRepository.getAllHabits(user);
+        habitRepository.addHabit(user, habit);
+        habitRepository.getAllHabits(user);
+        habitRepository.updateHabit(user, habit, "Yoga", "Daily yoga", Habit.Frequency.WEEKLY);
+        habitRepository.getAllHabits(user);
+        habitRepository.deleteHabit(user, "Yoga");
+        habitRepository.getAllHabits(7);
+        habitRepository.addHabit(7, habit);
+        habitRepository.getAllHabits(7);
+
+        verify(delegate, times(5)).getAllHabits(7);
+        verify(delegate).addHabit(user, habit);
+        verify(delegate).updateHabit(user, habit, "Yoga", "Daily yoga", Habit.Frequency.WEEKLY);
+        verify(delegate).deleteHabit(user, "Yoga");
+        verify(delegate).addHabit(7, habit);
+    }
+
+    @Test
+    @DisplayName("Проверка того, что списки других пользователей не инвалидируются")
+    public void testInvalidate_OtherUserKept() {
+        User other = new User("Jane Doe", "jane@example.com", "password", User.Role.USER);
+        other.setId(8);
+        when(delegate.getAllHabits(8)).thenReturn(new ArrayList<>());
+
+        habitRepository.getAllHabits(user);
+        habitRepository.getAllHabits(other);
+        habitRepository.deleteHabit(other, "Reading");
+        habitRepository.getAllHabits(user);
+
+        verify(delegate, times(1)).getAllHabits(7);
+    }
+
+    @Test
+    @DisplayName("Проверка работы без идентификатора пользователя")
+    public void testUnsavedUser() {
+        User unsaved = new User("Jane Doe", "jane@example.com", "password", User.Role.USER);
+        when(delegate.getAllHabits(unsaved)).thenReturn(new ArrayList<>());
+
+        habitRepository.getAllHabits(user);
+        habitRepository.getAllHabits(unsaved);
+        habitRepository.getAllHabits(unsaved);
+        habitRepository.addHabit(unsaved, habit);
+        habitRepository.getAllHabits(user);
+
+        verify(delegate, times(2)).getAllHabits(unsaved);
+        verify(delegate, times(2)).getAllHabits(7);
+    }
+
+    @Test
+    @DisplayName("Проверка вытеснения списков сверх числа пользователей в кэше")
+    public void testEviction() {
+        CachingHabitRepository small = new CachingHabitRepository(delegate, new LruCache<>(1, 0));
+        when(delegate.getAllHabits(8)).thenReturn(new ArrayList<>());
+
+        small.getAllHabits(7);
+        small.getAllHabits(8);
+        small.getAllHabits(7);
+
+        verify(delegate, times(2)).getAllHabits(7);
+        assertEquals(2, small.getCache().getEvictions());
+    }
+}
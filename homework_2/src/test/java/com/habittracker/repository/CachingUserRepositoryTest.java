@@ -0,0 +1,97 @@
+package com.habittracker.repository;
+
+import com.habittracker.infrastructure.cache.LruCache;
+import com.habittracker.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование кэширующего репозитория пользователей")
+class CachingUserRepositoryTest {
+    private UserRepository delegate;
+    private CachingUserRepository userRepository;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = mock(UserRepository.class);
+        userRepository = new CachingUserRepository(delegate, new LruCache<>(10, 0));
+        user = new User("John Doe", "john@example.com", "password", User.Role.USER);
+        user.setId(7);
+        when(delegate.getUser("john@example.com")).thenReturn(user);
+    }
+
+    @Test
+    @DisplayName("Проверка чтения пользователя из кэша")
+    public void testGetUser_ReadThrough() {
+        assertSame(user, userRepository.getUser("john@example.com"));
+        assertSame(user, userRepository.getUser("john@example.com"));
+        assertEquals(7, userRepository.getUserIdByEmail("john@example.com"));
+
+        verify(delegate, times(1)).getUser("john@example.com");
+        verify(delegate, never()).getUserIdByEmail(anyString());
+        assertEquals(2, userRepository.getCache().getHits());
+        assertEquals(1, userRepository.getCache().getMisses());
+    }
+
+    @Test
+    @DisplayName("Проверка того, что отсутствующий пользователь не кэшируется")
+    public void testGetUser_NotFound() {
+        assertNull(userRepository.getUser("unknown@example.com"));
+        assertNull(userRepository.getUser("unknown@example.com"));
+        assertNull(userRepository.getUserIdByEmail("unknown@example.com"));
+
+        verify(delegate, times(3)).getUser("unknown@example.com");
+    }
+
+    @Test
+    @DisplayName("Проверка инвалидации при изменении пользователя")
+    public void testInvalidateOnWrite() {
+        userRepository.getUser("john@example.com");
+        userRepository.updateUserPassword(user, "newPassword");
+        userRepository.getUser("john@example.com");
+        userRepository.blockUser(user, true);
+        userRepository.getUser("john@example.com");
+        userRepository.deleteUser(user);
+        userRepository.getUser("john@example.com");
+
+        verify(delegate, times(4)).getUser("john@example.com");
+        verify(delegate).updateUserPassword(user, "newPassword");
+        verify(delegate).blockUser(user, true);
+        verify(delegate).deleteUser(user);
+    }
+
+    @Test
+    @DisplayName("Проверка инвалидации старого и нового email при обновлении профиля")
+    public void testUpdateUser_InvalidatesBothEmails() {
+        User other = new User("Jane Doe", "jane@example.com", "password", User.Role.USER);
+        when(delegate.getUser("jane@example.com")).thenReturn(null, other);
+        when(delegate.updateUser(user, "Jane Doe", "jane@example.com")).thenReturn(true);
+
+        userRepository.getUser("john@example.com");
+        assertNull(userRepository.getUser("jane@example.com"));
+        assertTrue(userRepository.updateUser(user, "Jane Doe", "jane@example.com"));
+
+        userRepository.getUser("john@example.com");
+        assertSame(other, userRepository.getUser("jane@example.com"));
+        verify(delegate, times(2)).getUser("john@example.com");
+    }
+
+    @Test
+    @DisplayName("Проверка вытеснения пользователей сверх размера кэша")
+    public void testEviction() {
+        CachingUserRepository small = new CachingUserRepository(delegate, new LruCache<>(1, 0));
+        User other = new User("Jane Doe", "jane@example.com", "password", User.Role.USER);
+        when(delegate.getUser("jane@example.com")).thenReturn(other);
+
+        small.getUser("john@example.com");
+        small.getUser("jane@example.com");
+        small.getUser("john@example.com");
+
+        verify(delegate, times(2)).getUser("john@example.com");
+        assertEquals(2, small.getCache().getEvictions());
+    }
+}
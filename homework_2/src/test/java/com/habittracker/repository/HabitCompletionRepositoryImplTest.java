@@ -1,8 +1,11 @@
 package com.habittracker.repository;
 
 import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
+import com.habittracker.model.CompletionCounts;
 import com.habittracker.model.Habit;
 import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.HabitStats;
 import com.habittracker.model.User;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
@@ -22,7 +25,15 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +50,7 @@ public class HabitCompletionRepositoryImplTest {
     private static UserRepositoryImpl userRepository;
     private static HabitRepositoryImpl habitRepository;
     private Connection connection;
+    private ConnectionPool connectionPool;
     private HabitCompletionRepositoryImpl habitCompletionRepository;
     private static User user = new User("John Doe", "john@example.com", "password", User.Role.USER);
     private static Habit testHabit = new Habit("Exercise", "Daily workout", Habit.Frequency.DAILY, user, 1);
@@ -68,9 +80,15 @@ public class HabitCompletionRepositoryImplTest {
     @BeforeEach
     public void resetDatabase() throws SQLException {
         DatabaseConfig config = new DatabaseConfig("homework_2/src/main/resources/application.properties");
-        habitCompletionRepository = new HabitCompletionRepositoryImpl(config);
-        userRepository = new UserRepositoryImpl(config);
-        habitRepository = new HabitRepositoryImpl(config);
+        connectionPool = new ConnectionPool(config);
+        habitCompletionRepository = new HabitCompletionRepositoryImpl(connectionPool);
+        userRepository = new UserRepositoryImpl(connectionPool);
+        habitRepository = new HabitRepositoryImpl(connectionPool);
+    }
+
+    @AfterEach
+    public void closeConnectionPool() {
+        connectionPool.close();
     }
 
 
@@ -123,4 +141,201 @@ public class HabitCompletionRepositoryImplTest {
         habitCompletionRepository.deleteHabitCompletion(testHabit, completion2.getSerialNumber());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Проверка получения последних выполнений для списка привычек")
+    public void testGetLastHabitCompletions() {
+        HabitCompletion completion1 = new HabitCompletion(LocalDate.now().minusDays(1), testHabit, 1);
+        HabitCompletion completion2 = new HabitCompletion(LocalDate.now(), testHabit, 2);
+        habitCompletionRepository.addHabitCompletion(testHabit, completion2);
+        habitCompletionRepository.addHabitCompletion(testHabit, completion1);
+
+        Map<Integer, HabitCompletion> lastCompletions = habitCompletionRepository.getLastHabitCompletions(List.of(testHabit));
+        assertEquals(1, lastCompletions.size());
+        assertEquals(2, lastCompletions.get(testHabit.getId()).getSerialNumber());
+        habitCompletionRepository.deleteHabitCompletion(testHabit, completion1.getSerialNumber());
+        habitCompletionRepository.deleteHabitCompletion(testHabit, completion2.getSerialNumber());
+    }
+
+    @Test
+    @DisplayName("Проверка пакетного добавления выполнений с пропуском занятых серийных номеров")
+    public void testAddHabitCompletions() {
+        HabitCompletion existing = new HabitCompletion(LocalDate.now().minusDays(2), testHabit, 1);
+        habitCompletionRepository.addHabitCompletion(testHabit, existing);
+
+        HabitCompletion duplicate = new HabitCompletion(LocalDate.now().minusDays(2), testHabit, 1);
+        List<HabitCompletion> completions = List.of(
+                duplicate,
+                new HabitCompletion(LocalDate.now().minusDays(1), testHabit, 2),
+                new HabitCompletion(LocalDate.now(), testHabit, 3));
+
+        List<HabitCompletion> skipped = habitCompletionRepository.addHabitCompletions(testHabit, completions);
+        assertEquals(List.of(duplicate), skipped);
+        assertEquals(3, habitCompletionRepository.getAllHabitCompletion(testHabit).size());
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+    }
+
+    @Test
+    @DisplayName("Проверка ошибки пакетного добавления выполнений при недоступной базе данных")
+    public void testAddHabitCompletions_DatabaseErrorIsNotReportedAsSkipped() {
+        connectionPool.close();
+        List<HabitCompletion> completions = List.of(new HabitCompletion(LocalDate.now(), testHabit, 1));
+
+        assertThrows(IllegalStateException.class, () -> habitCompletionRepository.addHabitCompletions(testHabit, completions));
+        assertThrows(IllegalStateException.class, () -> habitCompletionRepository.addHabitCompletions(completions));
+    }
+
+    @Test
+    @DisplayName("Проверка подсчёта текущей серии выполнений в базе данных")
+    public void testGetHabitStreak() {
+        // Серийные номера 1, 2, 4, 5: текущая серия на пятый день равна двум
+        List<HabitCompletion> completions = List.of(
+                new HabitCompletion(LocalDate.now().minusDays(4), testHabit, 1),
+                new HabitCompletion(LocalDate.now().minusDays(3), testHabit, 2),
+                new HabitCompletion(LocalDate.now().minusDays(1), testHabit, 4),
+                new HabitCompletion(LocalDate.now(), testHabit, 5));
+        habitCompletionRepository.addHabitCompletions(testHabit, completions);
+
+        assertEquals(2, habitCompletionRepository.getHabitStreak(testHabit, 5));
+        assertEquals(0, habitCompletionRepository.getHabitStreak(testHabit, 6));
+        assertEquals(2, habitCompletionRepository.getHabitStreak(testHabit, 2));
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+    }
+
+    @Test
+    @DisplayName("Проверка подсчёта выполнений начиная с даты")
+    public void testCountHabitCompletions() {
+        habitCompletionRepository.addHabitCompletions(testHabit, List.of(
+                new HabitCompletion(LocalDate.now().minusDays(40), testHabit, 1),
+                new HabitCompletion(LocalDate.now().minusDays(3), testHabit, 2),
+                new HabitCompletion(LocalDate.now(), testHabit, 3)));
+
+        assertEquals(2, habitCompletionRepository.countHabitCompletionsByDate(testHabit, LocalDate.now().minusWeeks(1)));
+        assertEquals(1, habitCompletionRepository.countHabitCompletionsByDate(testHabit, LocalDate.now()));
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+    }
+
+    @Test
+    @DisplayName("Проверка потокового чтения истории выполнений по возрастанию серийного номера")
+    public void testStreamHabitCompletionHistory() {
+        List<HabitCompletion> completions = new ArrayList<>();
+        for (int serialNumber = 300; serialNumber >= 1; serialNumber--) {
+            completions.add(new HabitCompletion(LocalDate.now().minusDays(300 - serialNumber), testHabit, serialNumber));
+        }
+        habitCompletionRepository.addHabitCompletions(testHabit, completions);
+
+        List<Integer> serialNumbers = new ArrayList<>();
+        List<LocalDate> markDates = new ArrayList<>();
+        habitCompletionRepository.streamHabitCompletionHistory(testHabit, (serialNumber, markDay) -> {
+            serialNumbers.add(serialNumber);
+            markDates.add(LocalDate.ofEpochDay(markDay));
+        });
+
+        assertEquals(300, serialNumbers.size());
+        for (int i = 0; i < serialNumbers.size(); i++) {
+            assertEquals(i + 1, serialNumbers.get(i));
+        }
+        assertEquals(LocalDate.now().minusDays(299), markDates.get(0));
+        assertEquals(LocalDate.now(), markDates.get(299));
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+    }
+
+    @Test
+    @DisplayName("Проверка обновления статистики привычки при изменении выполнений")
+    public void testHabitStats() {
+        for (int serialNumber : new int[]{1, 2, 3, 5, 6}) {
+            habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now(), testHabit, serialNumber));
+        }
+        HabitStats stats = habitCompletionRepository.getHabitStats(testHabit);
+        assertEquals(2, stats.getCurrentStreak());
+        assertEquals(3, stats.getLongestStreak());
+        assertEquals(5, stats.getTotalCompletions());
+        assertEquals(6, stats.getLastSerialNumber());
+
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now(), testHabit, 4));
+        assertEquals(6, habitCompletionRepository.getHabitStats(testHabit).getCurrentStreak());
+
+        habitCompletionRepository.deleteHabitCompletion(testHabit, 3);
+        stats = habitCompletionRepository.getHabitStats(testHabit);
+        assertEquals(3, stats.getCurrentStreak());
+        assertEquals(3, stats.getLongestStreak());
+        assertEquals(5, stats.getTotalCompletions());
+        assertTrue(habitCompletionRepository.checkHabitStats().isEmpty());
+
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+        assertEquals(0, habitCompletionRepository.getHabitStats(testHabit).getTotalCompletions());
+    }
+
+    @Test
+    @DisplayName("Проверка пересчета статистики привычек")
+    public void testRebuildHabitStats() throws SQLException {
+        habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now(), testHabit, 1));
+        DatabaseConfig config = new DatabaseConfig("homework_2/src/main/resources/application.properties");
+        try (Connection connection = DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword())) {
+            connection.createStatement().executeUpdate("UPDATE app_schema.habit_stats SET total_completions = 10 WHERE habit_id = " + testHabit.getId());
+        }
+
+        assertEquals(List.of(testHabit.getId()), habitCompletionRepository.checkHabitStats());
+        assertTrue(habitCompletionRepository.rebuildHabitStats());
+        assertTrue(habitCompletionRepository.checkHabitStats().isEmpty());
+        assertEquals(1, habitCompletionRepository.getHabitStats(testHabit).getTotalCompletions());
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+    }
+
+    @Test
+    @DisplayName("Проверка статистики при одновременном добавлении и удалении выполнений")
+    public void testHabitStats_ConcurrentChanges() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        int serialNumber = 1 + random.nextInt(30);
+                        if (random.nextInt(3) == 0) {
+                            habitCompletionRepository.deleteHabitCompletion(testHabit, serialNumber);
+                        } else {
+                            habitCompletionRepository.addHabitCompletion(testHabit, new HabitCompletion(LocalDate.now(), testHabit, serialNumber));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(habitCompletionRepository.checkHabitStats().isEmpty());
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+    }
+
+    @Test
+    @DisplayName("Проверка подсчета выполнений за периоды по недельной сводке")
+    public void testGetHabitCompletionCounts_Rollup() {
+        LocalDate today = LocalDate.now();
+        List<HabitCompletion> completions = new ArrayList<>();
+        for (int serialNumber = 1; serialNumber <= 60; serialNumber++) {
+            completions.add(new HabitCompletion(today.minusDays(60 - serialNumber), testHabit, serialNumber));
+        }
+        habitCompletionRepository.addHabitCompletions(testHabit, completions);
+
+        CompletionCounts before = habitCompletionRepository.getHabitCompletionCounts(user.getId(), today, today.minusWeeks(1), today.minusMonths(1))
+                .get(testHabit.getId());
+        assertTrue(habitCompletionRepository.refreshCompletionRollup());
+        CompletionCounts after = habitCompletionRepository.getHabitCompletionCounts(user.getId(), today, today.minusWeeks(1), today.minusMonths(1))
+                .get(testHabit.getId());
+
+        int monthDays = (int) ChronoUnit.DAYS.between(today.minusMonths(1), today) + 1;
+        for (CompletionCounts counts : List.of(before, after)) {
+            assertEquals(1, counts.getDay());
+            assertEquals(8, counts.getWeek());
+            assertEquals(monthDays, counts.getMonth());
+            assertEquals(60, counts.getAllTime());
+        }
+        habitCompletionRepository.deleteAllHabitCompletion(testHabit);
+        habitCompletionRepository.refreshCompletionRollup();
+    }
+}
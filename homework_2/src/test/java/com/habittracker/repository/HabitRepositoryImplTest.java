@@ -1,6 +1,7 @@
 package com.habittracker.repository;
 
 import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
 import com.habittracker.model.Habit;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
@@ -27,6 +28,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @DisplayName("Тестирование репозитория привычек")
 public class HabitRepositoryImplTest {
     private Connection connection;
+    private ConnectionPool connectionPool;
     private UserRepositoryImpl userRepository;
     private HabitRepositoryImpl habitRepository;
 
@@ -61,8 +63,9 @@ public class HabitRepositoryImplTest {
     @BeforeEach
     public void setUp() throws SQLException {
         DatabaseConfig config = new DatabaseConfig("homework_2/src/main/resources/application.properties");
-        userRepository = new UserRepositoryImpl(config);
-        habitRepository = new HabitRepositoryImpl(config);
+        connectionPool = new ConnectionPool(config);
+        userRepository = new UserRepositoryImpl(connectionPool);
+        habitRepository = new HabitRepositoryImpl(connectionPool);
         connection.setAutoCommit(false);
         clearDatabase(); // Clear database before each test
     }
@@ -79,6 +82,7 @@ public class HabitRepositoryImplTest {
 
     @AfterEach
     public void tearDown() throws SQLException {
+        connectionPool.close();
         connection.close();
     }
 
@@ -154,4 +158,53 @@ public class HabitRepositoryImplTest {
         assertTrue(habits.stream().anyMatch(h -> h.getName().equals("Exercise")));
         assertTrue(habits.stream().anyMatch(h -> h.getName().equals("Reading")));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Проверка работы с привычками по идентификатору пользователя")
+    public void testHabitsByUserId() {
+        User user = new User("John Doe", "john@example.com", "password", User.Role.USER);
+        userRepository.addUser(user);
+        int userId = userRepository.getUser("john@example.com").getId();
+        assertEquals(userRepository.getUserIdByEmail("john@example.com"), userId);
+
+        Habit newHabit = new Habit("Exercise", "Daily workout", Habit.Frequency.DAILY, user, LocalDate.now());
+        assertTrue(habitRepository.addHabit(userId, newHabit));
+        assertNotEquals(0, newHabit.getId());
+
+        assertEquals(newHabit.getId(), habitRepository.getHabit(userId, "Exercise").getId());
+        assertTrue(habitRepository.updateHabit(userId, newHabit, "Yoga", "Daily yoga session", Habit.Frequency.WEEKLY));
+        assertEquals(Habit.Frequency.WEEKLY, habitRepository.getHabit(userId, "Yoga").getFrequency());
+        assertEquals(1, habitRepository.getAllHabits(userId).size());
+
+        assertTrue(habitRepository.deleteHabit(userId, "Yoga"));
+        assertTrue(habitRepository.getAllHabits(userId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверка постраничного получения привычек")
+    public void testGetAllHabitsPage() {
+        User user = new User("John Doe", "john@example.com", "password", User.Role.USER);
+        userRepository.addUser(user);
+        int userId = user.getId();
+        for (int i = 1; i <= 5; i++) {
+            habitRepository.addHabit(userId, new Habit("Habit " + i, "Description " + i, Habit.Frequency.DAILY, user, LocalDate.now()));
+        }
+
+        List<Habit> firstPage = habitRepository.getAllHabits(user, 0, 2);
+        assertEquals(2, firstPage.size());
+        assertTrue(firstPage.get(0).getId() < firstPage.get(1).getId());
+
+        List<Habit> secondPage = habitRepository.getAllHabits(userId, firstPage.get(1).getId(), 2);
+        assertEquals(2, secondPage.size());
+        assertTrue(firstPage.get(1).getId() < secondPage.get(0).getId());
+
+        List<Habit> lastPage = habitRepository.getAllHabits(userId, secondPage.get(1).getId(), 2);
+        assertEquals(1, lastPage.size());
+        assertEquals("Habit 5", lastPage.get(0).getName());
+
+        for (int i = 1; i <= 5; i++) {
+            habitRepository.deleteHabit(userId, "Habit " + i);
+        }
+        userRepository.deleteUser(user);
+    }
+}
@@ -0,0 +1,152 @@
+package com.habittracker.repository;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что каждый запрос из {@link HabitQueries}, {@link HabitCompletionQueries} и {@link ReportQueries}, фильтрующий строки,
+ * выполняется через индекс, а не последовательным сканированием таблицы.
+ */
+@Testcontainers
+@DisplayName("Тестирование планов запросов к привычкам и их выполнениям")
+public class QueriesPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:latest")
+            .withDatabaseName("habittracker")
+            .withUsername("habitadmin")
+            .withPassword("habit123");
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void setup() throws SQLException {
+        postgresContainer.start();
+        runLiquibaseMigrations();
+        connection = DriverManager.getConnection(postgresContainer.getJdbcUrl(),
+                postgresContainer.getUsername(), postgresContainer.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    private static void runLiquibaseMigrations() {
+        String jdbcUrl = postgresContainer.getJdbcUrl();
+        String username = postgresContainer.getUsername();
+        String password = postgresContainer.getPassword();
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+
+            Liquibase liquibase = new Liquibase("db/db.changelog-master.yml", new ClassLoaderResourceAccessor(), database);
+            liquibase.update(new Contexts(), new LabelExpression());
+        } catch (SQLException | LiquibaseException e) {
+            throw new RuntimeException("Failed to run Liquibase migrations", e);
+        }
+    }
+
+    @AfterAll
+    static void tearDownClass() throws SQLException {
+        connection.close();
+        postgresContainer.stop();
+    }
+
+    @TestFactory
+    @DisplayName("Проверка использования индекса каждым запросом к выполнениям привычек")
+    Stream<DynamicTest> testHabitCompletionQueriesUseIndex() throws IllegalAccessException {
+        return queriesUsingIndex(HabitCompletionQueries.class);
+    }
+
+    @TestFactory
+    @DisplayName("Проверка использования индекса каждым запросом к привычкам")
+    Stream<DynamicTest> testHabitQueriesUseIndex() throws IllegalAccessException {
+        return queriesUsingIndex(HabitQueries.class);
+    }
+
+    @TestFactory
+    @DisplayName("Проверка использования индекса запросом отчета")
+    Stream<DynamicTest> testReportQueriesUseIndex() throws IllegalAccessException {
+        return queriesUsingIndex(ReportQueries.class);
+    }
+
+    @TestFactory
+    @DisplayName("Проверка использования индекса запросами статистики одной привычки")
+    Stream<DynamicTest> testHabitStatsQueriesUseIndex() {
+        return Stream.of(
+                DynamicTest.dynamicTest("SELECT_HABIT_STATS", () -> assertUsesIndex(HabitStatsQueries.SELECT_HABIT_STATS)),
+                DynamicTest.dynamicTest("REBUILD_HABIT_STATS", () -> assertUsesIndex(HabitStatsQueries.REBUILD_HABIT_STATS)));
+    }
+
+    private Stream<DynamicTest> queriesUsingIndex(Class<?> queriesClass) throws IllegalAccessException {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (Field field : queriesClass.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) {
+                continue;
+            }
+            String sql = (String) field.get(null);
+            if (sql.startsWith("INSERT")) {
+                continue;
+            }
+            tests.add(DynamicTest.dynamicTest(field.getName(), () -> assertUsesIndex(sql)));
+        }
+        return tests.stream();
+    }
+
+    private void assertUsesIndex(String sql) throws SQLException {
+        String plan = explain(sql);
+        assertFalse(plan.contains("Seq Scan"), () -> "Sequential scan in plan:\n" + plan);
+        assertTrue(plan.contains("Index"), () -> "No index access in plan:\n" + plan);
+    }
+
+    /**
+     * Строит план запроса, подставляя значения параметров по их типам.
+     */
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            ParameterMetaData metaData = statement.getParameterMetaData();
+            for (int i = 1; i <= metaData.getParameterCount(); i++) {
+                switch (metaData.getParameterType(i)) {
+                    case Types.DATE:
+                        statement.setDate(i, Date.valueOf(LocalDate.now()));
+                        break;
+                    case Types.VARCHAR:
+                        statement.setString(i, "test");
+                        break;
+                    case Types.ARRAY:
+                        statement.setArray(i, connection.createArrayOf("integer", new Object[]{1, 2}));
+                        break;
+                    default:
+                        statement.setInt(i, 1);
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
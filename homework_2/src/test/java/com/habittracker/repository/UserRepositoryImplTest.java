@@ -1,6 +1,7 @@
 package com.habittracker.repository;
 
 import com.habittracker.config.DatabaseConfig;
+import com.habittracker.infrastructure.db.ConnectionPool;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
 import liquibase.Liquibase;
@@ -13,10 +14,15 @@ import org.junit.jupiter.api.*;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import com.habittracker.model.Habit;
 import com.habittracker.model.User;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -24,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @DisplayName("Тестирование репозитория пользователя")
 public class UserRepositoryImplTest {
     private Connection connection;
+    private ConnectionPool connectionPool;
     private UserRepositoryImpl userRepository;
 
     @Container
@@ -57,12 +64,14 @@ public class UserRepositoryImplTest {
     @BeforeEach
     public void setUp() throws SQLException {
         DatabaseConfig config = new DatabaseConfig("homework_2/src/main/resources/application.properties");
-        userRepository = new UserRepositoryImpl(config);
+        connectionPool = new ConnectionPool(config);
+        userRepository = new UserRepositoryImpl(connectionPool);
         connection.setAutoCommit(false);
     }
 
     @AfterEach
     public void tearDown() throws SQLException {
+        connectionPool.close();
         connection.close();
     }
 
@@ -126,5 +135,58 @@ public class UserRepositoryImplTest {
         userRepository.deleteUser(user);
     }
 
+    @Test
+    @DisplayName("Проверка постраничного получения пользователей с привычками")
+    public void testGetUsersWithHabits() {
+        HabitRepositoryImpl habitRepository = new HabitRepositoryImpl(connectionPool);
+        User withHabits = new User("With Habits", "with.habits@example.com", "password", User.Role.USER);
+        User withoutHabits = new User("Without Habits", "without.habits@example.com", "password", User.Role.USER);
+        userRepository.addUser(withHabits);
+        userRepository.addUser(withoutHabits);
+        habitRepository.addHabit(withHabits, new Habit("Exercise", "Daily workout", Habit.Frequency.DAILY, withHabits, LocalDate.now()));
+        habitRepository.addHabit(withHabits, new Habit("Reading", "Read a book", Habit.Frequency.WEEKLY, withHabits, LocalDate.now()));
+
+        Map<String, User> found = new HashMap<>();
+        int afterId = 0;
+        List<User> page;
+        do {
+            page = userRepository.getUsersWithHabits(afterId, 2);
+            assertTrue(page.size() <= 2);
+            for (User user : page) {
+                assertTrue(user.getId() > afterId);
+                found.put(user.getEmail(), user);
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 2);
+
+        assertEquals(2, found.get("with.habits@example.com").getHabits().size());
+        assertTrue(found.get("without.habits@example.com").getHabits().isEmpty());
+        habitRepository.deleteHabit(withHabits, "Exercise");
+        habitRepository.deleteHabit(withHabits, "Reading");
+        userRepository.deleteUser(withHabits);
+        userRepository.deleteUser(withoutHabits);
+    }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Проверка постраничного получения пользователей")
+    public void testGetAllUsersPage() {
+        User first = new User("First", "first.page@example.com", "password", User.Role.USER);
+        User second = new User("Second", "second.page@example.com", "password", User.Role.USER);
+        userRepository.addUser(first);
+        userRepository.addUser(second);
+
+        List<User> page = userRepository.getAllUsers(first.getId() - 1, 1);
+        assertEquals(1, page.size());
+        assertEquals("first.page@example.com", page.get(0).getEmail());
+
+        page = userRepository.getAllUsers(page.get(0).getId(), 1);
+        assertEquals(1, page.size());
+        assertEquals("second.page@example.com", page.get(0).getEmail());
+        assertTrue(userRepository.getAllUsers(second.getId(), 1).isEmpty());
+
+        userRepository.deleteUser(first);
+        userRepository.deleteUser(second);
+    }
+}
@@ -1,5 +1,6 @@
 package com.habittracker.service;
 
+import com.habittracker.model.CompletionVisitor;
 import com.habittracker.model.Habit;
 import com.habittracker.model.User;
 import com.habittracker.model.HabitCompletion;
@@ -122,5 +123,24 @@ public class HabitCompletionTest {
 
         verify(habitCompletionRepository, never()).getAllHabitCompletion(any());
     }
-}
 
+    @Test
+    @DisplayName("Проверка потокового чтения истории выполнений")
+    void testStreamHabitCompletionHistory() {
+        CompletionVisitor visitor = mock(CompletionVisitor.class);
+
+        habitCompletionService.streamHabitCompletionHistory(testHabit, visitor);
+
+        verify(habitCompletionRepository, times(1)).streamHabitCompletionHistory(testHabit, visitor);
+    }
+
+    @Test
+    @DisplayName("Проверка потокового чтения истории при отсутствии привычки")
+    void testStreamHabitCompletionHistory_NullHabit() {
+        CompletionVisitor visitor = mock(CompletionVisitor.class);
+        habitCompletionService.streamHabitCompletionHistory(null, visitor);
+
+        verifyNoInteractions(visitor);
+        verify(habitCompletionRepository, never()).streamHabitCompletionHistory(any(), any());
+    }
+}
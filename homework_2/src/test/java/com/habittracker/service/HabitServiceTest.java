@@ -1,8 +1,10 @@
 package com.habittracker.service;
 
+import com.habittracker.model.CompletionCounts;
 import com.habittracker.model.Habit;
 import com.habittracker.model.User;
 import com.habittracker.model.HabitCompletion;
+import com.habittracker.model.HabitStats;
 import com.habittracker.repository.HabitCompletionRepository;
 import com.habittracker.repository.HabitRepository;
 import com.habittracker.repository.UserRepository;
@@ -126,6 +128,19 @@ class HabitServiceTest {
         verify(habitRepository).getAllHabits(testUser);
     }
 
+    @Test
+    @DisplayName("Проверка получения страницы привычек")
+    public void testGetAllHabitsPage() {
+        Habit habit = new Habit("Habit 1", "Description 1", Habit.Frequency.DAILY, testUser);
+        habit.setId(11);
+        List<Habit> page = List.of(habit);
+
+        when(habitRepository.getAllHabits(testUser, 10, 5)).thenReturn(page);
+
+        assertEquals(page, habitService.getAllHabits(testUser, 10, 5));
+        verify(habitRepository, never()).getAllHabits(testUser);
+    }
+
     @Test
     @DisplayName("Проверка успешного обавления привычки")
     public void testUpdateHabit_Success() {
@@ -223,8 +238,7 @@ class HabitServiceTest {
         Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
         dailyHabit.setCreateDate(LocalDate.now().minusDays(1)); // Создана вчера
 
-        List<HabitCompletion> completions = new ArrayList<>();
-        when(habitCompletionRepository.getAllHabitCompletion(dailyHabit)).thenReturn(completions);
+        when(habitCompletionRepository.getLastHabitCompletions(Collections.singletonList(dailyHabit))).thenReturn(Collections.emptyMap());
 
         List<Habit> availableHabits = habitService.getAvailableHabits(Collections.singletonList(dailyHabit));
 
@@ -237,10 +251,9 @@ class HabitServiceTest {
         Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
         dailyHabit.setCreateDate(LocalDate.now().minusDays(1)); // Создана вчера
 
-        List<HabitCompletion> completions = new ArrayList<>();
         HabitCompletion completion = new HabitCompletion(LocalDate.now(), dailyHabit);
-        completions.add(completion);
-        when(habitCompletionRepository.getAllHabitCompletion(dailyHabit)).thenReturn(completions);
+        when(habitCompletionRepository.getLastHabitCompletions(Collections.singletonList(dailyHabit)))
+                .thenReturn(Map.of(dailyHabit.getId(), completion));
 
         List<Habit> availableHabits = habitService.getAvailableHabits(Collections.singletonList(dailyHabit));
 
@@ -253,30 +266,57 @@ class HabitServiceTest {
         Habit weeklyHabit = new Habit("Weekly Habit", "Weekly description", Habit.Frequency.WEEKLY, testUser);
         weeklyHabit.setCreateDate(LocalDate.now().minusWeeks(2)); // Создана 2 недели назад
 
-        when(habitCompletionRepository.getAllHabitCompletion(weeklyHabit)).thenReturn(Collections.emptyList());
+        when(habitCompletionRepository.getLastHabitCompletions(Collections.singletonList(weeklyHabit))).thenReturn(Collections.emptyMap());
 
         List<Habit> availableHabits = habitService.getAvailableHabits(Collections.singletonList(weeklyHabit));
 
         assertTrue(availableHabits.contains(weeklyHabit));
     }
 
+    @Test
+    @DisplayName("Проверка еженедельной привычки, выполненной на этой неделе")
+    public void testGetAvailableHabits_WeeklyHabit_CompletedThisWeek() {
+        Habit weeklyHabit = new Habit("Weekly Habit", "Weekly description", Habit.Frequency.WEEKLY, testUser);
+        weeklyHabit.setCreateDate(LocalDate.now().minusWeeks(2));
+
+        HabitCompletion completion = new HabitCompletion(LocalDate.now(), weeklyHabit);
+        when(habitCompletionRepository.getLastHabitCompletions(Collections.singletonList(weeklyHabit)))
+                .thenReturn(Map.of(weeklyHabit.getId(), completion));
+
+        List<Habit> availableHabits = habitService.getAvailableHabits(Collections.singletonList(weeklyHabit));
+
+        assertFalse(availableHabits.contains(weeklyHabit));
+    }
+
+    @Test
+    @DisplayName("Проверка загрузки последних выполнений одним обращением к репозиторию")
+    public void testGetAvailableHabits_SingleRepositoryCall() {
+        Habit first = new Habit("First", "Description", Habit.Frequency.DAILY, testUser, 1);
+        Habit second = new Habit("Second", "Description", Habit.Frequency.DAILY, testUser, 2);
+        Habit third = new Habit("Third", "Description", Habit.Frequency.WEEKLY, testUser, 3);
+        List<Habit> habits = Arrays.asList(first, second, third);
+        when(habitCompletionRepository.getLastHabitCompletions(habits))
+                .thenReturn(Map.of(2, new HabitCompletion(LocalDate.now(), second)));
+
+        List<Habit> availableHabits = habitService.getAvailableHabits(habits);
+
+        assertEquals(Arrays.asList(first, third), availableHabits);
+        verify(habitCompletionRepository, times(1)).getLastHabitCompletions(habits);
+        verify(habitCompletionRepository, never()).getAllHabitCompletion(any());
+    }
+
     @Test
     @DisplayName("Проверка подсчёта серии ежедневных привычек")
     public void testCountHabitStreak_DailyHabit_CompleteToday() {
         Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
         dailyHabit.setCreateDate(LocalDate.now().minusDays(4)); // Создана 4 дня назад
 
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now(), dailyHabit), // Завершение сегодня
-                new HabitCompletion(LocalDate.now().minusDays(1), dailyHabit), // Завершение вчера
-                new HabitCompletion(LocalDate.now().minusDays(2), dailyHabit) // Завершение позавчера
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletion(dailyHabit)).thenReturn(completions);
+        when(habitCompletionRepository.getHabitStreak(dailyHabit, 5)).thenReturn(3); // Сегодня пятый день
 
         int streak = habitService.countHabitStreak(dailyHabit);
 
         assertEquals(3, streak);
+        verify(habitCompletionRepository, never()).getAllHabitCompletion(any());
     }
 
 
@@ -286,12 +326,7 @@ class HabitServiceTest {
         Habit weeklyHabit = new Habit("Weekly Habit", "Weekly description", Habit.Frequency.WEEKLY, testUser);
         weeklyHabit.setCreateDate(LocalDate.now().minusWeeks(3)); // Создана 3 недели назад
 
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now().minusWeeks(1), weeklyHabit), // Завершение на прошлой неделе
-                new HabitCompletion(LocalDate.now(), weeklyHabit) // Завершение на этой неделе
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletion(weeklyHabit)).thenReturn(completions);
+        when(habitCompletionRepository.getHabitStreak(weeklyHabit, 4)).thenReturn(2); // Сейчас четвертая неделя
 
         int streak = habitService.countHabitStreak(weeklyHabit);
 
@@ -305,28 +340,92 @@ class HabitServiceTest {
         Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
         dailyHabit.setCreateDate(LocalDate.now().minusDays(4)); // Создана 4 дня назад
 
-        when(habitCompletionRepository.getAllHabitCompletion(dailyHabit)).thenReturn(Collections.emptyList());
+        when(habitCompletionRepository.getHabitStreak(dailyHabit, 5)).thenReturn(0);
 
         int streak = habitService.countHabitStreak(dailyHabit);
 
         assertEquals(0, streak);
     }
 
+    @Test
+    @DisplayName("Проверка подсчёта серии по статистике привычки")
+    public void testCountHabitStreak_FromStats() {
+        Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
+        dailyHabit.setCreateDate(LocalDate.now().minusDays(4)); // Создана 4 дня назад
+
+        when(habitCompletionRepository.getHabitStats(dailyHabit)).thenReturn(new HabitStats(3, 3, 4, 5));
+
+        assertEquals(3, habitService.countHabitStreak(dailyHabit));
+        verify(habitCompletionRepository, never()).getHabitStreak(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Проверка серии по статистике без выполнения в текущем периоде")
+    public void testCountHabitStreak_FromStats_NotCompletedToday() {
+        Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
+        dailyHabit.setCreateDate(LocalDate.now().minusDays(4));
+
+        when(habitCompletionRepository.getHabitStats(dailyHabit)).thenReturn(new HabitStats(4, 4, 4, 4));
+
+        assertEquals(0, habitService.countHabitStreak(dailyHabit));
+        verify(habitCompletionRepository, never()).getHabitStreak(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Проверка серии при выполнениях позже текущего периода")
+    public void testCountHabitStreak_FromStats_FutureCompletion() {
+        Habit dailyHabit = new Habit("Daily Habit", "Daily description", Habit.Frequency.DAILY, testUser);
+        dailyHabit.setCreateDate(LocalDate.now().minusDays(4));
+
+        when(habitCompletionRepository.getHabitStats(dailyHabit)).thenReturn(new HabitStats(1, 2, 3, 7));
+        when(habitCompletionRepository.getHabitStreak(dailyHabit, 5)).thenReturn(2);
+
+        assertEquals(2, habitService.countHabitStreak(dailyHabit));
+    }
+
+    @Test
+    @DisplayName("Проверка процента выполнения за всё время по статистике привычки")
+    public void testCountPercentage_FromStats() {
+        LocalDate startDate = LocalDate.now().minusDays(9);
+        Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser, startDate);
+        when(habitCompletionRepository.getHabitStats(dailyHabit)).thenReturn(new HabitStats(1, 4, 7, 10));
+
+        assertEquals(70, habitService.countPercentage(startDate, dailyHabit));
+        verify(habitCompletionRepository, never()).countHabitCompletionsByDate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Проверка пересчета и проверки статистики привычек")
+    public void testRebuildAndCheckHabitStats() {
+        when(habitCompletionRepository.rebuildHabitStats()).thenReturn(true);
+        when(habitCompletionRepository.checkHabitStats()).thenReturn(List.of(3));
+
+        assertTrue(habitService.rebuildHabitStats());
+        assertEquals(List.of(3), habitService.checkHabitStats());
+    }
+
+    @Test
+    @DisplayName("Проверка подсчёта серий всех привычек пользователя")
+    public void testCountHabitStreaks() {
+        testUser.setId(7);
+        when(habitCompletionRepository.getHabitStreaks(7, LocalDate.now())).thenReturn(Map.of(1, 3, 2, 1));
+
+        Map<Integer, Integer> streaks = habitService.countHabitStreaks(testUser);
+
+        assertEquals(Map.of(1, 3, 2, 1), streaks);
+    }
+
     @Test
     @DisplayName("Проверка подсчёта процента выполнения ежедневных привычек")
     public void testCountPercentage_DailyHabit_Success() {
         LocalDate startDate = LocalDate.now().minusDays(9);
         Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser, startDate);
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now().minusDays(2), dailyHabit),
-                new HabitCompletion(LocalDate.now().minusDays(5), dailyHabit)
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, startDate)).thenReturn(completions);
+        when(habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, startDate)).thenReturn(2);
 
         int result = habitService.countPercentage(startDate, dailyHabit);
 
         assertEquals(20, result);
+        verify(habitCompletionRepository, never()).getAllHabitCompletionByDate(any(), any());
     }
 
     @Test
@@ -334,12 +433,7 @@ class HabitServiceTest {
     public void testCountPercentage_WeeklyHabit_Success() {
         LocalDate startDate = LocalDate.now().minusWeeks(4);
         Habit weeklyHabit = new Habit("Weekly Habit", "Description", Habit.Frequency.WEEKLY, testUser, startDate);
-        List<HabitCompletion> completions = Arrays.asList(
-                new HabitCompletion(LocalDate.now().minusWeeks(1), weeklyHabit),
-                new HabitCompletion(LocalDate.now().minusWeeks(3), weeklyHabit)
-        );
-
-        when(habitCompletionRepository.getAllHabitCompletionByDate(weeklyHabit, startDate)).thenReturn(completions);
+        when(habitCompletionRepository.countHabitCompletionsByDate(weeklyHabit, startDate)).thenReturn(2);
 
         int result = habitService.countPercentage(startDate, weeklyHabit);
 
@@ -352,7 +446,7 @@ class HabitServiceTest {
         LocalDate startDate = LocalDate.now().minusDays(7);
         Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser);
 
-        when(habitCompletionRepository.getAllHabitCompletionByDate(dailyHabit, startDate)).thenReturn(Arrays.asList());
+        when(habitCompletionRepository.countHabitCompletionsByDate(dailyHabit, startDate)).thenReturn(0);
 
         int result = habitService.countPercentage(startDate, dailyHabit);
 
@@ -370,4 +464,29 @@ class HabitServiceTest {
         assertEquals(0, result);
     }
 
+    @Test
+    @DisplayName("Проверка подсчёта выполнений всех привычек пользователя за несколько периодов")
+    public void testCountHabitCompletions() {
+        testUser.setId(7);
+        LocalDate today = LocalDate.now();
+        CompletionCounts counts = new CompletionCounts(1, 5, 20, 42);
+        when(habitCompletionRepository.getHabitCompletionCounts(7, today, today.minusWeeks(1), today.minusMonths(1)))
+                .thenReturn(Map.of(3, counts));
+
+        Map<Integer, CompletionCounts> result = habitService.countHabitCompletions(testUser);
+
+        assertSame(counts, result.get(3));
+    }
+
+    @Test
+    @DisplayName("Проверка подсчёта процента выполнения по известному числу выполнений")
+    public void testCountPercentage_WithKnownCount() {
+        LocalDate startDate = LocalDate.now().minusDays(9);
+        Habit dailyHabit = new Habit("Daily Habit", "Description", Habit.Frequency.DAILY, testUser, startDate);
+
+        int result = habitService.countPercentage(startDate, dailyHabit, 5);
+
+        assertEquals(50, result);
+        verifyNoInteractions(habitCompletionRepository);
+    }
 }
@@ -0,0 +1,159 @@
+package com.habittracker.service;
+
+import com.habittracker.infrastructure.db.ConnectionPool;
+import com.habittracker.model.CompletionVisitor;
+import com.habittracker.model.Habit;
+import com.habittracker.model.User;
+import com.habittracker.repository.HabitCompletionRepository;
+import com.habittracker.repository.HabitRepository;
+import com.habittracker.repository.ReportQueries;
+import com.habittracker.repository.ReportRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование сервиса отчетов")
+class ReportServiceTest {
+    private ConnectionPool connectionPool;
+    private Connection connection;
+    private ResultSet resultSet;
+    private HabitRepository habitRepository;
+    private HabitCompletionRepository habitCompletionRepository;
+    private ReportService reportService;
+    private User testUser;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connectionPool = mock(ConnectionPool.class);
+        connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(connectionPool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        habitRepository = mock(HabitRepository.class);
+        habitCompletionRepository = mock(HabitCompletionRepository.class);
+        HabitService habitService = new HabitService(habitCompletionRepository, habitRepository);
+        reportService = new ReportService(new ReportRepositoryImpl(connectionPool), habitService,
+                new HabitCompletionService(habitCompletionRepository));
+
+        testUser = new User("Test User", "test@example.com", "password", User.Role.USER);
+        testUser.setId(1);
+    }
+
+    private void mockHabitRows(int habits) throws SQLException {
+        AtomicInteger row = new AtomicInteger();
+        when(resultSet.next()).thenAnswer(invocation -> row.incrementAndGet() <= habits);
+        when(resultSet.getString("name")).thenAnswer(invocation -> "Habit " + row.get());
+        when(resultSet.getString("frequency")).thenReturn("DAILY");
+        when(resultSet.getDate("create_date")).thenReturn(Date.valueOf(LocalDate.now().minusDays(9)));
+        when(resultSet.getInt("id")).thenAnswer(invocation -> row.get());
+        when(resultSet.getInt("streak")).thenReturn(2);
+        when(resultSet.getInt("day_count")).thenReturn(1);
+        when(resultSet.getInt("week_count")).thenReturn(4);
+        when(resultSet.getInt("month_count")).thenReturn(5);
+        when(resultSet.getInt("all_time_count")).thenReturn(5);
+    }
+
+    @Test
+    @DisplayName("Проверка того, что число запросов не зависит от числа привычек")
+    public void testWriteReport_ConstantStatementCount() throws SQLException, IOException {
+        for (int habits : new int[]{1, 10, 100}) {
+            clearInvocations(connectionPool, connection);
+            mockHabitRows(habits);
+            StringWriter writer = new StringWriter();
+
+            reportService.writeReport(testUser, writer);
+
+            verify(connectionPool, times(1)).getConnection();
+            verify(connection, times(1)).prepareStatement(anyString());
+            verify(connection).prepareStatement(ReportQueries.SELECT_HABIT_REPORT);
+            assertTrue(writer.toString().contains("DAILY habbit Habit " + habits + ":\n"));
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка содержимого отчета")
+    public void testWriteReport_Content() throws SQLException, IOException {
+        mockHabitRows(1);
+        StringWriter writer = new StringWriter();
+
+        reportService.writeReport(testUser, writer);
+
+        assertEquals("Hello, Test User!\n"
+                + "This is your report on keeping your habits:\n"
+                + "DAILY habbit Habit 1:\n"
+                + "   Current streak: 2\n"
+                + "   For all time fulfilled 50% \n"
+                + "   Today's accomplished 100% \n"
+                + "   In the last week, accomplished 50% \n"
+                + "   In the last month, accomplished 50% \n\n"
+                + "Good luck!\n", writer.toString());
+    }
+
+    @Test
+    @DisplayName("Проверка отчета пользователя без привычек")
+    public void testWriteReport_NoHabits() throws SQLException, IOException {
+        mockHabitRows(0);
+        StringWriter writer = new StringWriter();
+
+        reportService.writeReport(testUser, writer);
+
+        assertEquals("Hello, Test User!\n"
+                + "This is your report on keeping your habits:\n"
+                + "You don't have habits."
+                + "Good luck!\n", writer.toString());
+    }
+
+    @Test
+    @DisplayName("Проверка потоковой записи истории выполнений")
+    public void testWriteHistory() throws IOException {
+        Habit reading = new Habit("Reading", "Read a book", Habit.Frequency.DAILY, testUser, LocalDate.of(2024, 10, 1));
+        Habit running = new Habit("Running", "Morning run", Habit.Frequency.WEEKLY, testUser, LocalDate.of(2024, 10, 1));
+        when(habitRepository.getAllHabits(testUser)).thenReturn(List.of(reading, running));
+        doAnswer(invocation -> {
+            CompletionVisitor visitor = invocation.getArgument(1);
+            visitor.accept(1, (int) LocalDate.of(2024, 10, 1).toEpochDay());
+            visitor.accept(2, (int) LocalDate.of(2024, 10, 2).toEpochDay());
+            return null;
+        }).when(habitCompletionRepository).streamHabitCompletionHistory(eq(reading), any());
+        StringWriter writer = new StringWriter();
+
+        reportService.writeHistory(testUser, writer);
+
+        assertEquals("Habit: Reading: \n"
+                + "   1. 2024-10-01\n"
+                + "   2. 2024-10-02\n"
+                + "Habit: Running: \n"
+                + "   There are no fulfillment marks.\n", writer.toString());
+        verify(habitCompletionRepository, never()).getAllHabitCompletion(any());
+    }
+
+    @Test
+    @DisplayName("Проверка истории пользователя без привычек")
+    public void testWriteHistory_NoHabits() throws IOException {
+        when(habitRepository.getAllHabits(testUser)).thenReturn(Collections.emptyList());
+        StringWriter writer = new StringWriter();
+
+        reportService.writeHistory(testUser, writer);
+
+        assertEquals("You don't have habits.\n", writer.toString());
+        verify(habitCompletionRepository, never()).streamHabitCompletionHistory(any(), any());
+    }
+}
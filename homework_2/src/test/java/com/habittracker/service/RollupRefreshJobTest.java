@@ -0,0 +1,39 @@
+package com.habittracker.service;
+
+import com.habittracker.repository.HabitCompletionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Тестирование фонового обновления недельной сводки")
+public class RollupRefreshJobTest {
+    private HabitCompletionRepository habitCompletionRepository;
+
+    @BeforeEach
+    void setUp() {
+        habitCompletionRepository = mock(HabitCompletionRepository.class);
+        when(habitCompletionRepository.refreshCompletionRollup()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Проверка обновления сводки при запуске и далее по интервалу")
+    void testScheduledRefresh() {
+        try (RollupRefreshJob job = new RollupRefreshJob(habitCompletionRepository, 50)) {
+            verify(habitCompletionRepository, timeout(2000).atLeast(2)).refreshCompletionRollup();
+        }
+    }
+
+    @Test
+    @DisplayName("Проверка отключенного фонового обновления")
+    void testDisabledRefresh() {
+        try (RollupRefreshJob job = new RollupRefreshJob(habitCompletionRepository, 0)) {
+            verify(habitCompletionRepository, after(200).never()).refreshCompletionRollup();
+
+            assertTrue(job.refresh());
+            verify(habitCompletionRepository, times(1)).refreshCompletionRollup();
+        }
+    }
+}
@@ -199,4 +199,29 @@ class UserServiceTest {
         verify(userRepository, times(1)).getAllUsers();
     }
 
+    @Test
+    @DisplayName("Проверка получения страницы пользователей с привычками")
+    public void testGetUsersWithHabits() {
+        User user = new User("User", "user@example.com", "password", User.Role.USER);
+        user.setId(21);
+        List<User> page = List.of(user);
+
+        when(userRepository.getUsersWithHabits(20, 10)).thenReturn(page);
+
+        assertEquals(page, userService.getUsersWithHabits(20, 10));
+        verify(userRepository, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("Проверка получения страницы пользователей")
+    public void testGetAllUsersPage() {
+        User user = new User("User", "user@example.com", "password", User.Role.USER);
+        user.setId(21);
+        List<User> page = List.of(user);
+
+        when(userRepository.getAllUsers(20, 10)).thenReturn(page);
+
+        assertEquals(page, userService.getAllUsers(20, 10));
+        verify(userRepository, never()).getAllUsers();
+    }
 }